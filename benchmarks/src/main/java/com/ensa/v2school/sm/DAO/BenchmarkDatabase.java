@@ -0,0 +1,152 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Embedded profile of the application (in-process H2, MySQL mode, schema from {@code sql/data.sql})
+ * seeded once per fork with {@link #students} students.
+ * <p>
+ * Fixed shape so runs are comparable: {@value #MAJORS} majors, {@value #SUBJECTS_PER_MAJOR} subjects per major,
+ * every student enrolled in (and marked on) {@value #ENROLMENTS_PER_STUDENT} subjects of its major,
+ * and one dossier per student. The random generator uses a fixed seed.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    static final int MAJORS = 10;
+    static final int SUBJECTS_PER_MAJOR = 12;
+    static final int ENROLMENTS_PER_STUDENT = 6;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        // Must run before the first DataBaseConnection.getInstance() of the fork: empty tables, our rows below
+        System.setProperty("sm.db.profile", "embedded");
+        System.setProperty("sm.db.embedded.seed", "schema");
+
+        try (Connection con = DataBaseConnection.getInstance().getConnection()) {
+            con.setAutoCommit(false);
+            insertReferenceData(con);
+            insertStudents(con);
+            con.commit();
+        }
+        // the seed bypasses StudentRepository, so build the aggregates from scratch
+        new MajorStatsVerifier().verify();
+    }
+
+    static String studentId(int index) {
+        return String.format("S%07d", index);
+    }
+
+    /** Id of the {@code n}-th subject of a major, subjects being numbered major by major. */
+    static int subjectId(int majorId, int n) {
+        return (majorId - 1) * SUBJECTS_PER_MAJOR + n + 1;
+    }
+
+    static int majorOf(int studentIndex) {
+        return studentIndex % MAJORS + 1;
+    }
+
+    private void insertReferenceData(Connection con) throws SQLException {
+        try (PreparedStatement majors = con.prepareStatement("INSERT INTO majors (id, name, description) VALUES (?, ?, ?)");
+             PreparedStatement subjects = con.prepareStatement("INSERT INTO subjects (id, name) VALUES (?, ?)");
+             PreparedStatement links = con.prepareStatement("INSERT INTO major_subject (major_id, subject_id) VALUES (?, ?)")) {
+
+            for (int m = 1; m <= MAJORS; m++) {
+                majors.setInt(1, m);
+                majors.setString(2, "Major " + m);
+                majors.setString(3, "Benchmark major " + m);
+                majors.addBatch();
+
+                for (int n = 0; n < SUBJECTS_PER_MAJOR; n++) {
+                    int subjectId = subjectId(m, n);
+                    subjects.setInt(1, subjectId);
+                    subjects.setString(2, "Subject " + subjectId);
+                    subjects.addBatch();
+
+                    links.setInt(1, m);
+                    links.setInt(2, subjectId);
+                    links.addBatch();
+                }
+            }
+            majors.executeBatch();
+            subjects.executeBatch();
+            links.executeBatch();
+        }
+    }
+
+    private void insertStudents(Connection con) throws SQLException {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+
+        try (PreparedStatement st = con.prepareStatement(
+                "INSERT INTO students (id, first_name, last_name, average, major_id) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement dossier = con.prepareStatement(
+                     "INSERT INTO dossier_administratif (numero_inscription, date_creation, eleve_id) VALUES (?, ?, ?)");
+             PreparedStatement enrol = con.prepareStatement(
+                     "INSERT INTO student_subject (student_id, subject_id) VALUES (?, ?)");
+             PreparedStatement mark = con.prepareStatement(
+                     "INSERT INTO marks (studentId, subjectId, value) VALUES (?, ?, ?)")) {
+
+            for (int i = 0; i < students; i++) {
+                String id = studentId(i);
+                int majorId = majorOf(i);
+
+                st.setString(1, id);
+                st.setString(2, "First" + i);
+                st.setString(3, "Last" + i);
+                st.setFloat(4, clamp(12 + 3 * (float) random.nextGaussian()));
+                st.setInt(5, majorId);
+                st.addBatch();
+
+                dossier.setString(1, "INS-BENCH-" + i);
+                dossier.setDate(2, Date.valueOf(today));
+                dossier.setString(3, id);
+                dossier.addBatch();
+
+                for (int n = 0; n < ENROLMENTS_PER_STUDENT; n++) {
+                    int subjectId = subjectId(majorId, n);
+                    enrol.setString(1, id);
+                    enrol.setInt(2, subjectId);
+                    enrol.addBatch();
+
+                    mark.setString(1, id);
+                    mark.setInt(2, subjectId);
+                    mark.setFloat(3, clamp(12 + 4 * (float) random.nextGaussian()));
+                    mark.addBatch();
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    // parents first: the child tables reference students
+                    st.executeBatch();
+                    dossier.executeBatch();
+                    enrol.executeBatch();
+                    mark.executeBatch();
+                }
+            }
+            st.executeBatch();
+            dossier.executeBatch();
+            enrol.executeBatch();
+            mark.executeBatch();
+        }
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0, Math.min(20, value));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Major;
+import com.ensa.v2school.sm.Models.Mark;
+import com.ensa.v2school.sm.Models.Student;
+import com.ensa.v2school.sm.Models.Subject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write paths of the repositories, against the seeded {@link BenchmarkDatabase}.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar}; add {@code -p students=1000} to pick one size, and
+ * {@code -jvmArgsAppend -Dsm.metrics=false} to measure without {@link com.ensa.v2school.sm.utils.QueryMetrics}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmarks {
+
+    private static final int EXAM_SIZE = 300;
+
+    private final StudentRepository studentRepository = new StudentRepository();
+    private final MajorRepository majorRepository = new MajorRepository();
+    private final SubjectRepository subjectRepository = new SubjectRepository();
+    private final MarkRepository markRepository = new MarkRepository();
+
+    private String studentId;
+    private int majorId;
+    private List<Integer> newSubjectIds;
+    private List<Mark> exam;
+
+    @Setup(Level.Trial)
+    public void prepareExam(BenchmarkDatabase db) {
+        // students of major 1 are every MAJORS-th index, all enrolled in its first subject
+        int subjectId = BenchmarkDatabase.subjectId(1, 0);
+        exam = new ArrayList<>();
+        for (int index = 0; index < db.students && exam.size() < EXAM_SIZE; index += BenchmarkDatabase.MAJORS) {
+            Student student = new Student();
+            student.setId(BenchmarkDatabase.studentId(index));
+            Subject subject = new Subject();
+            subject.setId(subjectId);
+            exam.add(new Mark(0, student, subject, ThreadLocalRandom.current().nextInt(41) / 2f));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void pickStudent(BenchmarkDatabase db) {
+        int index = ThreadLocalRandom.current().nextInt(db.students);
+        studentId = BenchmarkDatabase.studentId(index);
+        majorId = BenchmarkDatabase.majorOf(index);
+
+        // subjects of the major the student is not enrolled in yet
+        newSubjectIds = new ArrayList<>();
+        for (int n = BenchmarkDatabase.ENROLMENTS_PER_STUDENT; n < BenchmarkDatabase.SUBJECTS_PER_MAJOR; n++) {
+            newSubjectIds.add(BenchmarkDatabase.subjectId(majorId, n));
+        }
+    }
+
+    @Benchmark
+    public List<Student> studentGetAll() throws SQLException {
+        return studentRepository.getAll();
+    }
+
+    @Benchmark
+    public List<Student> studentFindByMajor() throws SQLException {
+        return studentRepository.findByMajor(majorId);
+    }
+
+    /** Enrol then unenrol, so the table keeps its size across iterations. */
+    @Benchmark
+    public void studentEnrollInSubjects() throws SQLException {
+        studentRepository.enrollInSubjects(studentId, newSubjectIds);
+        studentRepository.unenrollFromSubjects(studentId, newSubjectIds);
+    }
+
+    @Benchmark
+    public List<Major> majorGetAll() throws SQLException {
+        return majorRepository.getAll();
+    }
+
+    @Benchmark
+    public List<Major> majorGetAllUncached() throws SQLException {
+        ReferenceDataCache.invalidateAll();
+        return majorRepository.getAll();
+    }
+
+    @Benchmark
+    public List<Subject> subjectGetAll() throws SQLException {
+        return subjectRepository.getAll();
+    }
+
+    @Benchmark
+    public List<Subject> subjectGetAllUncached() throws SQLException {
+        ReferenceDataCache.invalidateAll();
+        return subjectRepository.getAll();
+    }
+
+    /** One exam's grades: 300 marks of one subject, rewritten in place so the table keeps its size. */
+    @Benchmark
+    public List<Mark> markUpsertAllExam() throws SQLException {
+        return markRepository.upsertAll(exam);
+    }
+
+    @Benchmark
+    public Optional<List<Mark>> markFindByStudent() throws SQLException {
+        return markRepository.findByStudent(studentId);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -16,6 +17,8 @@ import java.util.ResourceBundle;
 
 public class AdminController implements Initializable {
 
+    private static final Log LOG = Log.get(AdminController.class);
+
     @FXML
     private AnchorPane centerAnchor;
 
@@ -28,8 +31,8 @@ public class AdminController implements Initializable {
     }
     public void loadView(String viewName){
         try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/com/ensa/v2school/sm/"+viewName+".fxml"));
-            AnchorPane view = fxmlLoader.load();
+            // cached for the session: parsed once, its controller hydrated the first time only
+            Parent view = ViewRegistry.getInstance().show(viewName).root();
             centerAnchor.getChildren().clear();
             centerAnchor.getChildren().add(view);
             AnchorPane.setTopAnchor(view,0.0);
@@ -37,7 +40,7 @@ public class AdminController implements Initializable {
             AnchorPane.setRightAnchor(view,0.0);
             AnchorPane.setBottomAnchor(view,0.0);
         } catch (IOException e) {
-            System.err.println(e.getMessage());
+            LOG.error("Error loading view", "view", viewName, e);
         }
     }
     public void handleStats(ActionEvent e){
@@ -45,6 +48,8 @@ public class AdminController implements Initializable {
         loadView("Stats");
     }
     public void handleLogout(){
+        centerAnchor.getChildren().clear(); // takes the current view off screen, e.g. stops the performance sampler
+        ViewRegistry.getInstance().clear();
         navigateTo("Login");
     }
     public void handleMajors(ActionEvent e){
@@ -52,14 +57,25 @@ public class AdminController implements Initializable {
         loadView("Majors");
     }
     public void navigateTo(String viewName) {
+        ViewShowEvent event = new ViewShowEvent();
+        event.begin();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/ensa/v2school/sm/" + viewName + ".fxml"));
+            long start = System.nanoTime();
             Parent root = loader.load();
+            long parseTime = System.nanoTime() - start;
             Stage stage = (Stage) sideBar.getScene().getWindow();
             stage.setScene(new Scene(root));
             stage.show();
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.view = viewName;
+                event.parseTime = parseTime; // initialize() runs within load(): there is no separate hydration
+                event.commit();
+            }
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Error navigating", "view", viewName, e);
         }
     }
     private void setActive(Button activeBtn) {
@@ -81,4 +97,10 @@ public class AdminController implements Initializable {
         setActive((Button) e.getSource());
         loadView("subjects");
     }
+
+    @FXML
+    public void handlePerformance(ActionEvent e) {
+        setActive((Button) e.getSource());
+        loadView("Performance");
+    }
 }
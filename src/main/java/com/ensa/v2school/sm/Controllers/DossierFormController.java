@@ -1,19 +1,22 @@
 // DossierFormController.java
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.DossierAdministratifRepository;
 import com.ensa.v2school.sm.Models.DossierAdministratif;
 import com.ensa.v2school.sm.Models.Student;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Optional;
 
 public class DossierFormController {
 
+    private static final Log LOG = Log.get(DossierFormController.class);
+
     @FXML private TextField numeroInscriptionField;
     @FXML private DatePicker dateCreationPicker;
     @FXML private Button saveBtn;
@@ -22,6 +25,7 @@ public class DossierFormController {
     private Student student;
     private DossierAdministratif dossier;
     private final DossierAdministratifRepository repo = new DossierAdministratifRepository();
+    private final AsyncRepository<DossierAdministratif, Integer> asyncRepo = new AsyncRepository<>(repo);
 
     public void setStudent(Student student) {
         this.student = student;
@@ -29,38 +33,45 @@ public class DossierFormController {
     }
 
     private void loadOrInit() {
-        try {
-            Optional<DossierAdministratif> existing = repo.findByStudentId(student.getId());
-            if (existing.isPresent()) {
-                dossier = existing.get();
-                numeroInscriptionField.setText(dossier.getNumeroInscription());
-                dateCreationPicker.setValue(dossier.getDateCreation());
-            } else {
-                dossier = new DossierAdministratif();
-                dossier.setEleveId(student.getId());
-                dossier.setDateCreation(LocalDate.now());
-                dossier.setNumeroInscription(repo.generateNumeroInscription());
-                numeroInscriptionField.setText(dossier.getNumeroInscription());
-                dateCreationPicker.setValue(dossier.getDateCreation());
-                dateCreationPicker.setDisable(true);
-            }
-        } catch (SQLException e) {
-            showError(e.getMessage());
-        }
+        saveBtn.setDisable(true); // until there is a dossier to save
+
+        asyncRepo.call(() -> {
+                    Optional<DossierAdministratif> existing = repo.findByStudentId(student.getId());
+                    if (existing.isPresent()) {
+                        return existing.get();
+                    }
+                    DossierAdministratif created = new DossierAdministratif();
+                    created.setEleveId(student.getId());
+                    created.setDateCreation(LocalDate.now());
+                    created.setNumeroInscription(repo.generateNumeroInscription());
+                    return created;
+                })
+                .thenAccept(loaded -> {
+                    dossier = loaded;
+                    numeroInscriptionField.setText(dossier.getNumeroInscription());
+                    dateCreationPicker.setValue(dossier.getDateCreation());
+                    dateCreationPicker.setDisable(dossier.getId() == 0);
+                    saveBtn.setDisable(false);
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error loading dossier", "student", student.getId(), e);
+                    showError(e.getCause().getMessage());
+                    return null;
+                });
     }
 
     @FXML
     private void handleSave() {
-        try {
-            if (dossier.getId() == 0) {
-                repo.create(dossier);
-            } else {
-                repo.update(dossier);
-            }
-            close();
-        } catch (SQLException e) {
-            showError(e.getMessage());
-        }
+        saveBtn.setDisable(true);
+
+        (dossier.getId() == 0 ? asyncRepo.create(dossier) : asyncRepo.update(dossier))
+                .thenAccept(saved -> close())
+                .exceptionally(e -> {
+                    saveBtn.setDisable(false);
+                    LOG.error("Error saving dossier", "student", student.getId(), e);
+                    showError(e.getCause().getMessage());
+                    return null;
+                });
     }
 
     @FXML
@@ -1,9 +1,11 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.StudentRepository;
 import com.ensa.v2school.sm.DAO.SubjectRepository;
 import com.ensa.v2school.sm.Models.Student;
 import com.ensa.v2school.sm.Models.Subject;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -16,6 +18,8 @@ import java.util.*;
 
 public class EnrollFormController implements Initializable {
 
+    private static final Log LOG = Log.get(EnrollFormController.class);
+
     @FXML private Label studentNameLabel;
     @FXML private Label majorNameLabel;
     @FXML private ListView<Subject> subjectsListView;
@@ -24,19 +28,21 @@ public class EnrollFormController implements Initializable {
     private Student student;
     private StudentRepository studentRepository = new StudentRepository();
     private SubjectRepository subjectRepository = new SubjectRepository();
+    private AsyncRepository<Student, String> asyncStudentRepository = new AsyncRepository<>(studentRepository);
+    private AsyncRepository<Subject, Integer> asyncSubjectRepository = new AsyncRepository<>(subjectRepository);
 
     // Map to track which subjects are selected
     private Map<Subject, javafx.beans.property.BooleanProperty> subjectSelectionMap = new HashMap<>();
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        System.out.println("EnrollFormController initialized!");
+        LOG.debug("Controller initialized");
 
         // Configure ListView with checkboxes
         if (subjectsListView != null) {
             setupCheckBoxListView();
         } else {
-            System.err.println("ERROR: subjectsListView is NULL!");
+            LOG.error("subjectsListView was not injected");
         }
     }
 
@@ -68,45 +74,45 @@ public class EnrollFormController implements Initializable {
     }
 
     private void loadSubjectsForMajor() {
-        try {
-            // Get all subjects for the student's major
-            List<Subject> availableSubjects = subjectRepository.findByMajorId(student.getMajor().getId());
-
-            // Get subjects the student is already enrolled in
-            List<Subject> enrolledSubjects = studentRepository.getEnrolledSubjects(student.getId());
-            Set<Integer> enrolledSubjectIds = new HashSet<>();
-            for (Subject s : enrolledSubjects) {
-                enrolledSubjectIds.add(s.getId());
-            }
+        // Subjects of the student's major and the ones the student is already enrolled in, queried in parallel
+        asyncSubjectRepository.call(() -> subjectRepository.findByMajorId(student.getMajor().getId()))
+                .thenAcceptBoth(asyncStudentRepository.call(() -> studentRepository.getEnrolledSubjects(student.getId())),
+                        this::showSubjects)
+                .exceptionally(e -> {
+                    LOG.error("Error loading subjects", e);
+                    showAlert("Error", "Could not load subjects: " + e.getMessage());
+                    return null;
+                });
+    }
 
-            // Clear and populate the list
-            subjectsListView.getItems().clear();
-            subjectSelectionMap.clear();
+    private void showSubjects(List<Subject> availableSubjects, List<Subject> enrolledSubjects) {
+        Set<Integer> enrolledSubjectIds = new HashSet<>();
+        for (Subject s : enrolledSubjects) {
+            enrolledSubjectIds.add(s.getId());
+        }
 
-            if (availableSubjects.isEmpty()) {
-                statusLabel.setText("No subjects available for this major");
-                statusLabel.setStyle("-fx-text-fill: #ef4444;");
-                return;
-            }
+        // Clear and populate the list
+        subjectsListView.getItems().clear();
+        subjectSelectionMap.clear();
 
-            subjectsListView.getItems().addAll(availableSubjects);
+        if (availableSubjects.isEmpty()) {
+            statusLabel.setText("No subjects available for this major");
+            statusLabel.setStyle("-fx-text-fill: #ef4444;");
+            return;
+        }
 
-            // Pre-check already enrolled subjects
-            javafx.application.Platform.runLater(() -> {
-                for (Map.Entry<Subject, javafx.beans.property.BooleanProperty> entry : subjectSelectionMap.entrySet()) {
-                    if (enrolledSubjectIds.contains(entry.getKey().getId())) {
-                        entry.getValue().set(true);
-                    }
-                }
-            });
+        subjectsListView.getItems().addAll(availableSubjects);
 
-            System.out.println("Loaded " + availableSubjects.size() + " subjects for major: " + student.getMajor().getMajorName());
+        // Pre-check already enrolled subjects
+        javafx.application.Platform.runLater(() -> {
+            for (Map.Entry<Subject, javafx.beans.property.BooleanProperty> entry : subjectSelectionMap.entrySet()) {
+                if (enrolledSubjectIds.contains(entry.getKey().getId())) {
+                    entry.getValue().set(true);
+                }
+            }
+        });
 
-        } catch (SQLException e) {
-            System.err.println("Error loading subjects: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("Error", "Could not load subjects: " + e.getMessage());
-        }
+        LOG.debug("Loaded subjects for major", "subjects", availableSubjects.size(), "major", student.getMajor().getMajorName());
     }
 
     @FXML
@@ -127,55 +133,62 @@ public class EnrollFormController implements Initializable {
             return;
         }
 
-        try {
-            // Get currently enrolled subjects
-            List<Subject> currentlyEnrolled = studentRepository.getEnrolledSubjects(student.getId());
-            Set<Integer> currentlyEnrolledIds = new HashSet<>();
-            for (Subject s : currentlyEnrolled) {
-                currentlyEnrolledIds.add(s.getId());
-            }
+        asyncStudentRepository.call(() -> {
+                    updateEnrolments(selectedSubjectIds);
+                    return null;
+                })
+                .thenAccept(updated -> {
+                    // Show success message
+                    Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                    successAlert.setTitle("Success");
+                    successAlert.setHeaderText("Enrollment Updated");
+                    successAlert.setContentText(
+                            "Student enrolled in " + selectedSubjectIds.size() + " subject(s):\n" +
+                                    String.join(", ", selectedSubjectNames)
+                    );
+                    successAlert.showAndWait();
+
+                    close();
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error enrolling student", e);
+                    showAlert("Error", "Failed to enroll student: " + e.getMessage());
+                    return null;
+                });
+    }
 
-            // Find subjects to add (selected but not currently enrolled)
-            List<Integer> subjectsToAdd = new ArrayList<>();
-            for (Integer id : selectedSubjectIds) {
-                if (!currentlyEnrolledIds.contains(id)) {
-                    subjectsToAdd.add(id);
-                }
-            }
+    /** Runs on a database thread: enrols the student in the selected subjects and out of the others. */
+    private void updateEnrolments(List<Integer> selectedSubjectIds) throws SQLException {
+        // Get currently enrolled subjects
+        List<Subject> currentlyEnrolled = studentRepository.getEnrolledSubjects(student.getId());
+        Set<Integer> currentlyEnrolledIds = new HashSet<>();
+        for (Subject s : currentlyEnrolled) {
+            currentlyEnrolledIds.add(s.getId());
+        }
 
-            // Find subjects to remove (currently enrolled but not selected)
-            List<Integer> subjectsToRemove = new ArrayList<>();
-            for (Integer id : currentlyEnrolledIds) {
-                if (!selectedSubjectIds.contains(id)) {
-                    subjectsToRemove.add(id);
-                }
+        // Find subjects to add (selected but not currently enrolled)
+        List<Integer> subjectsToAdd = new ArrayList<>();
+        for (Integer id : selectedSubjectIds) {
+            if (!currentlyEnrolledIds.contains(id)) {
+                subjectsToAdd.add(id);
             }
+        }
 
-            // Perform enrollment/unenrollment
-            if (!subjectsToAdd.isEmpty()) {
-                studentRepository.enrollInSubjects(student.getId(), subjectsToAdd);
+        // Find subjects to remove (currently enrolled but not selected)
+        List<Integer> subjectsToRemove = new ArrayList<>();
+        for (Integer id : currentlyEnrolledIds) {
+            if (!selectedSubjectIds.contains(id)) {
+                subjectsToRemove.add(id);
             }
+        }
 
-            if (!subjectsToRemove.isEmpty()) {
-                studentRepository.unenrollFromSubjects(student.getId(), subjectsToRemove);
-            }
+        // Perform enrollment/unenrollment
+        if (!subjectsToAdd.isEmpty()) {
+            studentRepository.enrollInSubjects(student.getId(), subjectsToAdd);
+        }
 
-            // Show success message
-            Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-            successAlert.setTitle("Success");
-            successAlert.setHeaderText("Enrollment Updated");
-            successAlert.setContentText(
-                    "Student enrolled in " + selectedSubjectIds.size() + " subject(s):\n" +
-                            String.join(", ", selectedSubjectNames)
-            );
-            successAlert.showAndWait();
-
-            close();
-
-        } catch (SQLException e) {
-            System.err.println("SQL Error during enrollment: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("Error", "Failed to enroll student: " + e.getMessage());
+        if (!subjectsToRemove.isEmpty()) {
+            studentRepository.unenrollFromSubjects(student.getId(), subjectsToRemove);
         }
     }
 
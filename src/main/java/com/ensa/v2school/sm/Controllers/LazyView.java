@@ -0,0 +1,19 @@
+package com.ensa.v2school.sm.Controllers;
+
+/**
+ * Controller of a view cached by {@link ViewRegistry}. Such a view may be parsed on a background thread long
+ * before it is shown, so its {@code initialize} only wires the controls; data is loaded in {@link #hydrate()}
+ * and refreshed in {@link #onShow()}.
+ */
+public interface LazyView {
+
+    /** Called once, on the JavaFX Application Thread, the first time the view is shown. */
+    void hydrate();
+
+    /**
+     * Called on the JavaFX Application Thread every later time the cached view is shown again. Should only
+     * re-run cheap queries, or skip them when nothing changed since (see {@code ReferenceDataCache.generation()}).
+     */
+    default void onShow() {
+    }
+}
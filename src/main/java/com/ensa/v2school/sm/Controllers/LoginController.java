@@ -1,4 +1,5 @@
 package com.ensa.v2school.sm.Controllers;
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.StudentRepository;
 import com.ensa.v2school.sm.DAO.UserRepository;
 import com.ensa.v2school.sm.Models.ROLE;
@@ -12,16 +13,18 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import com.ensa.v2school.sm.*;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.Optional;
 import java.util.ResourceBundle;
 
 public class LoginController implements Initializable {
+
+    private static final Log LOG = Log.get(LoginController.class);
+
     @FXML
     private Label ErrMsg;
 
@@ -35,10 +38,12 @@ public class LoginController implements Initializable {
     private TextField usernameField;
 
     UserRepository userRepository = new UserRepository();
+    AsyncRepository<User, Integer> asyncUserRepository = new AsyncRepository<>(userRepository);
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-
+        // parse the dashboard views while the user types; they only query the database once shown
+        ViewRegistry.getInstance().preload(ViewRegistry.DASHBOARD_VIEWS);
     }
     public void Handlelogin(){
         String username = usernameField.getText();
@@ -48,23 +53,29 @@ public class LoginController implements Initializable {
             ErrMsg.setVisible(true);
             return;
         }
-        try{Optional<User> user= userRepository.authenticate(username,password);
-            if (user.isPresent()) {
-                if (user.get().isAdmin()) {
-                    navigateTo("AdminDashboard");
-                }
+        loginBtn.setDisable(true);
 
-            }
-            else {
-                ErrMsg.setText("Invalid Credentials, please try again !");
-                ErrMsg.setVisible(true);
-            }
-        }
-        catch (SQLException e) {
-            ErrMsg.setText("Database error. Try again.");
-            ErrMsg.setVisible(true);
-            e.printStackTrace();
-        }
+        asyncUserRepository.call(() -> userRepository.authenticate(username, password))
+                .thenAccept(user -> {
+                    loginBtn.setDisable(false);
+                    if (user.isPresent()) {
+                        if (user.get().isAdmin()) {
+                            navigateTo("AdminDashboard");
+                        }
+
+                    }
+                    else {
+                        ErrMsg.setText("Invalid Credentials, please try again !");
+                        ErrMsg.setVisible(true);
+                    }
+                })
+                .exceptionally(e -> {
+                    loginBtn.setDisable(false);
+                    ErrMsg.setText("Database error. Try again.");
+                    ErrMsg.setVisible(true);
+                    LOG.error("Error authenticating", e);
+                    return null;
+                });
     }
 
     public void navigateTo(String viewName) {
@@ -75,7 +86,7 @@ public class LoginController implements Initializable {
             stage.setScene(new Scene(root));
             stage.show();
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Error navigating", "view", viewName, e);
         }
     }
 
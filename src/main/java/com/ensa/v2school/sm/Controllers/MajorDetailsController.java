@@ -1,11 +1,12 @@
 package com.ensa.v2school.sm.Controllers;
 
-import com.ensa.v2school.sm.DAO.MajorRepository;
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.StudentRepository;
 import com.ensa.v2school.sm.DAO.SubjectRepository;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Student;
 import com.ensa.v2school.sm.Models.Subject;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -27,6 +28,8 @@ import java.util.stream.Collectors;
 
 public class MajorDetailsController implements Initializable {
 
+    private static final Log LOG = Log.get(MajorDetailsController.class);
+
     @FXML private Label majorTitleLabel;
     @FXML private Label majorNameLabel;
     @FXML private Label majorDescLabel;
@@ -46,7 +49,8 @@ public class MajorDetailsController implements Initializable {
     private Major major;
     private final StudentRepository studentRepository = new StudentRepository();
     private final SubjectRepository subjectRepository = new SubjectRepository();
-    private final MajorRepository majorRepository = new MajorRepository();
+    private final AsyncRepository<Subject, Integer> asyncSubjectRepository = new AsyncRepository<>(subjectRepository);
+    private final AsyncRepository<Student, String> asyncStudentRepository = new AsyncRepository<>(studentRepository);
 
     public void setMajor(Major major) {
         this.major = major;
@@ -64,95 +68,111 @@ public class MajorDetailsController implements Initializable {
     }
 
     private void loadSubjects() {
-        try {
-            List<Subject> subjects = subjectRepository.findByMajorId(major.getId());
-            subjectsTable.getItems().clear();
-            subjectsTable.getItems().addAll(subjects);
-            subjectCountLabel.setText("Total subjects: " + subjects.size());
-
-            if (subjects.isEmpty()) {
-                System.out.println("No subjects are currently assigned to this major.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading subjects: " + e.getMessage());
-            showAlert("Database Error", "Could not load subjects for this major!");
-        }
+        asyncSubjectRepository.call(() -> subjectRepository.findByMajorId(major.getId()))
+                .thenAccept(subjects -> {
+                    subjectsTable.getItems().setAll(subjects);
+                    subjectCountLabel.setText("Total subjects: " + subjects.size());
+
+                    if (subjects.isEmpty()) {
+                        LOG.debug("No subjects assigned to major", "major", major.getId());
+                    }
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error loading subjects", "major", major.getId(), e);
+                    showAlert("Database Error", "Could not load subjects for this major!");
+                    return null;
+                });
     }
 
     private void loadStudents() {
-        try {
-            List<Student> students = studentRepository.findByMajor(major.getId());
-            studentsTable.getItems().clear();
-            studentsTable.getItems().addAll(students);
-            studentCountLabel.setText("Total students: " + students.size());
-
-            if (students.isEmpty()) {
-                System.out.println("No students are currently enrolled in this major.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading students: " + e.getMessage());
-            showAlert("Database Error", "Could not load students for this major!");
-        }
+        asyncStudentRepository.call(() -> studentRepository.findByMajor(major.getId()))
+                .thenAccept(students -> {
+                    studentsTable.getItems().setAll(students);
+                    studentCountLabel.setText("Total students: " + students.size());
+
+                    if (students.isEmpty()) {
+                        LOG.debug("No students enrolled in major", "major", major.getId());
+                    }
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error loading students", "major", major.getId(), e);
+                    showAlert("Database Error", "Could not load students for this major!");
+                    return null;
+                });
     }
 
     @FXML
     private void handleAddSubject() {
-        try {
-            // Get all subjects
-            List<Subject> allSubjects = subjectRepository.getAll();
-
-            // Get subjects already in this major
-            List<Subject> currentSubjects = subjectRepository.findByMajorId(major.getId());
-            List<Integer> currentSubjectIds = currentSubjects.stream()
-                    .map(Subject::getId)
-                    .toList();
-
-            // Filter out subjects already in this major
-            List<Subject> availableSubjects = allSubjects.stream()
-                    .filter(s -> !currentSubjectIds.contains(s.getId()))
-                    .toList();
-
-            if (availableSubjects.isEmpty()) {
-                showInfoAlert("No Available Subjects", "All subjects are already assigned to this major.");
-                return;
-            }
-
-            // Create choice dialog
-            ChoiceDialog<Subject> dialog = new ChoiceDialog<>(availableSubjects.getFirst(), availableSubjects);
-            dialog.setTitle("Add Subject");
-            dialog.setHeaderText("Add Subject to " + major.getMajorName());
-            dialog.setContentText("Choose a subject:");
-
-            Optional<Subject> result = dialog.showAndWait();
-
-            if (result.isPresent()) {
-                Subject selectedSubject = result.get();
-
-                // Add this major to the subject's list of majors
-                selectedSubject.setMajors(subjectRepository.get(selectedSubject.getId())
-                        .orElse(selectedSubject).getMajors());
-
-                if (selectedSubject.getMajors() == null) {
-                    selectedSubject.setMajors(new ArrayList<>());
-                }
-
-                // Check if major is not already in the list
-                boolean majorExists = selectedSubject.getMajors().stream()
-                        .anyMatch(m -> m.getId() == major.getId());
-
-                if (!majorExists) {
-                    selectedSubject.getMajors().add(major);
-                    subjectRepository.update(selectedSubject);
-
-                    showSuccessAlert("Subject added successfully to " + major.getMajorName());
-                    loadSubjects();
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error adding subject: " + e.getMessage());
-            showAlert("Database Error", "Could not add subject to this major!");
+        asyncSubjectRepository.call(() -> {
+                    // Get subjects already in this major
+                    List<Integer> currentSubjectIds = subjectRepository.findByMajorId(major.getId()).stream()
+                            .map(Subject::getId)
+                            .toList();
+
+                    // Filter them out of all subjects
+                    return subjectRepository.getAll().stream()
+                            .filter(s -> !currentSubjectIds.contains(s.getId()))
+                            .toList();
+                })
+                .thenAccept(this::chooseSubjectToAdd)
+                .exceptionally(e -> {
+                    LOG.error("Error loading subjects", "major", major.getId(), e);
+                    showAlert("Database Error", "Could not load subjects!");
+                    return null;
+                });
+    }
+
+    private void chooseSubjectToAdd(List<Subject> availableSubjects) {
+        if (availableSubjects.isEmpty()) {
+            showInfoAlert("No Available Subjects", "All subjects are already assigned to this major.");
+            return;
+        }
+
+        // Create choice dialog
+        ChoiceDialog<Subject> dialog = new ChoiceDialog<>(availableSubjects.getFirst(), availableSubjects);
+        dialog.setTitle("Add Subject");
+        dialog.setHeaderText("Add Subject to " + major.getMajorName());
+        dialog.setContentText("Choose a subject:");
+
+        Optional<Subject> result = dialog.showAndWait();
+        if (result.isEmpty()) {
+            return;
+        }
+        Subject selectedSubject = result.get();
+
+        asyncSubjectRepository.call(() -> addMajorTo(selectedSubject))
+                .thenAccept(added -> {
+                    if (added) {
+                        showSuccessAlert("Subject added successfully to " + major.getMajorName());
+                        loadSubjects();
+                    }
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error adding subject", "major", major.getId(), "subject", selectedSubject.getId(), e);
+                    showAlert("Database Error", "Could not add subject to this major!");
+                    return null;
+                });
+    }
+
+    /** Runs on a database thread: false when the subject already belongs to this major. */
+    private boolean addMajorTo(Subject selectedSubject) throws SQLException {
+        // Add this major to the subject's list of majors
+        selectedSubject.setMajors(subjectRepository.get(selectedSubject.getId())
+                .orElse(selectedSubject).getMajors());
+
+        if (selectedSubject.getMajors() == null) {
+            selectedSubject.setMajors(new ArrayList<>());
         }
+
+        // Check if major is not already in the list
+        boolean majorExists = selectedSubject.getMajors().stream()
+                .anyMatch(m -> m.getId() == major.getId());
+        if (majorExists) {
+            return false;
+        }
+        selectedSubject.getMajors().add(major);
+        subjectRepository.update(selectedSubject);
+        return true;
     }
 
     @FXML
@@ -173,37 +193,44 @@ public class MajorDetailsController implements Initializable {
         Optional<ButtonType> result = confirmAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try {
-                // Get the full subject with all its majors
-                Optional<Subject> fullSubject = subjectRepository.get(selected.getId());
-
-                if (fullSubject.isPresent()) {
-                    Subject subjectToUpdate = fullSubject.get();
-
-                    // Remove this major from the subject's list
-                    List<Major> updatedMajors = subjectToUpdate.getMajors().stream()
-                            .filter(m -> m.getId() != major.getId())
-                            .collect(Collectors.toList());
-
-                    subjectToUpdate.setMajors(updatedMajors);
-
-                    // Update in database
-                    subjectRepository.update(subjectToUpdate);
-
-                    showSuccessAlert("Subject removed successfully from " + major.getMajorName());
-                    loadSubjects();
-                } else {
-                    showAlert("Error", "Subject not found in database!");
-                }
-
-            } catch (SQLException e) {
-                System.err.println("Error removing subject: " + e.getMessage());
-                e.printStackTrace();
-                showAlert("Database Error", "Could not remove subject from this major!");
-            }
+            asyncSubjectRepository.call(() -> removeMajorFrom(selected.getId()))
+                    .thenAccept(removed -> {
+                        if (removed) {
+                            showSuccessAlert("Subject removed successfully from " + major.getMajorName());
+                            loadSubjects();
+                        } else {
+                            showAlert("Error", "Subject not found in database!");
+                        }
+                    })
+                    .exceptionally(e -> {
+                        LOG.error("Error removing subject", "major", major.getId(), "subject", selected.getId(), e);
+                        showAlert("Database Error", "Could not remove subject from this major!");
+                        return null;
+                    });
         }
     }
 
+    /** Runs on a database thread: false when the subject no longer exists. */
+    private boolean removeMajorFrom(int subjectId) throws SQLException {
+        // Get the full subject with all its majors
+        Optional<Subject> fullSubject = subjectRepository.get(subjectId);
+        if (fullSubject.isEmpty()) {
+            return false;
+        }
+        Subject subjectToUpdate = fullSubject.get();
+
+        // Remove this major from the subject's list
+        List<Major> updatedMajors = subjectToUpdate.getMajors().stream()
+                .filter(m -> m.getId() != major.getId())
+                .collect(Collectors.toList());
+
+        subjectToUpdate.setMajors(updatedMajors);
+
+        // Update in database
+        subjectRepository.update(subjectToUpdate);
+        return true;
+    }
+
     private void showAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
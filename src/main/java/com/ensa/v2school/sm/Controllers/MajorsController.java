@@ -1,7 +1,9 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.MajorRepository;
 import com.ensa.v2school.sm.Models.Major;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -15,12 +17,12 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-public class MajorsController implements Initializable {
+public class MajorsController implements Initializable, LazyView {
+
+    private static final Log LOG = Log.get(MajorsController.class);
 
     @FXML
     public Button editBtn;
@@ -56,12 +58,11 @@ public class MajorsController implements Initializable {
     private TableColumn<Major, Void> actionsCol;
 
     MajorRepository majorRepository = new MajorRepository();
+    AsyncRepository<Major, Integer> asyncMajorRepository = new AsyncRepository<>(majorRepository);
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        System.out.println("Controller initialized!");
-        System.out.println("TableView: " + (TableView != null ? "OK" : "NULL"));
-        System.out.println("MajorRepository: " + (majorRepository != null ? "OK" : "NULL"));
+        LOG.debug("Controller initialized", "tableView", TableView != null, "majorRepository", majorRepository != null);
 
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
         nameCol.setCellValueFactory(new PropertyValueFactory<>("majorName"));
@@ -87,8 +88,10 @@ public class MajorsController implements Initializable {
                 }
             }
         });
+    }
 
-        // Load data
+    @Override
+    public void hydrate() {
         loadTableView();
     }
 
@@ -110,8 +113,7 @@ public class MajorsController implements Initializable {
             stage.showAndWait();
 
         } catch (IOException e) {
-            System.err.println("Error loading major details: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading major details", e);
             showAlert("Error", "Cannot open details", "Error: " + e.getMessage());
         }
     }
@@ -122,21 +124,30 @@ public class MajorsController implements Initializable {
             showAlert("Error", "Empty Search", "Please enter a major ID!");
             return;
         }
-        try{
-            Optional<Major> major = majorRepository.get(Integer.parseInt(id));
-            if(major.isPresent()){
-                TableView.getItems().clear();
-                TableView.getItems().add(major.get());
-            }
-            else {
-                showAlert("Error", "Major not found", "Major ID: " + id + " is not found, please make sure you entered a correct id!");
-            }
-        }catch(NumberFormatException e){
+        int majorId;
+        try {
+            majorId = Integer.parseInt(id);
+        } catch (NumberFormatException e) {
             showAlert("Error", "Invalid ID", "Please enter a valid numeric ID!");
-        }catch(SQLException e){
-            System.err.println("Error searching major: " + e.getMessage());
-            showAlert("Database Error", "Error", "Could not search for major!");
+            return;
         }
+        searchBtn.setDisable(true);
+
+        asyncMajorRepository.get(majorId)
+                .thenAccept(major -> {
+                    searchBtn.setDisable(false);
+                    if (major.isPresent()) {
+                        TableView.getItems().setAll(major.get());
+                    } else {
+                        showAlert("Error", "Major not found", "Major ID: " + id + " is not found, please make sure you entered a correct id!");
+                    }
+                })
+                .exceptionally(e -> {
+                    searchBtn.setDisable(false);
+                    LOG.error("Error searching major", e);
+                    showAlert("Database Error", "Error", "Could not search for major!");
+                    return null;
+                });
     }
 
     public void handleCancelSearch(){
@@ -153,16 +164,12 @@ public class MajorsController implements Initializable {
     }
 
     public void loadTableView(){
-        try{
-            List<Major> majors = majorRepository.getAll();
-            TableView.getItems().clear();
-            if (!majors.isEmpty()) {
-                TableView.getItems().addAll(majors);
-            }
-        }
-        catch(SQLException e){
-            System.err.println(e.getMessage());
-        }
+        asyncMajorRepository.getAll()
+                .thenAccept(majors -> TableView.getItems().setAll(majors))
+                .exceptionally(e -> {
+                    LOG.error("Error loading majors", e);
+                    return null;
+                });
     }
 
     @FXML
@@ -170,7 +177,7 @@ public class MajorsController implements Initializable {
         try {
             openMajorForm(null);
         } catch (IOException e) {
-            System.err.println("Failed to open add form: " + e.getMessage());
+            LOG.error("Failed to open add form", e);
         }
     }
 
@@ -186,7 +193,7 @@ public class MajorsController implements Initializable {
         try {
             openMajorForm(selected);
         } catch (IOException e) {
-            System.err.println("Failed to open edit form: " + e.getMessage());
+            LOG.error("Failed to open edit form", e);
         }
     }
 
@@ -209,8 +216,7 @@ public class MajorsController implements Initializable {
 
             loadTableView();
         } catch (IOException e) {
-            System.err.println("Error loading major form: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading major form", e);
             showAlert("Error", "Cannot open form", "Make sure major-form.fxml exists in resources folder!");
         }
     }
@@ -222,37 +228,59 @@ public class MajorsController implements Initializable {
             return;
         }
 
-        try {
-            // Check if major has students enrolled
-            if (majorRepository.hasStudents(selected.getId())) {
-                Alert warningAlert = new Alert(Alert.AlertType.WARNING);
-                warningAlert.setTitle("Cannot Delete Major");
-                warningAlert.setHeaderText("Major Has Students");
-                warningAlert.setContentText("Cannot delete this major because there are students enrolled in it. " +
-                        "Please remove or reassign all students before deleting this major.");
-                warningAlert.showAndWait();
-                return;
-            }
+        deleteBtn.setDisable(true);
+
+        // Check if major has students enrolled
+        asyncMajorRepository.call(() -> majorRepository.hasStudents(selected.getId()))
+                .thenAccept(hasStudents -> {
+                    if (hasStudents) {
+                        deleteBtn.setDisable(false);
+                        Alert warningAlert = new Alert(Alert.AlertType.WARNING);
+                        warningAlert.setTitle("Cannot Delete Major");
+                        warningAlert.setHeaderText("Major Has Students");
+                        warningAlert.setContentText("Cannot delete this major because there are students enrolled in it. " +
+                                "Please remove or reassign all students before deleting this major.");
+                        warningAlert.showAndWait();
+                        return;
+                    }
+
+                    // If no students, proceed with confirmation
+                    Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+                    alert.setTitle("Delete Major");
+                    alert.setHeaderText("Delete Major");
+                    alert.setContentText("Are you sure you want to delete this major?");
+                    Optional<ButtonType> result = alert.showAndWait();
+
+                    if (result.isPresent() && result.get() == ButtonType.OK) {
+                        delete(selected);
+                    } else {
+                        deleteBtn.setDisable(false);
+                    }
+                })
+                .exceptionally(e -> {
+                    deleteBtn.setDisable(false);
+                    LOG.error("Error checking the students of the major", e);
+                    showAlert("Database Error", "Error", "Could not delete major!");
+                    return null;
+                });
+    }
 
-            // If no students, proceed with confirmation
-            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-            alert.setTitle("Delete Major");
-            alert.setHeaderText("Delete Major");
-            alert.setContentText("Are you sure you want to delete this major?");
-            Optional<ButtonType> result = alert.showAndWait();
-
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                majorRepository.delete(selected);
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Success");
-                successAlert.setHeaderText("Major successfully deleted!");
-                successAlert.setContentText("Major successfully deleted!");
-                successAlert.showAndWait();
-                loadTableView();
-            }
-        } catch (SQLException e) {
-            System.out.println(e.getMessage());
-            showAlert("Database Error", "Error", "Could not delete major: " + e.getMessage());
-        }
+    private void delete(Major selected) {
+        asyncMajorRepository.delete(selected)
+                .thenAccept(deleted -> {
+                    deleteBtn.setDisable(false);
+                    Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                    successAlert.setTitle("Success");
+                    successAlert.setHeaderText("Major successfully deleted!");
+                    successAlert.setContentText("Major successfully deleted!");
+                    successAlert.showAndWait();
+                    loadTableView();
+                })
+                .exceptionally(e -> {
+                    deleteBtn.setDisable(false);
+                    LOG.error("Error deleting major", e);
+                    showAlert("Database Error", "Error", "Could not delete major: " + e.getCause().getMessage());
+                    return null;
+                });
     }
 }
\ No newline at end of file
@@ -1,23 +1,28 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.MajorRepository;
 import com.ensa.v2school.sm.Models.Major;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.ResourceBundle;
 
 public class MajorsFormController implements Initializable {
 
+    private static final Log LOG = Log.get(MajorsFormController.class);
+
     @FXML private TextField idField;
     @FXML private TextField nameField;
     @FXML private TextArea descriptionField;
+    @FXML private Button saveBtn;
 
     private Major major;
 
@@ -48,32 +53,31 @@ public class MajorsFormController implements Initializable {
             return;
         }
 
-        MajorRepository repo = new MajorRepository();
-
-        try {
-            if (major != null) {
-                // Update existing major
-                major.setMajorName(nameField.getText().trim());
-                major.setDescription(descriptionField.getText().trim());
-                repo.update(major);
-                showAlert("Success", "Major modified successfully");
-            } else {
-                // Create new major
-                major = new Major();
-                major.setMajorName(nameField.getText().trim());
-                major.setDescription(descriptionField.getText().trim());
-                repo.create(major);
-                showAlert("Success", "Major created successfully");
-            }
-            close();
-        } catch (SQLException e) {
-            if (e.getMessage().contains("Duplicate entry")) {
-                showAlert("Error", "This major name already exists!");
-            } else {
-                showAlert("Error", "An error occurred: " + e.getMessage());
-            }
-            System.err.println(e.getMessage());
-        }
+        AsyncRepository<Major, Integer> repo = new AsyncRepository<>(new MajorRepository());
+
+        boolean editing = major != null;
+        Major toSave = editing ? major : new Major();
+        toSave.setMajorName(nameField.getText().trim());
+        toSave.setDescription(descriptionField.getText().trim());
+        saveBtn.setDisable(true);
+
+        (editing ? repo.update(toSave) : repo.create(toSave))
+                .thenAccept(saved -> {
+                    major = saved;
+                    showAlert("Success", editing ? "Major modified successfully" : "Major created successfully");
+                    close();
+                })
+                .exceptionally(e -> {
+                    saveBtn.setDisable(false);
+                    String message = e.getCause().getMessage();
+                    if (message != null && message.contains("Duplicate entry")) {
+                        showAlert("Error", "This major name already exists!");
+                    } else {
+                        showAlert("Error", "An error occurred: " + message);
+                    }
+                    LOG.error("Error saving major", e);
+                    return null;
+                });
     }
 
     private void showAlert(String title, String msg) {
@@ -0,0 +1,213 @@
+package com.ensa.v2school.sm.Controllers;
+
+import com.ensa.v2school.sm.DAO.ReferenceDataCache;
+import com.ensa.v2school.sm.utils.ConnectionPool;
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.EntityCache;
+import com.ensa.v2school.sm.utils.Log;
+import com.ensa.v2school.sm.utils.QueryMetrics;
+import com.ensa.v2school.sm.utils.QueryStats;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.AnchorPane;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Live view of what makes the application slow: pool utilisation, query latencies ({@link QueryMetrics}), cache
+ * hit ratios, heap and GC, and JavaFX pulse times.
+ * <p>
+ * While the view is on screen, a background thread samples every {@code sm.perf.sampleSeconds} (2 by default)
+ * and hands an immutable {@link Sample} to the FX thread, which only copies it into the labels and tables.
+ * Pulse times are measured with the scene's layout pulse listeners, which add no pulse of their own.
+ */
+public class PerformanceController implements LazyView {
+
+    private static final Log LOG = Log.get(PerformanceController.class);
+    private static final long SAMPLE_SECONDS = Long.getLong("sm.perf.sampleSeconds", 2);
+    private static final DecimalFormat MILLIS = new DecimalFormat("0.00");
+    private static final DecimalFormat PERCENT = new DecimalFormat("0.0 %");
+
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "performance-sampler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    record QueryRow(String query, long calls, long rows, long errors, double p50, double p99, double p999, double max) {
+    }
+
+    record CacheRow(String cache, int size, long hits, long misses, double hitRatio) {
+    }
+
+    record Sample(long nanos, int poolActive, int poolIdle, int poolMax, int poolWaiting, long poolTimeouts,
+                  double statementHitRatio, long heapUsed, long heapCommitted, long heapMax,
+                  long gcCount, long gcMillis, long logDropped, List<QueryRow> queries, List<CacheRow> caches) {
+    }
+
+    @FXML private AnchorPane root;
+    @FXML private Label poolLbl;
+    @FXML private Label heapLbl;
+    @FXML private Label gcLbl;
+    @FXML private Label fxLbl;
+    @FXML private Label detailsLbl;
+    @FXML private TableView<QueryRow> queriesTable;
+    @FXML private TableView<CacheRow> cachesTable;
+
+    private ScheduledFuture<?> sampling;
+    private Sample previous; // FX thread only, like the pulse counters below
+    private Runnable prePulse;
+    private Runnable postPulse;
+    private long pulses;
+    private long pulseStart;
+    private long pulseNanos;
+    private long maxPulseNanos;
+
+    @Override
+    public void hydrate() {
+        column(queriesTable, "Query", QueryRow::query);
+        column(queriesTable, "Calls", QueryRow::calls);
+        column(queriesTable, "Rows", QueryRow::rows);
+        column(queriesTable, "Errors", QueryRow::errors);
+        column(queriesTable, "p50 ms", r -> MILLIS.format(r.p50()));
+        column(queriesTable, "p99 ms", r -> MILLIS.format(r.p99()));
+        column(queriesTable, "p999 ms", r -> MILLIS.format(r.p999()));
+        column(queriesTable, "Max ms", r -> MILLIS.format(r.max()));
+
+        column(cachesTable, "Cache", CacheRow::cache);
+        column(cachesTable, "Entries", CacheRow::size);
+        column(cachesTable, "Hits", CacheRow::hits);
+        column(cachesTable, "Misses", CacheRow::misses);
+        column(cachesTable, "Hit ratio", r -> PERCENT.format(r.hitRatio()));
+
+        // sample only while on screen: AdminController removes the view from the scene when switching tabs
+        root.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null) {
+                stop(oldScene);
+            }
+            if (newScene != null) {
+                start(newScene);
+            }
+        });
+        if (root.getScene() != null) {
+            start(root.getScene());
+        }
+    }
+
+    private void start(Scene scene) {
+        prePulse = () -> pulseStart = System.nanoTime();
+        postPulse = () -> {
+            long elapsed = System.nanoTime() - pulseStart;
+            pulses++;
+            pulseNanos += elapsed;
+            maxPulseNanos = Math.max(maxPulseNanos, elapsed);
+        };
+        scene.addPreLayoutPulseListener(prePulse);
+        scene.addPostLayoutPulseListener(postPulse);
+
+        sampling = SAMPLER.scheduleWithFixedDelay(() -> {
+            try {
+                Sample sample = sample();
+                Platform.runLater(() -> render(sample));
+            } catch (RuntimeException e) {
+                LOG.error("Error sampling performance", e); // keep sampling: a failed run would cancel the task
+            }
+        }, 0, SAMPLE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void stop(Scene scene) {
+        sampling.cancel(false);
+        scene.removePreLayoutPulseListener(prePulse);
+        scene.removePostLayoutPulseListener(postPulse);
+        previous = null;
+    }
+
+    /** Sampler thread: reads every counter once. */
+    private static Sample sample() {
+        ConnectionPool pool = DataBaseConnection.getInstance().getPoolIfOpen(); // never connects just to sample
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gc.getCollectionCount(), 0);
+            gcMillis += Math.max(gc.getCollectionTime(), 0);
+        }
+
+        List<QueryRow> queries = new ArrayList<>();
+        for (QueryStats stats : QueryMetrics.getInstance().all()) {
+            queries.add(new QueryRow(stats.getRepository() + "." + stats.getMethod(), stats.getCalls(),
+                    stats.getRows(), stats.getErrors(), stats.getP50Millis(), stats.getP99Millis(),
+                    stats.getP999Millis(), stats.getMaxMillis()));
+        }
+        queries.sort(Comparator.comparingDouble(QueryRow::p99).reversed()); // slowest first
+
+        List<CacheRow> caches = new ArrayList<>();
+        for (EntityCache<?, ?> cache : ReferenceDataCache.caches()) {
+            caches.add(new CacheRow(cache.getName(), cache.size(), cache.getHits(), cache.getMisses(), cache.getHitRatio()));
+        }
+
+        if (pool == null) {
+            return new Sample(System.nanoTime(), 0, 0, 0, 0, 0, 0,
+                    heap.getUsed(), heap.getCommitted(), heap.getMax(), gcCount, gcMillis, Log.getDropped(),
+                    List.copyOf(queries), List.copyOf(caches));
+        }
+        return new Sample(System.nanoTime(), pool.getActiveCount(), pool.getIdleCount(), pool.getMaxSize(),
+                pool.getWaitingThreads(), pool.getTimeoutCount(), pool.getStatementCacheHitRatio(),
+                heap.getUsed(), heap.getCommitted(), heap.getMax(), gcCount, gcMillis, Log.getDropped(),
+                List.copyOf(queries), List.copyOf(caches));
+    }
+
+    private void render(Sample sample) {
+        if (sampling == null || sampling.isCancelled()) {
+            return; // left the screen while this sample was on its way
+        }
+        double seconds = previous != null ? (sample.nanos() - previous.nanos()) / 1e9 : SAMPLE_SECONDS;
+
+        poolLbl.setText(sample.poolActive() + " / " + sample.poolMax() + " active");
+        detailsLbl.setText(sample.poolIdle() + " idle, " + sample.poolWaiting() + " waiting, "
+                + sample.poolTimeouts() + " timeouts, statement cache " + PERCENT.format(sample.statementHitRatio())
+                + (sample.logDropped() > 0 ? ", " + sample.logDropped() + " log records dropped" : ""));
+        heapLbl.setText(megabytes(sample.heapUsed()) + " / "
+                + megabytes(sample.heapMax() > 0 ? sample.heapMax() : sample.heapCommitted()) + " MB");
+        if (previous != null) {
+            gcLbl.setText((sample.gcCount() - previous.gcCount()) + " GC, "
+                    + (sample.gcMillis() - previous.gcMillis()) + " ms / " + Math.round(seconds) + " s");
+        }
+        fxLbl.setText(Math.round(pulses / seconds) + " pulses/s, avg "
+                + MILLIS.format(pulses == 0 ? 0 : pulseNanos / 1e6 / pulses) + " ms, max "
+                + MILLIS.format(maxPulseNanos / 1e6) + " ms");
+        pulses = 0;
+        pulseNanos = 0;
+        maxPulseNanos = 0;
+
+        queriesTable.getItems().setAll(sample.queries());
+        cachesTable.getItems().setAll(sample.caches());
+        previous = sample;
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    private static <R> void column(TableView<R> table, String title, Function<R, Object> value) {
+        TableColumn<R, Object> column = new TableColumn<>(title);
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(value.apply(cellData.getValue())));
+        table.getColumns().add(column);
+    }
+}
@@ -1,53 +1,73 @@
 package com.ensa.v2school.sm.Controllers;
 
-import com.ensa.v2school.sm.DAO.MajorRepository;
-import com.ensa.v2school.sm.DAO.StudentRepository;
+import com.ensa.v2school.sm.DAO.AsyncRepository;
+import com.ensa.v2school.sm.DAO.StatisticsRepository;
+import com.ensa.v2school.sm.Models.Statistics;
+import com.ensa.v2school.sm.Models.Statistics.Summary;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
 
-import java.sql.SQLException;
-import java.util.Map;
 
-
-import java.math.RoundingMode;
 import java.text.DecimalFormat;
 
-public class StatsController {
+public class StatsController implements LazyView {
+
+    private static final Log LOG = Log.get(StatsController.class);
     private static final DecimalFormat dfZero = new DecimalFormat("0.00");
     public BarChart avgPerMajorChart;
     @FXML
     private Label studentsCountLbl;
     @FXML private Label majorsCountLbl;
     @FXML private Label avgLbl;
+    @FXML private Label distributionLbl;
 
-    @FXML
-    public void initialize() {
-        MajorRepository majorRepository = new MajorRepository();
-        StudentRepository studentRepository = new StudentRepository();
-        try{
-            int StudentsCount = (int)studentRepository.getCount();
-            int MajorsCount = (int)majorRepository.getCount();
-            Float Avg = studentRepository.getAverage();
-            studentsCountLbl.setText(StudentsCount + "");
-            majorsCountLbl.setText(MajorsCount + "");
-            avgLbl.setText(dfZero.format(Avg) + "/20");
-            Map<String, Float> data = studentRepository.getAverageByMajor();
-
-            XYChart.Series<String, Number> series = new XYChart.Series<>();
-            series.setName("Average per Major");
-
-            data.forEach((major, avg) ->
-                    series.getData().add(new XYChart.Data<>(major, avg))
-            );
-            avgPerMajorChart.getData().clear();
-            avgPerMajorChart.getData().add(series);
-        }catch(SQLException e){
-            System.out.println("SQL Error"+e.getMessage());
+    @Override
+    public void hydrate() {
+        loadStatistics();
+    }
+
+    /** A single query: cheap enough to run every time the dashboard is shown, so the counts are never stale. */
+    @Override
+    public void onShow() {
+        loadStatistics();
+    }
+
+    private void loadStatistics() {
+        StatisticsRepository statisticsRepository = new StatisticsRepository();
+        AsyncRepository.run(statisticsRepository::getSnapshot)
+                .thenAccept(this::render)
+                .exceptionally(e -> {
+                    LOG.error("Error loading statistics", e);
+                    return null;
+                });
+    }
+
+    private void render(Statistics stats) {
+        Summary overall = stats.overall();
+        studentsCountLbl.setText(stats.studentsCount() + "");
+        majorsCountLbl.setText(stats.majorsCount() + "");
+        avgLbl.setText(dfZero.format(overall.mean()) + "/20");
+        distributionLbl.setText("Min " + dfZero.format(overall.min())
+                + "   Max " + dfZero.format(overall.max())
+                + "   Median " + dfZero.format(overall.median())
+                + "   P90 " + dfZero.format(overall.percentile(90))
+                + "   Std. dev. " + dfZero.format(overall.stdDev()));
+
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName("Average per Major");
+
+        for (Statistics.MajorStatistics major : stats.byMajor()) {
+            if (major.summary().count() == 0) {
+                continue;
+            }
+            series.getData().add(new XYChart.Data<>(major.majorName(), major.summary().mean()));
         }
+        avgPerMajorChart.getData().clear();
+        avgPerMajorChart.getData().add(series);
     }
 
 
 }
-
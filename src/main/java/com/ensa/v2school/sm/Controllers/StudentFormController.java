@@ -1,9 +1,11 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.MajorRepository;
 import com.ensa.v2school.sm.DAO.StudentRepository;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Student;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
@@ -12,12 +14,12 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.List;
 import java.util.ResourceBundle;
 
 public class StudentFormController implements Initializable {
 
+    private static final Log LOG = Log.get(StudentFormController.class);
+
     @FXML private TextField idField;
     @FXML private TextField firstNameField;
     @FXML private TextField lastNameField;
@@ -64,31 +66,28 @@ public class StudentFormController implements Initializable {
             return;
         }
 
-        StudentRepository repo = new StudentRepository();
+        AsyncRepository<Student, String> repo = new AsyncRepository<>(new StudentRepository());
 
-        try {
-            if (student != null) {
-                student.setFirstName(firstNameField.getText());
-                student.setLastName(lastNameField.getText());
-                student.setAverage(avg);
-                student.setMajor(majorBox.getValue());
-                repo.update(student);
-                showAlert("Success", "Student modified successfully");
-            } else {
-                student = new Student();
-                student.setId(idField.getText());
-                student.setFirstName(firstNameField.getText());
-                student.setLastName(lastNameField.getText());
-                student.setAverage(avg);
-                student.setMajor(majorBox.getValue());
-                repo.create(student);
-                showAlert("Success", "Student created successfully");
-            }
-            close();
-        } catch (SQLException e) {
-            showAlert("Error", "An error occurred");
-            System.err.println(e.getMessage());
+        boolean editing = student != null;
+        Student toSave = editing ? student : new Student();
+        if (!editing) {
+            toSave.setId(idField.getText());
         }
+        toSave.setFirstName(firstNameField.getText());
+        toSave.setLastName(lastNameField.getText());
+        toSave.setAverage(avg);
+        toSave.setMajor(majorBox.getValue());
+
+        (editing ? repo.update(toSave) : repo.create(toSave))
+                .thenAccept(saved -> {
+                    showAlert("Success", editing ? "Student modified successfully" : "Student created successfully");
+                    close();
+                })
+                .exceptionally(e -> {
+                    showAlert("Error", "An error occurred");
+                    LOG.error("Error saving student", e);
+                    return null;
+                });
     }
     private void showAlert(String title, String msg) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -110,14 +109,13 @@ public class StudentFormController implements Initializable {
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        MajorRepository majorRepository = new MajorRepository();
-        try{
-            List<Major> majorList = majorRepository.getAll();
-            majorBox.getItems().addAll(majorList);
-        }catch (SQLException e){
-            showAlert("Error", "An error occurred");
-            System.err.println(e.getMessage());
-        }
+        new AsyncRepository<>(new MajorRepository()).getAll()
+                .thenAccept(majorList -> majorBox.getItems().addAll(majorList))
+                .exceptionally(e -> {
+                    showAlert("Error", "An error occurred");
+                    LOG.error("Error loading majors", e);
+                    return null;
+                });
     }
 }
 
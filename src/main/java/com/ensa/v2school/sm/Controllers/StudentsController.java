@@ -1,10 +1,18 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
+import com.ensa.v2school.sm.DAO.DataExporter;
 import com.ensa.v2school.sm.DAO.MajorRepository;
+import com.ensa.v2school.sm.DAO.ReferenceDataCache;
+import com.ensa.v2school.sm.DAO.StudentImporter;
 import com.ensa.v2school.sm.DAO.StudentRepository;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Student;
+import com.ensa.v2school.sm.utils.Log;
+import com.ensa.v2school.sm.utils.PagedObservableList;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -12,24 +20,33 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.List;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
-public class StudentsController implements Initializable {
+public class StudentsController implements Initializable, LazyView {
+
+    private static final Log LOG = Log.get(StudentsController.class);
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 10;
 
     @FXML public Button editBtn;
     @FXML public Button deleteBtn;
     @FXML private Button addBtn;
+    @FXML private Button importBtn;
+    @FXML private Button exportBtn;
+    @FXML private ProgressBar exportProgress;
     @FXML private TextField searchId;
     @FXML private Button searchBtn;
     @FXML private Button cancelBtn;
@@ -42,12 +59,13 @@ public class StudentsController implements Initializable {
     @FXML private TableColumn<Student, String> lastNameCol;
 
     StudentRepository studentRepository = new StudentRepository();
+    AsyncRepository<Student, String> asyncStudentRepository = new AsyncRepository<>(studentRepository);
+    AsyncRepository<Major, Integer> asyncMajorRepository = new AsyncRepository<>(new MajorRepository());
+    private long majorsGeneration = -1; // ReferenceDataCache generation of the majors in the filter
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        System.out.println("Controller initialized!");
-        System.out.println("TableView: " + (TableView != null ? "OK" : "NULL"));
-        System.out.println("StudentRepository: " + (studentRepository != null ? "OK" : "NULL"));
+        LOG.debug("Controller initialized", "tableView", TableView != null, "studentRepository", studentRepository != null);
 
         // Set up the columns to match Student properties
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
@@ -58,6 +76,9 @@ public class StudentsController implements Initializable {
         // Major column
         MajorCol.setCellValueFactory(cellData -> {
             Student student = cellData.getValue();
+            if (student == null) {
+                return new SimpleStringProperty(""); // row of a page that is still loading
+            }
             if (student.getMajor() != null) {
                 return new SimpleStringProperty(student.getMajor().getMajorName());
             }
@@ -77,19 +98,41 @@ public class StudentsController implements Initializable {
             }
         });
 
+        // The paged list cannot be sorted in memory without fetching every page
+        TableView.setSortPolicy(table -> !(table.getItems() instanceof PagedObservableList)
+                && javafx.scene.control.TableView.DEFAULT_SORT_POLICY.call(table));
+
+        addDossierButtonColumn();
+
+    }
+
+    @Override
+    public void hydrate() {
         // Load majors list
-        MajorRepository majorRepository = new MajorRepository();
-        try {
-            List<Major> majors = majorRepository.getAll();
-            filterMajorBtn.getItems().addAll(majors);
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
-        }
+        loadMajorFilter();
 
         // Load data
         loadTableView();
-        addDossierButtonColumn();
+    }
 
+    @Override
+    public void onShow() {
+        if (majorsGeneration != ReferenceDataCache.generation()) {
+            loadMajorFilter(); // a major was added, renamed or deleted in the meantime
+        }
+    }
+
+    private void loadMajorFilter() {
+        long generation = ReferenceDataCache.generation();
+        asyncMajorRepository.getAll()
+                .thenAccept(majors -> {
+                    filterMajorBtn.getItems().setAll(majors); // setAll keeps the selected value
+                    majorsGeneration = generation;
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error loading majors", e);
+                    return null;
+                });
     }
 
     public void handleSearch() {
@@ -98,18 +141,19 @@ public class StudentsController implements Initializable {
             showAlert("Error", "Empty Search", "Please enter a student ID!");
             return;
         }
-        try {
-            Optional<Student> std = studentRepository.get(id);
-            if (std.isPresent()) {
-                TableView.getItems().clear();
-                TableView.getItems().add(std.get());
-            } else {
-                showAlert("Error", "Student not found", "Student ID: " + id + " is not found!");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error searching student: " + e.getMessage());
-            showAlert("Database Error", "Error", "Could not search for student!");
-        }
+        asyncStudentRepository.get(id)
+                .thenAccept(std -> {
+                    if (std.isPresent()) {
+                        TableView.setItems(FXCollections.observableArrayList(std.get()));
+                    } else {
+                        showAlert("Error", "Student not found", "Student ID: " + id + " is not found!");
+                    }
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error searching student", e);
+                    showAlert("Database Error", "Error", "Could not search for student!");
+                    return null;
+                });
     }
 
     public void handleCancelSearch() {
@@ -127,16 +171,18 @@ public class StudentsController implements Initializable {
         alert.showAndWait();
     }
 
+    /**
+     * Shows every student through a {@link PagedObservableList}: only the pages the user scrolls to are fetched.
+     */
     public void loadTableView() {
-        try {
-            List<Student> stds = studentRepository.getAll();
-            TableView.getItems().clear();
-            if (!stds.isEmpty()) {
-                TableView.getItems().addAll(stds);
-            }
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
-        }
+        asyncStudentRepository.call(studentRepository::getCount)
+                .thenAccept(count -> TableView.setItems(new PagedObservableList<>(
+                        count, PAGE_SIZE, MAX_CACHED_PAGES, asyncStudentRepository,
+                        studentRepository::findPage, studentRepository::findIdAfter, Student::getId)))
+                .exceptionally(e -> {
+                    LOG.error("Error loading students", e);
+                    return null;
+                });
     }
 
     public void loadMajorTableView() {
@@ -144,17 +190,18 @@ public class StudentsController implements Initializable {
         if (major == null) {
             return;
         }
-        try {
-            List<Student> stds = studentRepository.findByMajor(major.getId());
-            TableView.getItems().clear();
-            TableView.getItems().addAll(stds);
-            if (stds.isEmpty()) {
-                showAlert("Info", "No students found", "No students are pursuing this major!");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error filtering students by major: " + e.getMessage());
-            showAlert("Database Error", "Error", "Could not filter students!");
-        }
+        asyncStudentRepository.call(() -> studentRepository.findByMajor(major.getId()))
+                .thenAccept(stds -> {
+                    TableView.setItems(FXCollections.observableArrayList(stds));
+                    if (stds.isEmpty()) {
+                        showAlert("Info", "No students found", "No students are pursuing this major!");
+                    }
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error filtering students by major", e);
+                    showAlert("Database Error", "Error", "Could not filter students!");
+                    return null;
+                });
     }
 
     @FXML
@@ -162,10 +209,110 @@ public class StudentsController implements Initializable {
         try {
             openStudentForm(null);
         } catch (IOException e) {
-            System.err.println("Failed to open add form: " + e.getMessage());
+            LOG.error("Failed to open add form", e);
         }
     }
 
+    /**
+     * Imports a CSV of students ({@code id,first_name,last_name,average,major_id}); rejected rows are written
+     * to a {@code .errors.csv} report next to the file.
+     */
+    @FXML
+    public void handleImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import students");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(TableView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        Path report = file.toPath().resolveSibling(file.getName().replaceFirst("\\.csv$", "") + ".errors.csv");
+        StudentImporter importer = new StudentImporter();
+        importBtn.setDisable(true);
+
+        AsyncRepository.run(() -> {
+                    try {
+                        return importer.importFile(file.toPath(), report);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .thenAccept(result -> {
+                    importBtn.setDisable(false);
+                    loadTableView();
+                    Alert alert = new Alert(result.rejected() == 0 ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+                    alert.setTitle("Import");
+                    alert.setHeaderText(result.imported() + " student(s) imported, " + result.rejected() + " rejected");
+                    alert.setContentText(result.rejected() == 0 ? "" : "See " + result.report());
+                    alert.showAndWait();
+                })
+                .exceptionally(e -> {
+                    importBtn.setDisable(false);
+                    LOG.error("Error importing students", e);
+                    showAlert("Import Error", "Could not import students", e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Exports students, enrolments or marks to CSV or JSON Lines, streaming from the database to the file.
+     */
+    @FXML
+    public void handleExport() {
+        ChoiceDialog<DataExporter.Dataset> datasetDialog = new ChoiceDialog<>(
+                DataExporter.Dataset.STUDENTS, DataExporter.Dataset.values());
+        datasetDialog.setTitle("Export");
+        datasetDialog.setHeaderText("What do you want to export?");
+        Optional<DataExporter.Dataset> dataset = datasetDialog.showAndWait();
+        if (dataset.isEmpty()) {
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + dataset.get().name().toLowerCase());
+        chooser.setInitialFileName(dataset.get().name().toLowerCase());
+        FileChooser.ExtensionFilter csv = new FileChooser.ExtensionFilter("CSV", "*" + DataExporter.Format.CSV.getExtension());
+        FileChooser.ExtensionFilter jsonLines = new FileChooser.ExtensionFilter("JSON Lines", "*" + DataExporter.Format.JSON_LINES.getExtension());
+        chooser.getExtensionFilters().addAll(csv, jsonLines);
+        File file = chooser.showSaveDialog(TableView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        DataExporter.Format format = chooser.getSelectedExtensionFilter() == jsonLines
+                ? DataExporter.Format.JSON_LINES
+                : DataExporter.Format.CSV;
+
+        DataExporter exporter = new DataExporter();
+        exportBtn.setDisable(true);
+        exportProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        exportProgress.setVisible(true);
+
+        AsyncRepository.run(() -> {
+                    try {
+                        return exporter.export(dataset.get(), format, file.toPath(), (rows, total) ->
+                                Platform.runLater(() -> exportProgress.setProgress(total == 0 ? 1 : (double) rows / total)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .thenAccept(result -> {
+                    exportBtn.setDisable(false);
+                    exportProgress.setVisible(false);
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.setTitle("Export");
+                    alert.setHeaderText(result.rows() + " row(s) exported");
+                    alert.setContentText(file.getAbsolutePath());
+                    alert.showAndWait();
+                })
+                .exceptionally(e -> {
+                    exportBtn.setDisable(false);
+                    exportProgress.setVisible(false);
+                    LOG.error("Error exporting", e);
+                    showAlert("Export Error", "Could not export", e.getMessage());
+                    return null;
+                });
+    }
+
     @FXML
     public void handleEdit() {
         Student selected = TableView.getSelectionModel().getSelectedItem();
@@ -178,7 +325,7 @@ public class StudentsController implements Initializable {
         try {
             openStudentForm(selected);
         } catch (IOException e) {
-            System.err.println("Failed to open edit form: " + e.getMessage());
+            LOG.error("Failed to open edit form", e);
         }
     }
 
@@ -212,17 +359,22 @@ public class StudentsController implements Initializable {
             alert.setContentText("Are you sure you want to delete this student?");
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                try {
-                    studentRepository.delete(selected);
-                    Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                    successAlert.setTitle("Success");
-                    successAlert.setHeaderText("Student successfully deleted!");
-                    successAlert.showAndWait();
-                    loadTableView();
-                } catch (SQLException e) {
-                    System.out.println(e.getMessage());
-                    showAlert("Database Error", "Error", "Could not delete student!");
-                }
+                deleteBtn.setDisable(true);
+                asyncStudentRepository.delete(selected)
+                        .thenAccept(deleted -> {
+                            deleteBtn.setDisable(false);
+                            Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                            successAlert.setTitle("Success");
+                            successAlert.setHeaderText("Student successfully deleted!");
+                            successAlert.showAndWait();
+                            loadTableView();
+                        })
+                        .exceptionally(e -> {
+                            deleteBtn.setDisable(false);
+                            LOG.error("Error deleting student", e);
+                            showAlert("Database Error", "Error", "Could not delete student!");
+                            return null;
+                        });
             }
         }
     }
@@ -239,7 +391,9 @@ public class StudentsController implements Initializable {
                     Student student = getTableView()
                             .getItems()
                             .get(getIndex());
-                    openDossierForm(student);
+                    if (student != null) {
+                        openDossierForm(student);
+                    }
                 });
             }
 
@@ -247,13 +401,13 @@ public class StudentsController implements Initializable {
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
 
-                if (empty) {
+                Student student = empty ? null : getTableView()
+                        .getItems()
+                        .get(getIndex());
+
+                if (student == null) {
                     setGraphic(null);
                 } else {
-                    Student student = getTableView()
-                            .getItems()
-                            .get(getIndex());
-
                     if (student.getDossierAdministratif() == null) {
                         btn.setText("Créer");
                         btn.setStyle("-fx-background-color: #ef4444; -fx-text-fill: white;");
@@ -291,7 +445,7 @@ public class StudentsController implements Initializable {
             loadTableView(); // refresh
 
         } catch (IOException e) {
-            System.err.println(e.getMessage());
+            LOG.error("Failed to open student form", e);
         }
     }
     // Add this method to your StudentsController class
@@ -313,7 +467,7 @@ public class StudentsController implements Initializable {
         try {
             openEnrollForm(selected);
         } catch (IOException e) {
-            System.err.println("Failed to open enroll form: " + e.getMessage());
+            LOG.error("Failed to open enroll form", e);
             showAlert("Error", "Cannot open form", "Error: " + e.getMessage());
         }
     }
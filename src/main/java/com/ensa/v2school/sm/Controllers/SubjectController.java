@@ -1,9 +1,12 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.MajorRepository;
+import com.ensa.v2school.sm.DAO.ReferenceDataCache;
 import com.ensa.v2school.sm.DAO.SubjectRepository;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Subject;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -16,13 +19,15 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
 
-public class SubjectController implements Initializable {
+public class SubjectController implements Initializable, LazyView {
+
+    private static final Log LOG = Log.get(SubjectController.class);
 
     @FXML private Button addBtn;
     @FXML private Button editBtn;
@@ -38,10 +43,13 @@ public class SubjectController implements Initializable {
 
     private final SubjectRepository subjectRepository = new SubjectRepository();
     private final MajorRepository majorRepository = new MajorRepository();
+    private final AsyncRepository<Subject, Integer> asyncSubjectRepository = new AsyncRepository<>(subjectRepository);
+    private final AsyncRepository<Major, Integer> asyncMajorRepository = new AsyncRepository<>(majorRepository);
+    private long majorsGeneration = -1; // ReferenceDataCache generation of the subjects and majors shown
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        System.out.println("SubjectController initialized!");
+        LOG.debug("Controller initialized");
 
         // Set up table columns
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
@@ -58,55 +66,69 @@ public class SubjectController implements Initializable {
             }
             return new javafx.beans.property.SimpleStringProperty("No majors");
         });
+    }
 
-        // Load data
+    @Override
+    public void hydrate() {
         loadTableView();
         loadMajorFilter();
     }
 
-    private void loadTableView() {
-        try {
-            List<Subject> subjects = subjectRepository.getAll();
-            TableView.getItems().clear();
-            TableView.getItems().addAll(subjects);
-        } catch (SQLException e) {
-            System.err.println("Error loading subjects: " + e.getMessage());
-            showAlert("Database Error", "Error", "Could not load subjects!");
+    @Override
+    public void onShow() {
+        if (majorsGeneration != ReferenceDataCache.generation()) {
+            // subjects or majors were written from another view, e.g. the major details
+            loadMajorFilter();
+            loadMajorTableView();
         }
     }
 
+    private void loadTableView() {
+        asyncSubjectRepository.getAll()
+                .thenAccept(subjects -> TableView.getItems().setAll(subjects))
+                .exceptionally(e -> {
+                    LOG.error("Error loading subjects", e);
+                    showAlert("Database Error", "Error", "Could not load subjects!");
+                    return null;
+                });
+    }
+
     private void loadMajorFilter() {
-        try {
-            List<Major> majors = majorRepository.getAll();
-            filterMajorBtn.getItems().clear();
-            filterMajorBtn.getItems().add(null); // Add "All" option
-            filterMajorBtn.getItems().addAll(majors);
-
-            // Set prompt text for null value
-            filterMajorBtn.setPromptText("All Majors");
-        } catch (SQLException e) {
-            System.err.println("Error loading majors for filter: " + e.getMessage());
-        }
+        long generation = ReferenceDataCache.generation();
+        asyncMajorRepository.getAll()
+                .thenAccept(majors -> {
+                    List<Major> items = new ArrayList<>(majors.size() + 1);
+                    items.add(null); // Add "All" option
+                    items.addAll(majors);
+                    filterMajorBtn.getItems().setAll(items); // setAll keeps the selected value
+                    majorsGeneration = generation;
+
+                    // Set prompt text for null value
+                    filterMajorBtn.setPromptText("All Majors");
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error loading majors for filter", e);
+                    return null;
+                });
     }
 
     @FXML
     public void loadMajorTableView() {
         Major selectedMajor = filterMajorBtn.getValue();
 
-        try {
-            if (selectedMajor == null) {
-                // Show all subjects
-                loadTableView();
-            } else {
-                // Filter by selected major
-                List<Subject> subjects = subjectRepository.findByMajorId(selectedMajor.getId());
-                TableView.getItems().clear();
-                TableView.getItems().addAll(subjects);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error filtering subjects: " + e.getMessage());
-            showAlert("Database Error", "Error", "Could not filter subjects!");
+        if (selectedMajor == null) {
+            // Show all subjects
+            loadTableView();
+            return;
         }
+        // Filter by selected major
+        asyncSubjectRepository.call(() -> subjectRepository.findByMajorId(selectedMajor.getId()))
+                .thenAccept(subjects -> TableView.getItems().setAll(subjects))
+                .exceptionally(e -> {
+                    LOG.error("Error filtering subjects", e);
+                    showAlert("Database Error", "Error", "Could not filter subjects!");
+                    return null;
+                });
     }
 
     @FXML
@@ -117,20 +139,30 @@ public class SubjectController implements Initializable {
             return;
         }
 
+        int subjectId;
         try {
-            Optional<Subject> subject = subjectRepository.get(Integer.parseInt(id));
-            if (subject.isPresent()) {
-                TableView.getItems().clear();
-                TableView.getItems().add(subject.get());
-            } else {
-                showAlert("Error", "Subject not found", "Subject ID: " + id + " not found!");
-            }
+            subjectId = Integer.parseInt(id);
         } catch (NumberFormatException e) {
             showAlert("Error", "Invalid ID", "Please enter a valid numeric ID!");
-        } catch (SQLException e) {
-            System.err.println("Error searching subject: " + e.getMessage());
-            showAlert("Database Error", "Error", "Could not search for subject!");
+            return;
         }
+        searchBtn.setDisable(true);
+
+        asyncSubjectRepository.get(subjectId)
+                .thenAccept(subject -> {
+                    searchBtn.setDisable(false);
+                    if (subject.isPresent()) {
+                        TableView.getItems().setAll(subject.get());
+                    } else {
+                        showAlert("Error", "Subject not found", "Subject ID: " + id + " not found!");
+                    }
+                })
+                .exceptionally(e -> {
+                    searchBtn.setDisable(false);
+                    LOG.error("Error searching subject", e);
+                    showAlert("Database Error", "Error", "Could not search for subject!");
+                    return null;
+                });
     }
 
     @FXML
@@ -145,7 +177,7 @@ public class SubjectController implements Initializable {
         try {
             openSubjectForm(null);
         } catch (IOException e) {
-            System.err.println("Failed to open add form: " + e.getMessage());
+            LOG.error("Failed to open add form", e);
             showAlert("Error", "Cannot open form", "Error: " + e.getMessage());
         }
     }
@@ -162,7 +194,7 @@ public class SubjectController implements Initializable {
         try {
             openSubjectForm(selected);
         } catch (IOException e) {
-            System.err.println("Failed to open edit form: " + e.getMessage());
+            LOG.error("Failed to open edit form", e);
             showAlert("Error", "Cannot open form", "Error: " + e.getMessage());
         }
     }
@@ -183,43 +215,41 @@ public class SubjectController implements Initializable {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try {
-                subjectRepository.delete(selected);
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Success");
-                successAlert.setHeaderText("Subject successfully deleted!");
-                successAlert.showAndWait();
-                loadTableView();
-            } catch (SQLException e) {
-                System.err.println("Error deleting subject: " + e.getMessage());
-                showAlert("Database Error", "Error", "Could not delete subject!");
-            }
+            deleteBtn.setDisable(true);
+            asyncSubjectRepository.delete(selected)
+                    .thenAccept(deleted -> {
+                        deleteBtn.setDisable(false);
+                        Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                        successAlert.setTitle("Success");
+                        successAlert.setHeaderText("Subject successfully deleted!");
+                        successAlert.showAndWait();
+                        loadTableView();
+                    })
+                    .exceptionally(e -> {
+                        deleteBtn.setDisable(false);
+                        LOG.error("Error deleting subject", e);
+                        showAlert("Database Error", "Error", "Could not delete subject!");
+                        return null;
+                    });
         }
     }
 
     private void openSubjectForm(Subject subject) throws IOException {
-        System.out.println("=== Opening Subject Form ===");
-
         String fxmlPath = "/com/ensa/v2school/sm/SubjectForm.fxml";
-        System.out.println("Looking for FXML at: " + fxmlPath);
+        LOG.debug("Opening subject form", "fxml", fxmlPath);
 
         try {
             java.net.URL fxmlUrl = getClass().getResource(fxmlPath);
 
             if (fxmlUrl == null) {
-                System.err.println("ERROR: FXML file not found at path: " + fxmlPath);
-                System.err.println("Check your resources folder structure!");
+                LOG.error("Subject form FXML not found, check the resources folder", "fxml", fxmlPath);
                 showAlert("Error", "File Not Found", "SubjectForm.fxml not found in resources!");
                 return;
             }
 
-            System.out.println("FXML found at: " + fxmlUrl);
-
             FXMLLoader loader = new FXMLLoader(fxmlUrl);
             Parent root = loader.load();
 
-            System.out.println("FXML loaded successfully");
-
             SubjectFormController controller = loader.getController();
             controller.setSubject(subject);
 
@@ -231,8 +261,7 @@ public class SubjectController implements Initializable {
 
             loadTableView();
         } catch (IOException e) {
-            System.err.println("ERROR loading subject form:");
-            System.err.println("Message: " + e.getMessage());
+            LOG.error("Error loading subject form", e);
             throw e;
         }
     }
@@ -1,9 +1,11 @@
 package com.ensa.v2school.sm.Controllers;
 
+import com.ensa.v2school.sm.DAO.AsyncRepository;
 import com.ensa.v2school.sm.DAO.MajorRepository;
 import com.ensa.v2school.sm.DAO.SubjectRepository;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Subject;
+import com.ensa.v2school.sm.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -11,7 +13,6 @@ import javafx.scene.control.cell.CheckBoxListCell;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +21,8 @@ import java.util.ResourceBundle;
 
 public class SubjectFormController implements Initializable {
 
+    private static final Log LOG = Log.get(SubjectFormController.class);
+
     @FXML private TextField idField;
     @FXML private TextField nameField;
     @FXML private ListView<Major> majorListView;
@@ -27,21 +30,22 @@ public class SubjectFormController implements Initializable {
     private Subject subject;
     private SubjectRepository subjectRepository = new SubjectRepository();
     private MajorRepository majorRepository = new MajorRepository();
+    private AsyncRepository<Subject, Integer> asyncSubjectRepository = new AsyncRepository<>(subjectRepository);
+    private AsyncRepository<Major, Integer> asyncMajorRepository = new AsyncRepository<>(majorRepository);
 
     // Map to track which majors are selected
     private Map<Major, javafx.beans.property.BooleanProperty> majorSelectionMap = new HashMap<>();
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        System.out.println("SubjectFormController initialized!");
-        System.out.println("ListView: " + (majorListView != null ? "OK" : "NULL"));
+        LOG.debug("Controller initialized", "majorListView", majorListView != null);
 
         // Configure ListView with checkboxes
         if (majorListView != null) {
             setupCheckBoxListView();
             loadAllMajors();
         } else {
-            System.err.println("ERROR: majorListView is NULL!");
+            LOG.error("majorListView was not injected, check SubjectForm.fxml");
         }
     }
 
@@ -66,18 +70,7 @@ public class SubjectFormController implements Initializable {
             nameField.setText(subject.getName());
 
             // Select the majors already associated with the subject
-            if (subject.getMajors() != null && !subject.getMajors().isEmpty()) {
-                javafx.application.Platform.runLater(() -> {
-                    for (Major selectedMajor : subject.getMajors()) {
-                        for (Map.Entry<Major, javafx.beans.property.BooleanProperty> entry : majorSelectionMap.entrySet()) {
-                            if (entry.getKey().getId() == selectedMajor.getId()) {
-                                entry.getValue().set(true);
-                                break;
-                            }
-                        }
-                    }
-                });
-            }
+            selectSubjectMajors();
         } else {
             // Adding new subject - hide ID field
             idField.setVisible(false);
@@ -106,27 +99,21 @@ public class SubjectFormController implements Initializable {
             return;
         }
 
-        try {
-            if (subject != null) {
-                // Update existing subject
-                subject.setName(nameField.getText().trim());
-                subject.setMajors(selectedMajors);
-                subjectRepository.update(subject);
-                showSuccessAlert("Subject modified successfully");
-            } else {
-                // Create new subject
-                subject = new Subject();
-                subject.setName(nameField.getText().trim());
-                subject.setMajors(selectedMajors);
-                subjectRepository.create(subject);
-                showSuccessAlert("Subject created successfully");
-            }
-            close();
-        } catch (SQLException e) {
-            System.err.println("SQL Error: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("Error", "Database error: " + e.getMessage());
-        }
+        boolean editing = subject != null;
+        Subject toSave = editing ? subject : new Subject();
+        toSave.setName(nameField.getText().trim());
+        toSave.setMajors(selectedMajors);
+
+        (editing ? asyncSubjectRepository.update(toSave) : asyncSubjectRepository.create(toSave))
+                .thenAccept(saved -> {
+                    showSuccessAlert(editing ? "Subject modified successfully" : "Subject created successfully");
+                    close();
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error saving subject", e);
+                    showAlert("Error", "Database error: " + e.getMessage());
+                    return null;
+                });
     }
 
     @FXML
@@ -140,16 +127,41 @@ public class SubjectFormController implements Initializable {
     }
 
     private void loadAllMajors() {
-        try {
-            List<Major> majors = majorRepository.getAll();
-            majorListView.getItems().clear();
-            majorSelectionMap.clear();
-            majorListView.getItems().addAll(majors);
-            System.out.println("Loaded " + majors.size() + " majors into ListView");
-        } catch (SQLException e) {
-            System.err.println("Error loading majors: " + e.getMessage());
-            showAlert("Error", "Could not load majors: " + e.getMessage());
+        asyncMajorRepository.getAll()
+                .thenAccept(majors -> {
+                    majorListView.getItems().clear();
+                    majorSelectionMap.clear();
+                    majorListView.getItems().addAll(majors);
+                    LOG.debug("Loaded majors", "count", majors.size());
+                    selectSubjectMajors();
+                })
+                .exceptionally(e -> {
+                    LOG.error("Error loading majors", e);
+                    showAlert("Error", "Could not load majors: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Ticks the majors of the subject being edited. The subject and the list of majors arrive in either order,
+     * so this is called after each and only acts once both are there.
+     */
+    private void selectSubjectMajors() {
+        if (subject == null || subject.getMajors() == null || subject.getMajors().isEmpty()
+                || majorListView.getItems().isEmpty()) {
+            return;
         }
+        // the check boxes are created with the list cells, on the next pulse
+        javafx.application.Platform.runLater(() -> {
+            for (Major selectedMajor : subject.getMajors()) {
+                for (Map.Entry<Major, javafx.beans.property.BooleanProperty> entry : majorSelectionMap.entrySet()) {
+                    if (entry.getKey().getId() == selectedMajor.getId()) {
+                        entry.getValue().set(true);
+                        break;
+                    }
+                }
+            }
+        });
     }
 
     private void showAlert(String title, String message) {
@@ -0,0 +1,123 @@
+package com.ensa.v2school.sm.Controllers;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parsed views of the admin dashboard, kept for the whole session so that switching tabs reuses the same node
+ * graph and controller instead of parsing the FXML and querying the database again.
+ * <p>
+ * {@link #preload} parses views on background threads (allowed as long as the nodes are not in a live scene);
+ * {@link #show} is called on the JavaFX Application Thread and, the first time, {@link LazyView#hydrate() hydrates}
+ * the controller; later shows let it {@link LazyView#onShow() refresh} what may have changed meanwhile.
+ */
+public class ViewRegistry {
+
+    /** The views behind the sidebar buttons, preloaded at login. */
+    public static final String[] DASHBOARD_VIEWS = {"Stats", "Students", "Majors", "subjects"};
+
+    public record View(Parent root, Object controller) {
+    }
+
+    private static final class Holder {
+        private static final ViewRegistry INSTANCE = new ViewRegistry();
+    }
+
+    private final Map<String, CompletableFuture<View>> views = new ConcurrentHashMap<>();
+    private final Set<String> hydrated = new HashSet<>(); // FX thread only
+    private final ExecutorService loader;
+
+    private ViewRegistry() {
+        AtomicInteger threads = new AtomicInteger();
+        loader = Executors.newFixedThreadPool(Math.min(DASHBOARD_VIEWS.length, Runtime.getRuntime().availableProcessors()),
+                r -> {
+                    Thread t = new Thread(r, "view-preload-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public static ViewRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /** Starts parsing the given views in the background, if not parsed or being parsed already. */
+    public void preload(String... names) {
+        for (String name : names) {
+            views.computeIfAbsent(name, n -> CompletableFuture.supplyAsync(() -> load(n), loader));
+        }
+    }
+
+    /**
+     * Returns the view, parsing it now if it was not preloaded (or waiting for its preload to finish),
+     * and hydrates its controller the first time it is shown, refreshes it the next times. FX thread only.
+     */
+    public View show(String name) throws IOException {
+        ViewShowEvent event = new ViewShowEvent();
+        event.begin();
+        boolean reused = hydrated.contains(name);
+        boolean preloaded = !reused && views.containsKey(name);
+
+        long start = System.nanoTime();
+        View view;
+        try {
+            view = views.computeIfAbsent(name, n -> CompletableFuture.completedFuture(load(n))).join();
+        } catch (CompletionException e) {
+            views.remove(name); // let the next click try again
+            throw new IOException("Could not load view " + name, e.getCause());
+        } catch (UncheckedIOException e) {
+            views.remove(name);
+            throw e.getCause();
+        }
+        long parsed = System.nanoTime();
+
+        if (view.controller() instanceof LazyView lazy) {
+            if (hydrated.add(name)) {
+                lazy.hydrate();
+            } else {
+                lazy.onShow();
+            }
+        } else {
+            hydrated.add(name);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = name;
+            event.reused = reused;
+            event.preloaded = preloaded;
+            event.parseTime = parsed - start;
+            event.initTime = System.nanoTime() - parsed;
+            event.commit();
+        }
+        return view;
+    }
+
+    /** Drops every cached view, e.g. at logout, so that the next session starts from fresh data. */
+    public void clear() {
+        views.clear();
+        hydrated.clear();
+    }
+
+    private static View load(String name) {
+        FXMLLoader fxmlLoader = new FXMLLoader(ViewRegistry.class.getResource("/com/ensa/v2school/sm/" + name + ".fxml"));
+        try {
+            Parent root = fxmlLoader.load();
+            return new View(root, fxmlLoader.getController());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ensa.v2school.sm.Controllers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a screen transition on the JavaFX Application Thread: a dashboard view shown by
+ * {@link ViewRegistry#show} or a scene switched by {@link AdminController#navigateTo}. The repository queries
+ * run by the controller appear in the same recording, on the same thread, within this event.
+ */
+@Name("com.ensa.v2school.sm.ViewShow")
+@Label("View Show")
+@Category({"School Management", "JavaFX"})
+@Description("A view brought on screen, with the time spent parsing its FXML and initializing its controller")
+final class ViewShowEvent extends Event {
+
+    @Label("View")
+    String view;
+
+    @Label("Reused")
+    @Description("Already shown in this session: neither parsed nor initialized again")
+    boolean reused;
+
+    @Label("Preloaded")
+    @Description("Parsing was started in the background before the view was asked for")
+    boolean preloaded;
+
+    @Label("FXML Parse Time")
+    @Description("Time the caller spent parsing the FXML, controller initialize() included, or waiting for its preload")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseTime;
+
+    @Label("Controller Init Time")
+    @Description("Time spent hydrating the controller with its data")
+    @Timespan(Timespan.NANOSECONDS)
+    long initTime;
+}
@@ -0,0 +1,23 @@
+package com.ensa.v2school.sm.DAO;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking companion of {@link CRUD}: the JDBC work runs off the JavaFX Application Thread
+ * and the returned futures complete back on it, so callbacks can touch the UI directly.
+ * A failed call completes the future exceptionally with the original {@link java.sql.SQLException}.
+ */
+public interface AsyncCRUD<T,PK> {
+    CompletableFuture<T> create(T t);
+    CompletableFuture<T> update(T t);
+    CompletableFuture<T> delete(T t);
+    CompletableFuture<Optional<T>> get(PK pk);
+    CompletableFuture<List<T>> getAll();
+
+    /**
+     * Runs any other repository method (custom finders, counts...) the same way.
+     */
+    <R> CompletableFuture<R> call(SqlCall<R> call);
+}
@@ -0,0 +1,92 @@
+package com.ensa.v2school.sm.DAO;
+
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link AsyncCRUD} on top of any blocking {@link CRUD} repository.
+ * <p>
+ * Each call runs on its own virtual thread (cheap to block on JDBC) and its result is handed back
+ * through {@link Platform#runLater(Runnable)}.
+ */
+public class AsyncRepository<T, PK> implements AsyncCRUD<T, PK> {
+
+    private static final ExecutorService DB_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final CRUD<T, PK> repository;
+    private final Executor completionExecutor;
+
+    public AsyncRepository(CRUD<T, PK> repository) {
+        this(repository, Platform::runLater);
+    }
+
+    /**
+     * @param completionExecutor where the futures are completed; {@code Runnable::run} completes them
+     *                           on the worker thread (for use outside of a JavaFX application)
+     */
+    public AsyncRepository(CRUD<T, PK> repository, Executor completionExecutor) {
+        this.repository = repository;
+        this.completionExecutor = completionExecutor;
+    }
+
+    public CRUD<T, PK> getRepository() {
+        return repository;
+    }
+
+    @Override
+    public CompletableFuture<T> create(T t) {
+        return call(() -> repository.create(t));
+    }
+
+    @Override
+    public CompletableFuture<T> update(T t) {
+        return call(() -> repository.update(t));
+    }
+
+    @Override
+    public CompletableFuture<T> delete(T t) {
+        return call(() -> repository.delete(t));
+    }
+
+    @Override
+    public CompletableFuture<Optional<T>> get(PK pk) {
+        return call(() -> repository.get(pk));
+    }
+
+    @Override
+    public CompletableFuture<List<T>> getAll() {
+        return call(repository::getAll);
+    }
+
+    @Override
+    public <R> CompletableFuture<R> call(SqlCall<R> call) {
+        return submit(call, completionExecutor);
+    }
+
+    /**
+     * Runs {@code call} on a virtual thread and completes the future on the JavaFX Application Thread, for work
+     * that is not tied to one {@link CRUD} repository (statistics, import, export, ...).
+     */
+    public static <R> CompletableFuture<R> run(SqlCall<R> call) {
+        return submit(call, Platform::runLater);
+    }
+
+    private static <R> CompletableFuture<R> submit(SqlCall<R> call, Executor completionExecutor) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        DB_EXECUTOR.execute(() -> {
+            try {
+                R result = call.call();
+                completionExecutor.execute(() -> future.complete(result));
+            } catch (Throwable e) {
+                completionExecutor.execute(() -> future.completeExceptionally(e));
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,246 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.utils.ConnectionMode;
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recomputes {@code students.average} from {@code marks} in bulk: one query streams the marks ordered by student,
+ * each average (the mean of the marks weighted by {@code subjects.coefficient}) is computed as the stream goes
+ * by, and results are written back in batches of {@code sm.averages.batchSize} (default 500) students per
+ * transaction, on a second connection, together with their {@code major_stats} deltas.
+ * <p>
+ * {@link MarkRepository} records the students whose marks changed in {@code student_average_dirty};
+ * {@link #recomputeDirty()} only visits those. A student is removed from that table only if its row was not
+ * touched again while the batch was running, so no change is lost. Students without marks keep their
+ * average as entered. After changing subject coefficients, run {@link #recomputeAll()}.
+ */
+public class AverageRecomputation {
+
+    private static final Log LOG = Log.get(AverageRecomputation.class);
+
+    private static final int BATCH_SIZE = Integer.getInteger("sm.averages.batchSize", 500);
+
+    static final String DIRTY_SQL = """
+        SELECT d.student_id, d.version, m.value, sub.coefficient
+        FROM student_average_dirty d
+        LEFT JOIN marks m ON m.studentId = d.student_id
+        LEFT JOIN subjects sub ON sub.id = m.subjectId
+        ORDER BY d.student_id
+        """;
+
+    static final String ALL_SQL = """
+        SELECT m.studentId AS student_id, d.version, m.value, sub.coefficient
+        FROM marks m
+        JOIN subjects sub ON sub.id = m.subjectId
+        LEFT JOIN student_average_dirty d ON d.student_id = m.studentId
+        ORDER BY m.studentId
+        """;
+
+    static final String UPDATE_SQL = "UPDATE students SET average = ? WHERE id = ?";
+    static final String CLEAN_SQL = "DELETE FROM student_average_dirty WHERE student_id = ? AND version = ?";
+
+    private static ScheduledExecutorService scheduler;
+
+    private final DataBaseConnection connection;
+
+    public AverageRecomputation() {
+        this.connection = DataBaseConnection.getInstance();
+    }
+
+    public record Result(int students, long marks, int updated, long elapsedMillis) {}
+
+    /**
+     * Runs {@link #recomputeDirty()} every {@code sm.averages.recomputeIntervalSeconds} (default 60, 0 disables it)
+     * on a daemon thread.
+     */
+    public static synchronized void start() {
+        long interval = Long.getLong("sm.averages.recomputeIntervalSeconds", 60);
+        if (interval <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "average-recomputation");
+            t.setDaemon(true);
+            return t;
+        });
+        AverageRecomputation recomputation = new AverageRecomputation();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                recomputation.recomputeDirty();
+            } catch (SQLException e) {
+                LOG.error("Error recomputing averages", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /** Recomputes the students whose marks changed since the last run. */
+    public Result recomputeDirty() throws SQLException {
+        return run(DIRTY_SQL);
+    }
+
+    /** Recomputes every student that has marks. */
+    public Result recomputeAll() throws SQLException {
+        return run(ALL_SQL);
+    }
+
+    private Result run(String sql) throws SQLException {
+        long start = System.nanoTime();
+        int students = 0;
+        int updated = 0;
+        long marks = 0;
+
+        // The reader streams, so writes need a connection of their own, even in thread affinity mode
+        try (Connection reader = connection.getConnection();
+             Connection writer = connection.getConnection(ConnectionMode.POOLED);
+             PreparedStatement ps = reader.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            Streaming.enable(reader, ps, BATCH_SIZE);
+
+            List<Computed> batch = new ArrayList<>(BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                String current = null;
+                Integer version = null;
+                double weighted = 0;
+                double weights = 0;
+
+                while (rs.next()) {
+                    String studentId = rs.getString("student_id");
+                    if (!studentId.equals(current)) {
+                        if (current != null) {
+                            batch.add(new Computed(current, version, weights > 0 ? (float) (weighted / weights) : null));
+                            students++;
+                            if (batch.size() == BATCH_SIZE) {
+                                updated += write(writer, batch);
+                            }
+                        }
+                        current = studentId;
+                        version = (Integer) rs.getObject("version");
+                        weighted = 0;
+                        weights = 0;
+                    }
+
+                    float value = rs.getFloat("value");
+                    if (!rs.wasNull()) {
+                        double coefficient = rs.getDouble("coefficient");
+                        weighted += value * coefficient;
+                        weights += coefficient;
+                        marks++;
+                    }
+                }
+                if (current != null) {
+                    batch.add(new Computed(current, version, weights > 0 ? (float) (weighted / weights) : null));
+                    students++;
+                }
+            }
+            updated += write(writer, batch);
+
+        } catch (SQLException e) {
+            LOG.error("Error recomputing averages", e);
+            throw e;
+        }
+
+        return new Result(students, marks, updated, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes one batch in its own transaction: locks the students, updates the averages that changed with
+     * their {@code major_stats} deltas, and clears the dirty rows that were not touched since they were read.
+     *
+     * @return the number of averages that changed
+     */
+    static int write(Connection con, List<Computed> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+
+        try {
+            con.setAutoCommit(false); // Start transaction
+
+            Map<String, Current> current = lock(con, batch);
+            MajorStats.Delta delta = new MajorStats.Delta();
+
+            try (PreparedStatement update = con.prepareStatement(UPDATE_SQL);
+                 PreparedStatement clean = con.prepareStatement(CLEAN_SQL)) {
+                for (Computed computed : batch) {
+                    Current stored = current.get(computed.studentId());
+                    if (computed.average() != null && stored != null && !computed.average().equals(stored.average())) {
+                        update.setFloat(1, computed.average());
+                        update.setString(2, computed.studentId());
+                        update.addBatch();
+                        delta.add(stored.majorId(), stored.average(), -1);
+                        delta.add(stored.majorId(), computed.average(), 1);
+                        updated++;
+                    }
+                    if (computed.version() != null) {
+                        clean.setString(1, computed.studentId());
+                        clean.setInt(2, computed.version());
+                        clean.addBatch();
+                    }
+                }
+                update.executeBatch();
+                clean.executeBatch();
+            }
+            delta.flush(con);
+            con.commit();
+
+        } catch (SQLException e) {
+            try {
+                con.rollback(); // Rollback on error
+            } catch (SQLException rollbackEx) {
+                LOG.error("Error during rollback", rollbackEx);
+            }
+            LOG.error("Error writing recomputed averages", e);
+            throw e;
+        } finally {
+            try {
+                con.setAutoCommit(true);
+            } catch (SQLException autoCommitEx) {
+                LOG.error("Error restoring auto-commit", autoCommitEx);
+            }
+        }
+
+        batch.clear();
+        return updated;
+    }
+
+    /** Current major and average of the batch's students, locked until the transaction ends. */
+    private static Map<String, Current> lock(Connection con, List<Computed> batch) throws SQLException {
+        Map<String, Current> current = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(lockSql(batch.size()))) {
+            InList.setStrings(ps, 1, batch.stream().map(Computed::studentId).toList());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    float value = rs.getFloat("average");
+                    Float average = rs.wasNull() ? null : value; // ungraded: NO_AVERAGE in major_stats
+                    current.put(rs.getString("id"), new Current(rs.getInt("major_id"), average));
+                }
+            }
+        }
+        return current;
+    }
+
+    static String lockSql(int students) {
+        return "SELECT id, major_id, average FROM students WHERE id IN (" + InList.placeholders(students)
+                + ") FOR UPDATE";
+    }
+
+    /** @param average null when the student has no marks */
+    record Computed(String studentId, Integer version, Float average) {}
+
+    /** @param average null when the student has none yet */
+    private record Current(int majorId, Float average) {}
+}
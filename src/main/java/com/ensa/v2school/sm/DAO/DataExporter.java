@@ -0,0 +1,215 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.utils.ChannelWriter;
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * Exports students, enrolments or marks to CSV or JSON Lines without materialising them: rows come from a
+ * streaming result set (see {@link Streaming}) and go straight to a {@link ChannelWriter}, so the heap used is a
+ * couple of buffers whatever the size of the school.
+ */
+public class DataExporter {
+
+    private static final Log LOG = Log.get(DataExporter.class);
+
+    private static final int PROGRESS_EVERY = 5_000;
+
+    public enum Dataset {
+        STUDENTS("""
+                SELECT s.id, s.first_name, s.last_name, s.average, s.major_id, m.name AS major_name,
+                       d.numero_inscription, d.date_creation
+                FROM students s
+                JOIN majors m ON s.major_id = m.id
+                LEFT JOIN dossier_administratif d ON d.eleve_id = s.id
+                ORDER BY s.id
+                """, "SELECT COUNT(*) FROM students"),
+        ENROLMENTS("""
+                SELECT ss.student_id, ss.subject_id, sub.name AS subject_name
+                FROM student_subject ss
+                JOIN subjects sub ON ss.subject_id = sub.id
+                ORDER BY ss.student_id, ss.subject_id
+                """, "SELECT COUNT(*) FROM student_subject"),
+        MARKS("""
+                SELECT mk.id, mk.studentId AS student_id, mk.subjectId AS subject_id, sub.name AS subject_name, mk.value
+                FROM marks mk
+                JOIN subjects sub ON mk.subjectId = sub.id
+                ORDER BY mk.studentId, mk.subjectId
+                """, "SELECT COUNT(*) FROM marks");
+
+        private final String sql;
+        private final String countSql;
+
+        Dataset(String sql, String countSql) {
+            this.sql = sql;
+            this.countSql = countSql;
+        }
+    }
+
+    public enum Format {
+        CSV(".csv"),
+        JSON_LINES(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Called on the exporting thread every few thousand rows, and once at the end. */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progress(long rows, long total);
+    }
+
+    public record Result(long rows, long bytes, long elapsedMillis) {}
+
+    private final DataBaseConnection connection;
+
+    public DataExporter() {
+        this.connection = DataBaseConnection.getInstance();
+    }
+
+    /**
+     * Writes {@code dataset} to {@code file} (created or truncated). The file is deleted if the export fails.
+     */
+    public Result export(Dataset dataset, Format format, Path file, ProgressListener listener)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+
+        try (Connection con = connection.getConnection()) {
+            long total = count(con, dataset);
+            listener.progress(0, total);
+
+            try (PreparedStatement ps = con.prepareStatement(dataset.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                Streaming.enable(con, ps, 1_000);
+
+                try (ResultSet rs = ps.executeQuery();
+                     ChannelWriter out = ChannelWriter.create(file)) {
+
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int columns = meta.getColumnCount();
+                    String[] names = new String[columns];
+                    boolean[] numeric = new boolean[columns];
+                    for (int i = 0; i < columns; i++) {
+                        names[i] = meta.getColumnLabel(i + 1);
+                        numeric[i] = isNumeric(meta.getColumnType(i + 1));
+                    }
+                    if (format == Format.CSV) {
+                        out.write(String.join(",", names));
+                        out.write('\n');
+                    }
+
+                    StringBuilder line = new StringBuilder(256);
+                    while (rs.next()) {
+                        line.setLength(0);
+                        if (format == Format.CSV) {
+                            csvRow(rs, columns, line);
+                        } else {
+                            jsonRow(rs, names, numeric, line);
+                        }
+                        out.append(line);
+                        if (++rows % PROGRESS_EVERY == 0) {
+                            listener.progress(rows, total);
+                        }
+                    }
+                    out.flush();
+                    listener.progress(rows, Math.max(rows, total));
+                    return new Result(rows, out.getBytesWritten(), (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+
+        } catch (SQLException | IOException e) {
+            LOG.error("Error exporting", "dataset", dataset.name(), e);
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static long count(Connection con, Dataset dataset) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(dataset.countSql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static boolean isNumeric(int type) {
+        return switch (type) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.REAL, Types.FLOAT, Types.DOUBLE, Types.DECIMAL, Types.NUMERIC -> true;
+            default -> false;
+        };
+    }
+
+    private static void csvRow(ResultSet rs, int columns, StringBuilder line) throws SQLException {
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) line.append(',');
+            String value = rs.getString(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                line.append(value);
+            } else {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        line.append('\n');
+    }
+
+    private static void jsonRow(ResultSet rs, String[] names, boolean[] numeric, StringBuilder line) throws SQLException {
+        line.append('{');
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) line.append(',');
+            line.append('"').append(names[i]).append("\":");
+            String value = rs.getString(i + 1);
+            if (value == null) {
+                line.append("null");
+            } else if (numeric[i]) {
+                line.append(value);
+            } else {
+                jsonString(value, line);
+            }
+        }
+        line.append("}\n");
+    }
+
+    private static void jsonString(String value, StringBuilder line) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
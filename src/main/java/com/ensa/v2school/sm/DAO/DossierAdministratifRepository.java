@@ -11,6 +11,11 @@ import java.util.Optional;
 
 public class DossierAdministratifRepository implements CRUD<DossierAdministratif, Integer> {
 
+    static final String GET_ALL_SQL = "SELECT * FROM dossier_administratif ORDER BY date_creation DESC";
+    static final String FIND_BY_STUDENT_SQL = "SELECT * FROM dossier_administratif WHERE eleve_id = ?";
+    static final String FIND_BY_NUMERO_SQL = "SELECT * FROM dossier_administratif WHERE numero_inscription = ?";
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM dossier_administratif";
+
     private final DataBaseConnection connection;
 
     public DossierAdministratifRepository() {
@@ -51,10 +56,10 @@ public class DossierAdministratifRepository implements CRUD<DossierAdministratif
              PreparedStatement ps = con.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return Optional.of(map(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(map(rs));
+                }
             }
         }
         return Optional.empty();
@@ -62,12 +67,11 @@ public class DossierAdministratifRepository implements CRUD<DossierAdministratif
 
     @Override
     public List<DossierAdministratif> getAll() throws SQLException {
-        String sql = "SELECT * FROM dossier_administratif ORDER BY date_creation DESC";
         List<DossierAdministratif> list = new ArrayList<>();
 
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(GET_ALL_SQL)) {
 
             while (rs.next()) {
                 list.add(map(rs));
@@ -107,32 +111,28 @@ public class DossierAdministratifRepository implements CRUD<DossierAdministratif
     }
 
     public Optional<DossierAdministratif> findByStudentId(String studentId) throws SQLException {
-        String sql = "SELECT * FROM dossier_administratif WHERE eleve_id = ?";
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_STUDENT_SQL)) {
 
             ps.setString(1, studentId);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return Optional.of(map(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(map(rs));
+                }
             }
         }
         return Optional.empty();
     }
 
     public Optional<DossierAdministratif> findByNumeroInscription(String numero) throws SQLException {
-        String sql = "SELECT * FROM dossier_administratif WHERE numero_inscription = ?";
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_NUMERO_SQL)) {
 
             ps.setString(1, numero);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return Optional.of(map(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(map(rs));
+                }
             }
         }
         return Optional.empty();
@@ -155,11 +155,9 @@ public class DossierAdministratifRepository implements CRUD<DossierAdministratif
     }
 
     public int getCount() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM dossier_administratif";
-
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(COUNT_SQL)) {
 
             if (rs.next()) {
                 return rs.getInt(1);
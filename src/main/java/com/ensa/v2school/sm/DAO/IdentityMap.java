@@ -0,0 +1,113 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.DossierAdministratif;
+import com.ensa.v2school.sm.Models.Major;
+import com.ensa.v2school.sm.Models.Student;
+import com.ensa.v2school.sm.Models.Subject;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-query identity map: while a result set is being mapped, every {@link Major}, {@link Subject},
+ * {@link DossierAdministratif} and {@link Student} is materialised once per primary key and then shared.
+ * A query returning 50k students over 3 majors builds 3 {@code Major} objects, not 50k.
+ * <p>
+ * Not thread-safe, create one per repository call.
+ */
+class IdentityMap {
+
+    private final Map<Integer, Major> majors = new HashMap<>();
+    private final Map<Integer, Subject> subjects = new HashMap<>();
+    private final Map<Integer, DossierAdministratif> dossiers = new HashMap<>();
+    private final Map<String, Student> students = new HashMap<>();
+
+    /**
+     * Returns the major of the current row, reading its columns only the first time its id is seen,
+     * or null when a LEFT JOIN found none (student without a major).
+     */
+    Major major(ResultSet rs, String idColumn, String nameColumn, String descriptionColumn) throws SQLException {
+        if (rs.getObject(idColumn) == null) {
+            return null;
+        }
+        int id = rs.getInt(idColumn);
+        Major major = majors.get(id);
+        if (major == null) {
+            major = new Major(
+                    id,
+                    rs.getString(nameColumn),
+                    rs.getString(descriptionColumn),
+                    new ArrayList<>()
+            );
+            majors.put(id, major);
+        }
+        return major;
+    }
+
+    Subject subject(ResultSet rs, String idColumn, String nameColumn) throws SQLException {
+        int id = rs.getInt(idColumn);
+        Subject subject = subjects.get(id);
+        if (subject == null) {
+            subject = new Subject(
+                    id,
+                    rs.getString(nameColumn),
+                    new ArrayList<>()
+            );
+            subjects.put(id, subject);
+        }
+        return subject;
+    }
+
+    /**
+     * Returns the dossier of the current row, or null when the LEFT JOIN found none.
+     */
+    DossierAdministratif dossier(ResultSet rs, String idColumn, String numeroColumn, String dateColumn,
+                                 String studentIdColumn) throws SQLException {
+        if (rs.getObject(idColumn) == null) {
+            return null;
+        }
+        int id = rs.getInt(idColumn);
+        DossierAdministratif dossier = dossiers.get(id);
+        if (dossier == null) {
+            dossier = new DossierAdministratif(
+                    id,
+                    rs.getString(numeroColumn),
+                    rs.getDate(dateColumn).toLocalDate(),
+                    rs.getString(studentIdColumn)
+            );
+            dossiers.put(id, dossier);
+        }
+        return dossier;
+    }
+
+    /**
+     * Returns the student of the current row of a query using the standard student column aliases
+     * ({@code first_name, last_name, average, major_id, major_name, major_description, dossier_id,
+     * numero_inscription, date_creation}).
+     */
+    Student student(ResultSet rs, String idColumn) throws SQLException {
+        String id = rs.getString(idColumn);
+        Student student = students.get(id);
+        if (student == null) {
+            student = new Student(
+                    id,
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    null,
+                    rs.getFloat("average"),
+                    major(rs, "major_id", "major_name", "major_description"),
+                    dossier(rs, "dossier_id", "numero_inscription", "date_creation", idColumn)
+            );
+            students.put(id, student);
+        }
+        return student;
+    }
+
+    /** Subjects seen so far, by id. */
+    Map<Integer, Subject> subjects() {
+        return subjects;
+    }
+}
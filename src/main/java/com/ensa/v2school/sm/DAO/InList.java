@@ -0,0 +1,62 @@
+package com.ensa.v2school.sm.DAO;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Placeholders of {@code IN (?, ?, ...)} lists, padded to a power of two by repeating the last value.
+ * <p>
+ * Each list length is a different SQL text, hence a different entry of the {@code StatementCache} and, with
+ * {@code useServerPrepStmts}, a different statement prepared on the server. Unpadded, a few hundred list lengths
+ * would evict the hot statements; padded, they share about ten texts. A repeated value does not change
+ * what {@code IN} matches.
+ */
+final class InList {
+
+    private InList() {
+    }
+
+    /** {@code "?, ?, ?, ?"} for 3 values: as many placeholders as {@link #padded(int)}. */
+    static String placeholders(int values) {
+        return String.join(", ", Collections.nCopies(padded(values), "?"));
+    }
+
+    /** The next power of two, at least {@code values}. */
+    static int padded(int values) {
+        return values <= 1 ? values : Integer.highestOneBit(values - 1) << 1;
+    }
+
+    /**
+     * Binds {@code values} from parameter {@code first} on, repeating the last one up to the padded size.
+     *
+     * @return the index of the parameter after the list
+     */
+    static int setInts(PreparedStatement ps, int first, Collection<Integer> values) throws SQLException {
+        int index = first;
+        int last = 0;
+        for (int value : values) {
+            ps.setInt(index++, value);
+            last = value;
+        }
+        for (int i = values.size(); i < padded(values.size()); i++) {
+            ps.setInt(index++, last);
+        }
+        return index;
+    }
+
+    /** {@link #setInts} for string keys. */
+    static int setStrings(PreparedStatement ps, int first, Collection<String> values) throws SQLException {
+        int index = first;
+        String last = null;
+        for (String value : values) {
+            ps.setString(index++, value);
+            last = value;
+        }
+        for (int i = values.size(); i < padded(values.size()); i++) {
+            ps.setString(index++, last);
+        }
+        return index;
+    }
+}
@@ -3,6 +3,7 @@ package com.ensa.v2school.sm.DAO;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Subject;
 import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -13,6 +14,20 @@ import java.util.Optional;
 
 public class MajorRepository implements CRUD<Major, Integer> {
 
+    private static final Log LOG = Log.get(MajorRepository.class);
+
+    static final String GET_SQL = "SELECT * FROM majors WHERE id = ?";
+    static final String GET_ALL_SQL = "SELECT * FROM majors";
+    static final String FIND_BY_NAME_SQL = "SELECT * FROM majors WHERE name = ?";
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM majors";
+    static final String HAS_STUDENTS_SQL = "SELECT COUNT(*) FROM students WHERE major_id = ?";
+    static final String SUBJECTS_SQL = """
+        SELECT s.id, s.name
+        FROM subjects s
+        JOIN major_subject ms ON s.id = ms.subject_id
+        WHERE ms.major_id = ?
+        """;
+
     private final DataBaseConnection connection;
 
     public MajorRepository() {
@@ -36,12 +51,9 @@ public class MajorRepository implements CRUD<Major, Integer> {
      */
     private List<Subject> loadSubjectsForMajor(int majorId) throws SQLException {
         List<Subject> subjects = new ArrayList<>();
-        String sql = "SELECT s.id, s.name FROM subjects s " +
-                "JOIN major_subject ms ON s.id = ms.subject_id " +
-                "WHERE ms.major_id = ?";
 
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(SUBJECTS_SQL)) {
 
             ps.setInt(1, majorId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -55,7 +67,7 @@ public class MajorRepository implements CRUD<Major, Integer> {
                 }
             }
         }catch (SQLException e){
-            System.err.println(e.getMessage());
+            LOG.error("Error loading subjects of major", e);
             throw e;
         }
         return subjects;
@@ -77,10 +89,11 @@ public class MajorRepository implements CRUD<Major, Integer> {
                 int rowsAffected = ps.executeUpdate();
 
                 if (rowsAffected > 0) {
-                    ResultSet generatedKeys = ps.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        major.setId(generatedKeys.getInt(1));
-                        insertMajorSubjects(con, major.getId(), major.getSubjects());
+                    try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            major.setId(generatedKeys.getInt(1));
+                            insertMajorSubjects(con, major.getId(), major.getSubjects());
+                        }
                     }
                     con.commit(); // Commit transaction
                     return major;
@@ -93,18 +106,19 @@ public class MajorRepository implements CRUD<Major, Integer> {
                 try {
                     con.rollback(); // Rollback on error
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error creating major: " + e.getMessage());
+            LOG.error("Error creating major", e);
             throw e;
         } finally {
+            ReferenceDataCache.invalidateAll();
             if (con != null) {
                 try {
                     con.setAutoCommit(true);
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
@@ -138,18 +152,19 @@ public class MajorRepository implements CRUD<Major, Integer> {
                 try {
                     con.rollback(); // Rollback on error
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error updating major: " + e.getMessage());
+            LOG.error("Error updating major", e);
             throw e;
         } finally {
+            ReferenceDataCache.invalidateAll();
             if (con != null) {
                 try {
                     con.setAutoCommit(true); // Restore auto-commit
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
@@ -183,29 +198,35 @@ public class MajorRepository implements CRUD<Major, Integer> {
                 try {
                     con.rollback(); // Rollback on error
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error deleting major: " + e.getMessage());
+            LOG.error("Error deleting major", e);
             throw e;
         } finally {
+            ReferenceDataCache.invalidateAll();
             if (con != null) {
                 try {
                     con.setAutoCommit(true); // Restore auto-commit
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
     }
 
+    /**
+     * Served from {@link ReferenceDataCache}; a miss loads the major with its subjects.
+     */
     @Override
     public Optional<Major> get(Integer id) throws SQLException {
-        String sql = "SELECT * FROM majors WHERE id = ?";
+        return ReferenceDataCache.copyMajor(ReferenceDataCache.MAJOR_BY_ID.get(id, () -> load(id)));
+    }
 
+    private Optional<Major> load(Integer id) throws SQLException {
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(GET_SQL)) {
 
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -218,22 +239,28 @@ public class MajorRepository implements CRUD<Major, Integer> {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting major: " + e.getMessage());
+            LOG.error("Error getting major", e);
             throw e;
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Served from {@link ReferenceDataCache}, so opening a form usually costs no round trip at all.
+     */
     @Override
     public List<Major> getAll() throws SQLException {
-        String sql = "SELECT * FROM majors";
+        return ReferenceDataCache.copyMajors(ReferenceDataCache.MAJORS.get("all", this::loadAll));
+    }
+
+    private List<Major> loadAll() throws SQLException {
         List<Major> majors = new ArrayList<>();
         Map<Integer, Major> majorMap = new HashMap<>(); // To quickly access majors
 
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(GET_ALL_SQL)) {
 
             while (rs.next()) {
                 Major major = mapResultSetToMajor(rs);
@@ -249,7 +276,7 @@ public class MajorRepository implements CRUD<Major, Integer> {
             return majors;
 
         } catch (SQLException e) {
-            System.err.println("Error getting all majors: " + e.getMessage());
+            LOG.error("Error getting all majors", e);
             throw e;
         }
     }
@@ -284,7 +311,7 @@ public class MajorRepository implements CRUD<Major, Integer> {
                     ps.addBatch();
                 } else {
                     // Handle case where Subject ID is missing (e.g., log error or throw exception)
-                    System.err.println("Warning: Skipping subject with missing ID: " + subject.getName());
+                    LOG.warn("Skipping subject with missing ID", "subject", subject.getName());
                 }
             }
             ps.executeBatch();
@@ -304,19 +331,11 @@ public class MajorRepository implements CRUD<Major, Integer> {
      * This is an advanced approach to avoid N+1 queries.
      */
     private void loadAllSubjects(Connection con, Map<Integer, Major> majorMap) throws SQLException {
-        // Query to get all major-subject links for the major IDs we just fetched
-        String sql = "SELECT ms.major_id, s.id AS subject_id, s.name AS subject_name " +
-                "FROM major_subject ms " +
-                "JOIN subjects s ON ms.subject_id = s.id " +
-                "WHERE ms.major_id IN (" +
-                String.join(",", java.util.Collections.nCopies(majorMap.size(), "?")) +
-                ")";
+        IdentityMap identities = new IdentityMap(); // a subject shared by several majors is built once
 
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
-            int index = 1;
-            for (Integer id : majorMap.keySet()) {
-                ps.setInt(index++, id);
-            }
+        // all major-subject links for the major IDs we just fetched
+        try (PreparedStatement ps = con.prepareStatement(allSubjectsSql(majorMap.size()))) {
+            InList.setInts(ps, 1, majorMap.keySet());
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -324,25 +343,28 @@ public class MajorRepository implements CRUD<Major, Integer> {
                     Major major = majorMap.get(majorId);
 
                     if (major != null) {
-                        Subject subject = new Subject(
-                                rs.getInt("subject_id"),
-                                rs.getString("subject_name"),
-                                new ArrayList<>() // Keep its list of majors empty for now
-                        );
-                        major.getSubjects().add(subject);
+                        // Keep its list of majors empty for now
+                        major.getSubjects().add(identities.subject(rs, "subject_id", "subject_name"));
                     }
                 }
             }
         }
     }
 
+    /** Subject links of {@code majors} majors, as read by {@link #loadAllSubjects}. */
+    static String allSubjectsSql(int majors) {
+        return """
+            SELECT ms.major_id, s.id AS subject_id, s.name AS subject_name
+            FROM major_subject ms
+            JOIN subjects s ON ms.subject_id = s.id
+            WHERE ms.major_id IN (""" + InList.placeholders(majors) + ")";
+    }
+
     // --- Original Custom Methods (Kept for completeness) ---
 
     public Optional<Major> findByName(String majorName) throws SQLException {
-        String sql = "SELECT * FROM majors WHERE name = ?";
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_NAME_SQL)) {
 
             ps.setString(1, majorName);
             try (ResultSet rs = ps.executeQuery()) {
@@ -355,7 +377,7 @@ public class MajorRepository implements CRUD<Major, Integer> {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error finding major by name: " + e.getMessage());
+            LOG.error("Error finding major by name", e);
             throw e;
         }
 
@@ -363,15 +385,14 @@ public class MajorRepository implements CRUD<Major, Integer> {
     }
 
     public int getCount() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM majors";
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(COUNT_SQL)) {
             if (rs.next()) {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting majors count: " + e.getMessage());
+            LOG.error("Error getting majors count", e);
             throw e;
         }
         return 0;
@@ -383,9 +404,8 @@ public class MajorRepository implements CRUD<Major, Integer> {
      * @return true if the major has students, false otherwise
      */
     public boolean hasStudents(int majorId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM students WHERE major_id = ?";
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(HAS_STUDENTS_SQL)) {
 
             ps.setInt(1, majorId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -394,7 +414,7 @@ public class MajorRepository implements CRUD<Major, Integer> {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error checking if major has students: " + e.getMessage());
+            LOG.error("Error checking if major has students", e);
             throw e;
         }
         return false;
@@ -0,0 +1,137 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Statistics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running aggregates of {@code students} kept in {@code major_stats}: per (major, 1-point bin of the average),
+ * the number of students, how many have an average, and the sum and sum of squares of those averages.
+ * <p>
+ * Every write to {@code students} applies its delta here on the same connection, inside the same transaction;
+ * {@link MajorStatsVerifier} rebuilds the table when something else (bulk loads, cascades) made it drift.
+ */
+final class MajorStats {
+
+    /** Bin of a student whose average is NULL: counted, but not in any histogram bin. */
+    static final int NO_AVERAGE = -1;
+
+    /** Same binning as {@link #bin(float)}, for queries over {@code students}. */
+    static final String BIN_SQL = "COALESCE(GREATEST(0, LEAST(FLOOR(s.average), " + (Statistics.BINS - 1) + ")), "
+            + NO_AVERAGE + ")";
+
+    static final String APPLY_SQL = """
+        INSERT INTO major_stats (major_id, bin, student_count, graded_count, total, total_sq)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            student_count = student_count + VALUES(student_count),
+            graded_count = graded_count + VALUES(graded_count),
+            total = total + VALUES(total),
+            total_sq = total_sq + VALUES(total_sq)
+        """;
+
+    static final String CURRENT_SQL = "SELECT major_id, average FROM students WHERE id = ? FOR UPDATE";
+
+    private MajorStats() {
+    }
+
+    static int bin(float average) {
+        return Math.max(0, Math.min((int) Math.floor(average), Statistics.BINS - 1));
+    }
+
+    /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) one student from the aggregates. */
+    static void apply(Connection con, int majorId, float average, int sign) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(APPLY_SQL)) {
+            double value = average;
+            ps.setInt(1, majorId);
+            ps.setInt(2, bin(average));
+            ps.setInt(3, sign);
+            ps.setInt(4, sign);
+            ps.setDouble(5, sign * value);
+            ps.setDouble(6, sign * value * value);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes the stored row of {@code studentId} from the aggregates, locking it until the transaction ends.
+     * Does nothing if the student does not exist.
+     */
+    static void removeCurrent(Connection con, String studentId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(CURRENT_SQL)) {
+            ps.setString(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                int majorId = rs.getInt("major_id");
+                float average = rs.getFloat("average");
+                if (rs.wasNull()) {
+                    removeUngraded(con, majorId);
+                } else {
+                    apply(con, majorId, average, -1);
+                }
+            }
+        }
+    }
+
+    private static void removeUngraded(Connection con, int majorId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(APPLY_SQL)) {
+            ps.setInt(1, majorId);
+            ps.setInt(2, NO_AVERAGE);
+            ps.setInt(3, -1);
+            ps.setInt(4, 0);
+            ps.setDouble(5, 0);
+            ps.setDouble(6, 0);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Deltas of many students summed per (major, bin), written with one batch: used by bulk writers that
+     * would otherwise issue two upserts per student.
+     */
+    static final class Delta {
+        private final Map<Key, double[]> rows = new HashMap<>();
+
+        /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) one student; a null average is ungraded. */
+        void add(int majorId, Float average, int sign) {
+            double[] row = rows.computeIfAbsent(
+                    new Key(majorId, average == null ? NO_AVERAGE : bin(average)), k -> new double[4]);
+            row[0] += sign;
+            if (average != null) {
+                double value = average;
+                row[1] += sign;
+                row[2] += sign * value;
+                row[3] += sign * value * value;
+            }
+        }
+
+        void flush(Connection con) throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement ps = con.prepareStatement(APPLY_SQL)) {
+                for (Map.Entry<Key, double[]> entry : rows.entrySet()) {
+                    double[] row = entry.getValue();
+                    ps.setInt(1, entry.getKey().majorId());
+                    ps.setInt(2, entry.getKey().bin());
+                    ps.setInt(3, (int) row[0]);
+                    ps.setInt(4, (int) row[1]);
+                    ps.setDouble(5, row[2]);
+                    ps.setDouble(6, row[3]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            rows.clear();
+        }
+
+        private record Key(int majorId, int bin) {}
+    }
+}
@@ -0,0 +1,215 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciles {@code major_stats} with {@code students}: recomputes the aggregates with a full GROUP BY,
+ * compares them with the stored ones and rebuilds the majors that drifted (rows loaded in bulk, students
+ * removed by the {@code users} cascade, a write made outside {@link StudentRepository}).
+ * <p>
+ * The rebuild is not serialised with concurrent writes: a student saved between the recount and the
+ * rebuild of its major is lost from the aggregates until the next run.
+ */
+public class MajorStatsVerifier {
+
+    private static final Log LOG = Log.get(MajorStatsVerifier.class);
+
+    private static final String EXPECTED_SQL = """
+        SELECT s.major_id, %1$s AS bin,
+               COUNT(*) AS student_count,
+               COUNT(s.average) AS graded_count,
+               COALESCE(SUM(s.average), 0) AS total,
+               COALESCE(SUM(s.average * s.average), 0) AS total_sq
+        FROM students s
+        GROUP BY s.major_id, %1$s
+        """.formatted(MajorStats.BIN_SQL);
+
+    private static final String ACTUAL_SQL =
+            "SELECT major_id, bin, student_count, graded_count, total, total_sq FROM major_stats";
+
+    private static final String EXPECTED_FOR_MAJOR_SQL = """
+        SELECT s.major_id, %1$s AS bin,
+               COUNT(*) AS student_count,
+               COUNT(s.average) AS graded_count,
+               COALESCE(SUM(s.average), 0) AS total,
+               COALESCE(SUM(s.average * s.average), 0) AS total_sq
+        FROM students s
+        WHERE s.major_id = ?
+        GROUP BY s.major_id, %1$s
+        """.formatted(MajorStats.BIN_SQL);
+
+    private static ScheduledExecutorService scheduler;
+
+    private final DataBaseConnection connection;
+
+    public MajorStatsVerifier() {
+        this.connection = DataBaseConnection.getInstance();
+    }
+
+    /**
+     * Runs the verifier now and then every {@code sm.stats.verifyIntervalSeconds} (default 600, 0 disables it)
+     * on a daemon thread.
+     */
+    public static synchronized void start() {
+        long interval = Long.getLong("sm.stats.verifyIntervalSeconds", 600);
+        if (interval <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "major-stats-verifier");
+            t.setDaemon(true);
+            return t;
+        });
+        MajorStatsVerifier verifier = new MajorStatsVerifier();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int rebuilt = verifier.verify();
+                if (rebuilt > 0) {
+                    LOG.warn("major_stats had drifted, rebuilt", "majors", rebuilt);
+                }
+            } catch (SQLException e) {
+                LOG.error("Error verifying major stats", e);
+            }
+        }, 0, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the number of majors whose aggregates were rebuilt
+     */
+    public int verify() throws SQLException {
+        Map<Integer, Map<Integer, Row>> expected;
+        Map<Integer, Map<Integer, Row>> actual;
+        try (Connection con = connection.getConnection()) {
+            expected = read(con, EXPECTED_SQL, null);
+            actual = read(con, ACTUAL_SQL, null);
+        } catch (SQLException e) {
+            LOG.error("Error reading major stats", e);
+            throw e;
+        }
+
+        Set<Integer> majors = new HashSet<>(expected.keySet());
+        majors.addAll(actual.keySet());
+        int rebuilt = 0;
+        for (int majorId : majors) {
+            if (!same(expected.getOrDefault(majorId, Map.of()), actual.getOrDefault(majorId, Map.of()))) {
+                rebuild(majorId);
+                rebuilt++;
+            }
+        }
+        return rebuilt;
+    }
+
+    private void rebuild(int majorId) throws SQLException {
+        Connection con = null;
+
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement delete = con.prepareStatement("DELETE FROM major_stats WHERE major_id = ?");
+                 PreparedStatement insert = con.prepareStatement("""
+                         INSERT INTO major_stats (major_id, bin, student_count, graded_count, total, total_sq)
+                         VALUES (?, ?, ?, ?, ?, ?)
+                         """)) {
+                delete.setInt(1, majorId);
+                delete.executeUpdate();
+
+                Map<Integer, Row> rows = read(con, EXPECTED_FOR_MAJOR_SQL, majorId).getOrDefault(majorId, Map.of());
+                for (Map.Entry<Integer, Row> entry : rows.entrySet()) {
+                    Row row = entry.getValue();
+                    insert.setInt(1, majorId);
+                    insert.setInt(2, entry.getKey());
+                    insert.setLong(3, row.studentCount());
+                    insert.setLong(4, row.gradedCount());
+                    insert.setDouble(5, row.total());
+                    insert.setDouble(6, row.totalSq());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            con.commit();
+        } catch (SQLException e) {
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error rebuilding major stats", e);
+            throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
+        }
+    }
+
+    private static Map<Integer, Map<Integer, Row>> read(Connection con, String sql, Integer majorId) throws SQLException {
+        Map<Integer, Map<Integer, Row>> rows = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            if (majorId != null) {
+                ps.setInt(1, majorId);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.computeIfAbsent(rs.getInt("major_id"), k -> new HashMap<>())
+                            .put(rs.getInt("bin"), new Row(
+                                    rs.getLong("student_count"),
+                                    rs.getLong("graded_count"),
+                                    rs.getDouble("total"),
+                                    rs.getDouble("total_sq")));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** Compares two majors' bins, a missing bin being equal to an empty one. */
+    private static boolean same(Map<Integer, Row> expected, Map<Integer, Row> actual) {
+        Set<Integer> bins = new HashSet<>(expected.keySet());
+        bins.addAll(actual.keySet());
+        for (int bin : bins) {
+            if (!Objects.requireNonNullElse(expected.get(bin), Row.EMPTY)
+                    .matches(Objects.requireNonNullElse(actual.get(bin), Row.EMPTY))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Row(long studentCount, long gradedCount, double total, double totalSq) {
+        static final Row EMPTY = new Row(0, 0, 0, 0);
+
+        /** Counts must be equal; sums only up to the rounding accumulated by the incremental updates. */
+        boolean matches(Row other) {
+            return studentCount == other.studentCount
+                    && gradedCount == other.gradedCount
+                    && close(total, other.total)
+                    && close(totalSq, other.totalSq);
+        }
+
+        private static boolean close(double a, double b) {
+            return Math.abs(a - b) <= 1e-6 * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+        }
+    }
+}
@@ -1,48 +1,121 @@
 package com.ensa.v2school.sm.DAO;
 import com.ensa.v2school.sm.Models.Mark;
 import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 class MarkRepository implements CRUD<Mark, Integer> {
 
+    private static final Log LOG = Log.get(MarkRepository.class);
+
+    /** Rows per JDBC batch in {@link #createAll} and {@link #upsertAll}. */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Marks joined with everything needed to build their student and subject in one pass.
+     * LEFT JOINs keep marks whose student or subject is gone, as the per-row lookups used to.
+     */
+    static final String MARK_SELECT = """
+        SELECT
+            mk.id,
+            mk.value,
+            st.id AS student_id,
+            st.first_name,
+            st.last_name,
+            st.average,
+            m.id AS major_id,
+            m.name AS major_name,
+            m.description AS major_description,
+            d.id AS dossier_id,
+            d.numero_inscription,
+            d.date_creation,
+            sub.id AS subject_id,
+            sub.name AS subject_name
+        FROM marks mk
+        LEFT JOIN students st ON mk.studentId = st.id
+        LEFT JOIN majors m ON st.major_id = m.id
+        LEFT JOIN dossier_administratif d ON st.id = d.eleve_id
+        LEFT JOIN subjects sub ON mk.subjectId = sub.id
+        """;
+
+    static final String GET_SQL = MARK_SELECT + "WHERE mk.id = ?";
+    static final String FIND_BY_STUDENT_SQL = MARK_SELECT + "WHERE mk.studentId = ?";
+    static final String FIND_BY_SUBJECT_SQL = MARK_SELECT + "WHERE mk.subjectId = ?";
+    static final String FIND_BY_STUDENT_AND_SUBJECT_SQL = MARK_SELECT + "WHERE mk.studentId = ? AND mk.subjectId = ?";
+
+    /** Same weighting as {@link AverageRecomputation}. */
+    static final String STUDENT_AVERAGE_SQL = """
+        SELECT SUM(mk.value * sub.coefficient) / SUM(sub.coefficient) AS average
+        FROM marks mk
+        JOIN subjects sub ON mk.subjectId = sub.id
+        WHERE mk.studentId = ?
+        """;
+
     private DataBaseConnection connection;
-    private StudentRepository studentRepository;
     private SubjectRepository subjectRepository;
 
     public MarkRepository() {
         this.connection = DataBaseConnection.getInstance();
-        this.studentRepository = new StudentRepository();
         this.subjectRepository = new SubjectRepository();
     }
 
     @Override
     public Mark create(Mark mark) throws SQLException {
         String sql = "INSERT INTO marks (studentId, subjectId, value) VALUES (?, ?, ?)";
-
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            ps.setString(1, mark.getStudent() != null ? mark.getStudent().getId() : null);
-            ps.setInt(2, mark.getSubject() != null ? mark.getSubject().getId() : 0);
-            ps.setFloat(3, mark.getValue());
-
-            int rowsAffected = ps.executeUpdate();
-
-            if (rowsAffected > 0) {
-                ResultSet generatedKeys = ps.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    mark.setId(generatedKeys.getInt(1));
+        Connection con = null;
+
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, mark.getStudent() != null ? mark.getStudent().getId() : null);
+                ps.setInt(2, mark.getSubject() != null ? mark.getSubject().getId() : 0);
+                ps.setFloat(3, mark.getValue());
+
+                int rowsAffected = ps.executeUpdate();
+
+                if (rowsAffected > 0) {
+                    try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            mark.setId(generatedKeys.getInt(1));
+                        }
+                    }
+                    markAverageDirty(con, mark.getStudent().getId());
+                    con.commit();
+                    return mark;
                 }
-                return mark;
             }
+            con.rollback();
 
         } catch (SQLException e) {
-            System.err.println("Error creating mark: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error creating mark", e);
             throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
         }
 
         return null;
@@ -50,109 +123,312 @@ class MarkRepository implements CRUD<Mark, Integer> {
 
     public Mark update(Mark mark) throws SQLException {
         String sql = "UPDATE marks SET studentId = ?, subjectId = ?, value = ? WHERE id = ?";
+        Connection con = null;
 
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            // the mark may move to another student: both averages change
+            Optional<String> previousStudentId = findStudentId(con, mark.getId());
 
-            ps.setString(1, mark.getStudent() != null ? mark.getStudent().getId() : null);
-            ps.setInt(2, mark.getSubject() != null ? mark.getSubject().getId() : 0);
-            ps.setFloat(3, mark.getValue());
-            ps.setInt(4, mark.getId());
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, mark.getStudent() != null ? mark.getStudent().getId() : null);
+                ps.setInt(2, mark.getSubject() != null ? mark.getSubject().getId() : 0);
+                ps.setFloat(3, mark.getValue());
+                ps.setInt(4, mark.getId());
 
-            int rowsAffected = ps.executeUpdate();
-            return rowsAffected > 0 ? mark : null;
+                int rowsAffected = ps.executeUpdate();
+                if (rowsAffected == 0) {
+                    con.rollback();
+                    return null;
+                }
+            }
+            if (previousStudentId.isPresent()) {
+                markAverageDirty(con, previousStudentId.get());
+            }
+            markAverageDirty(con, mark.getStudent().getId());
+            con.commit();
+            return mark;
 
         } catch (SQLException e) {
-            System.err.println("Error updating mark: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error updating mark", e);
             throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
         }
     }
 
     @Override
     public Mark delete(Mark mark) throws SQLException {
         String sql = "DELETE FROM marks WHERE id = ?";
+        Connection con = null;
 
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            Optional<String> studentId = findStudentId(con, mark.getId());
 
-            ps.setInt(1, mark.getId());
-            int rowsAffected = ps.executeUpdate();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setInt(1, mark.getId());
+                int rowsAffected = ps.executeUpdate();
 
-            return rowsAffected > 0 ? mark : null;
+                if (rowsAffected == 0) {
+                    con.rollback();
+                    return null;
+                }
+            }
+            if (studentId.isPresent()) {
+                markAverageDirty(con, studentId.get());
+            }
+            con.commit();
+            return mark;
 
         } catch (SQLException e) {
-            System.err.println("Error deleting mark: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error deleting mark", e);
             throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
         }
     }
 
-    @Override
-    public Optional<Mark> get(Integer id) throws SQLException {
-        String sql = "SELECT * FROM marks WHERE id = ?";
+    /**
+     * Inserts every mark in one transaction, {@value #BATCH_SIZE} rows per batch, and sets their generated ids.
+     * On MySQL each batch goes out as a single multi-row INSERT (see {@code rewriteBatchedStatements} in
+     * {@code PoolConfig}).
+     */
+    public List<Mark> createAll(List<Mark> marks) throws SQLException {
+        String sql = "INSERT INTO marks (studentId, subjectId, value) VALUES (?, ?, ?)";
+        Connection con = null;
+
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < marks.size(); from += BATCH_SIZE) {
+                    List<Mark> chunk = marks.subList(from, Math.min(from + BATCH_SIZE, marks.size()));
+                    for (Mark mark : chunk) {
+                        ps.setString(1, mark.getStudent().getId());
+                        ps.setInt(2, mark.getSubject().getId());
+                        ps.setFloat(3, mark.getValue());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                        for (Mark mark : chunk) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("Missing generated key for mark of student " + mark.getStudent().getId());
+                            }
+                            mark.setId(generatedKeys.getInt(1));
+                        }
+                    }
+                }
+            }
+            markAveragesDirty(con, studentIds(marks));
+            con.commit();
+            return marks;
 
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        } catch (SQLException e) {
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error creating marks", e);
+            throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
+        }
+    }
 
-            ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
+    /**
+     * Inserts or, when the student already has a mark in the subject, overwrites every mark, in one transaction.
+     * Ids are read back afterwards, since generated keys do not cover the rows that were updated.
+     */
+    public List<Mark> upsertAll(List<Mark> marks) throws SQLException {
+        String sql = """
+        INSERT INTO marks (studentId, subjectId, value) VALUES (?, ?, ?)
+        ON DUPLICATE KEY UPDATE value = VALUES(value)
+        """;
+        Connection con = null;
+
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (int from = 0; from < marks.size(); from += BATCH_SIZE) {
+                    List<Mark> chunk = marks.subList(from, Math.min(from + BATCH_SIZE, marks.size()));
+                    for (Mark mark : chunk) {
+                        ps.setString(1, mark.getStudent().getId());
+                        ps.setInt(2, mark.getSubject().getId());
+                        ps.setFloat(3, mark.getValue());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    loadIds(con, chunk);
+                }
+            }
+            markAveragesDirty(con, studentIds(marks));
+            con.commit();
+            return marks;
 
-            if (rs.next()) {
-                Mark mark = new Mark(
-                        rs.getInt("id"),
-                        null, // Student loaded separately
-                        null, // Subject loaded separately
-                        rs.getFloat("value")
-                );
+        } catch (SQLException e) {
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error upserting marks", e);
+            throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
+        }
+    }
 
-                // Load related objects - CHANGED: getString instead of getInt
-                String studentId = rs.getString("studentId");
-                int subjectId = rs.getInt("subjectId");
+    public Mark upsert(Mark mark) throws SQLException {
+        return upsertAll(List.of(mark)).get(0);
+    }
 
-                studentRepository.get(studentId).ifPresent(mark::setStudent);
-                subjectRepository.get(subjectId).ifPresent(mark::setSubject);
+    /** Sets the id of each mark from its (studentId, subjectId) row. */
+    private void loadIds(Connection con, List<Mark> chunk) throws SQLException {
+        List<String> students = new ArrayList<>(studentIds(chunk));
 
-                return Optional.of(mark);
+        Map<String, Integer> ids = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(idsSql(students.size()))) {
+            InList.setStrings(ps, 1, students);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString("studentId") + "/" + rs.getInt("subjectId"), rs.getInt("id"));
+                }
             }
+        }
+        for (Mark mark : chunk) {
+            Integer id = ids.get(mark.getStudent().getId() + "/" + mark.getSubject().getId());
+            if (id != null) {
+                mark.setId(id);
+            }
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error getting mark: " + e.getMessage());
-            throw e;
+    /** Marks of {@code students} students, as read by {@link #loadIds}. */
+    static String idsSql(int students) {
+        return "SELECT id, studentId, subjectId FROM marks WHERE studentId IN (" + InList.placeholders(students) + ")";
+    }
+
+    private static Set<String> studentIds(List<Mark> marks) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Mark mark : marks) {
+            ids.add(mark.getStudent().getId());
         }
+        return ids;
+    }
 
-        return Optional.empty();
+    private void markAverageDirty(Connection con, String studentId) throws SQLException {
+        markAveragesDirty(con, List.of(studentId));
     }
 
-    @Override
-    public List<Mark> getAll() throws SQLException {
-        String sql = "SELECT * FROM marks";
-        List<Mark> marks = new ArrayList<>();
+    /**
+     * Queues the students for {@link AverageRecomputation}; bumping the version tells a recomputation that is
+     * already running that the row changed after it was read.
+     */
+    private void markAveragesDirty(Connection con, Collection<String> studentIds) throws SQLException {
+        String sql = """
+        INSERT INTO student_average_dirty (student_id, version) VALUES (?, 1)
+        ON DUPLICATE KEY UPDATE version = version + 1
+        """;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (String studentId : studentIds) {
+                ps.setString(1, studentId);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
 
-        try (Connection con = connection.getConnection();
-             Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+    /** Student of a mark, locking the mark until the transaction ends. */
+    private Optional<String> findStudentId(Connection con, int markId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT studentId FROM marks WHERE id = ? FOR UPDATE")) {
+            ps.setInt(1, markId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(rs.getString("studentId")) : Optional.empty();
+            }
+        }
+    }
 
-            while (rs.next()) {
-                Mark mark = new Mark(
-                        rs.getInt("id"),
-                        null,
-                        null,
-                        rs.getFloat("value")
-                );
+    @Override
+    public Optional<Mark> get(Integer id) throws SQLException {
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(GET_SQL)) {
 
-                // CHANGED: getString instead of getInt
-                String studentId = rs.getString("studentId");
-                int subjectId = rs.getInt("subjectId");
+            ps.setInt(1, id);
+            List<Mark> marks = hydrate(con, ps);
+            return marks.isEmpty() ? Optional.empty() : Optional.of(marks.get(0));
 
-                studentRepository.get(studentId).ifPresent(mark::setStudent);
-                subjectRepository.get(subjectId).ifPresent(mark::setSubject);
+        } catch (SQLException e) {
+            LOG.error("Error getting mark", e);
+            throw e;
+        }
+    }
 
-                marks.add(mark);
-            }
+    @Override
+    public List<Mark> getAll() throws SQLException {
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(MARK_SELECT)) {
 
-            return marks;
+            return hydrate(con, ps);
 
         } catch (SQLException e) {
-            System.err.println("Error getting all marks: " + e.getMessage());
+            LOG.error("Error getting all marks", e);
             throw e;
         }
     }
@@ -160,84 +436,60 @@ class MarkRepository implements CRUD<Mark, Integer> {
     // Custom Methods
     // CHANGED: Parameter type from int to String
     public Optional<List<Mark>> findByStudent(String studentId) throws SQLException {
-        String sql = "SELECT * FROM marks WHERE studentId = ?";
-        List<Mark> marks = new ArrayList<>();
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_STUDENT_SQL)) {
 
             // CHANGED: setString instead of setInt
             ps.setString(1, studentId);
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                Mark mark = new Mark(
-                        rs.getInt("id"),
-                        null,
-                        null,
-                        rs.getFloat("value")
-                );
-
-                studentRepository.get(studentId).ifPresent(mark::setStudent);
-                subjectRepository.get(rs.getInt("subjectId")).ifPresent(mark::setSubject);
-
-                marks.add(mark);
-            }
-
-            return Optional.of(marks);
+            return Optional.of(hydrate(con, ps));
 
         } catch (SQLException e) {
-            System.err.println("Error finding marks by student: " + e.getMessage());
+            LOG.error("Error finding marks by student", e);
             throw e;
         }
     }
 
     public Optional<List<Mark>> findBySubject(int subjectId) throws SQLException {
-        String sql = "SELECT * FROM marks WHERE subjectId = ?";
-        List<Mark> marks = new ArrayList<>();
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_SUBJECT_SQL)) {
 
             ps.setInt(1, subjectId);
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                Mark mark = new Mark(
-                        rs.getInt("id"),
-                        null,
-                        null,
-                        rs.getFloat("value")
-                );
-
-                // CHANGED: getString instead of getInt
-                studentRepository.get(rs.getString("studentId")).ifPresent(mark::setStudent);
-                subjectRepository.get(subjectId).ifPresent(mark::setSubject);
-
-                marks.add(mark);
-            }
-
-            return Optional.of(marks);
+            return Optional.of(hydrate(con, ps));
 
         } catch (SQLException e) {
-            System.err.println("Error finding marks by subject: " + e.getMessage());
+            LOG.error("Error finding marks by subject", e);
             throw e;
         }
     }
 
     // CHANGED: Parameter type from int to String
     public Optional<Mark> findByStudentAndSubject(String studentId, int subjectId) throws SQLException {
-        String sql = "SELECT * FROM marks WHERE studentId = ? AND subjectId = ?";
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_STUDENT_AND_SUBJECT_SQL)) {
 
             // CHANGED: setString instead of setInt
             ps.setString(1, studentId);
             ps.setInt(2, subjectId);
-            ResultSet rs = ps.executeQuery();
+            List<Mark> marks = hydrate(con, ps);
+            return marks.isEmpty() ? Optional.empty() : Optional.of(marks.get(0));
 
-            if (rs.next()) {
+        } catch (SQLException e) {
+            LOG.error("Error finding mark by student and subject", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a {@link #MARK_SELECT} query and builds the marks with their student and subject.
+     * Each student, subject and major is materialised once per call through an {@link IdentityMap}, and the
+     * majors of every subject are then loaded with a single extra query: two round trips whatever the number of marks.
+     */
+    private List<Mark> hydrate(Connection con, PreparedStatement ps) throws SQLException {
+        List<Mark> marks = new ArrayList<>();
+        IdentityMap identities = new IdentityMap();
+
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
                 Mark mark = new Mark(
                         rs.getInt("id"),
                         null,
@@ -245,38 +497,39 @@ class MarkRepository implements CRUD<Mark, Integer> {
                         rs.getFloat("value")
                 );
 
-                studentRepository.get(studentId).ifPresent(mark::setStudent);
-                subjectRepository.get(subjectId).ifPresent(mark::setSubject);
+                if (rs.getString("student_id") != null && rs.getObject("major_id") != null) {
+                    mark.setStudent(identities.student(rs, "student_id"));
+                }
+                if (rs.getObject("subject_id") != null) {
+                    mark.setSubject(identities.subject(rs, "subject_id", "subject_name"));
+                }
 
-                return Optional.of(mark);
+                marks.add(mark);
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error finding mark by student and subject: " + e.getMessage());
-            throw e;
         }
 
-        return Optional.empty();
+        if (!identities.subjects().isEmpty()) {
+            subjectRepository.loadMajors(con, identities.subjects(), identities);
+        }
+        return marks;
     }
 
     // Calculate student average
     // CHANGED: Parameter type from int to String
     public float calculateStudentAverage(String studentId) throws SQLException {
-        String sql = "SELECT AVG(value) as average FROM marks WHERE studentId = ?";
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(STUDENT_AVERAGE_SQL)) {
 
             // CHANGED: setString instead of setInt
             ps.setString(1, studentId);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return rs.getFloat("average");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getFloat("average");
+                }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error calculating student average: " + e.getMessage());
+            LOG.error("Error calculating student average", e);
             throw e;
         }
 
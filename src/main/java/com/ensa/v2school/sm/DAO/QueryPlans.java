@@ -0,0 +1,139 @@
+package com.ensa.v2school.sm.DAO;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The repository queries checked by {@link com.ensa.v2school.sm.tools.ExplainCheck}, each with the index MySQL is
+ * expected to pick for every table of its plan. The SQL is the repositories' own constants, so a rewritten query
+ * is checked as shipped; a new query only needs its entry here. Queries with an {@code IN} list are checked with
+ * a single value.
+ */
+public final class QueryPlans {
+
+    /**
+     * @param expected expected key per table (or alias) of the plan, {@code |} separating acceptable alternatives;
+     *                 {@code ALL} accepts a full scan
+     */
+    public record Check(String name, String sql, Map<String, String> expected, Object... params) {
+    }
+
+    /** Existing values to bind, so that unique lookups do not end in "no matching row in const table". */
+    public record Sample(int markId, String studentId, int subjectId, int majorId, String majorName, float average,
+                         String lastName, String numero, String username) {
+    }
+
+    /** Any index will do to count the rows of a table: InnoDB scans the smallest one. */
+    private static final String ANY_STUDENTS_KEY = "PRIMARY|user_id|major_id|major_average|name|average";
+
+    private QueryPlans() {
+    }
+
+    public static List<Check> checks(Sample x) {
+        Map<String, String> studentJoins = Map.of("m", "PRIMARY", "d", "eleve_id");
+        return List.of(
+                new Check("StudentRepository.get", StudentRepository.GET_SQL,
+                        with(studentJoins, "s", "PRIMARY"), x.studentId()),
+                new Check("StudentRepository.getAll", StudentRepository.GET_ALL_SQL,
+                        with(studentJoins, "s", "PRIMARY|ALL")),
+                new Check("StudentRepository.findPage", StudentRepository.PAGE_SQL,
+                        with(studentJoins, "s", "PRIMARY"), x.studentId(), 100),
+                new Check("StudentRepository.findPage (first)", StudentRepository.FIRST_PAGE_SQL,
+                        with(studentJoins, "s", "PRIMARY"), 100),
+                new Check("StudentRepository.findIdAfter", StudentRepository.ID_AFTER_SQL,
+                        Map.of("students", "PRIMARY"), x.studentId(), 100),
+                new Check("StudentRepository.findIdAfter (first)", StudentRepository.FIRST_ID_SQL,
+                        Map.of("students", "PRIMARY"), 100),
+                new Check("StudentRepository.findByMajor", StudentRepository.FIND_BY_MAJOR_SQL,
+                        with(studentJoins, "s", "major_id|major_average"), x.majorId()),
+                new Check("StudentRepository.searchByName", StudentRepository.SEARCH_BY_NAME_SQL,
+                        with(studentJoins, "s", "name"), x.lastName() + "%", 50),
+                new Check("StudentRepository.findPageByAverage", StudentRepository.RANKING_PAGE_SQL,
+                        with(studentJoins, "s", "average"), x.average(), x.average(), x.studentId(), 100),
+                new Check("StudentRepository.findPageByAverage (first)", StudentRepository.FIRST_RANKING_PAGE_SQL,
+                        with(studentJoins, "s", "average"), 100),
+                new Check("StudentRepository.getCount", StudentRepository.COUNT_SQL,
+                        Map.of("students", ANY_STUDENTS_KEY)),
+                new Check("StudentRepository.getEnrolledSubjects", StudentRepository.ENROLLED_SUBJECTS_SQL,
+                        Map.of("ss", "PRIMARY", "s", "PRIMARY"), x.studentId()),
+                new Check("MajorRepository.get", MajorRepository.GET_SQL,
+                        Map.of("majors", "PRIMARY"), x.majorId()),
+                new Check("MajorRepository.getAll", MajorRepository.GET_ALL_SQL,
+                        Map.of("majors", "ALL")),
+                new Check("MajorRepository.findByName", MajorRepository.FIND_BY_NAME_SQL,
+                        Map.of("majors", "name"), x.majorName()),
+                new Check("MajorRepository.getCount", MajorRepository.COUNT_SQL,
+                        Map.of("majors", "PRIMARY|name")),
+                new Check("MajorRepository.hasStudents", MajorRepository.HAS_STUDENTS_SQL,
+                        Map.of("students", "major_id|major_average"), x.majorId()),
+                new Check("MajorRepository.loadSubjectsForMajor", MajorRepository.SUBJECTS_SQL,
+                        Map.of("ms", "PRIMARY", "s", "PRIMARY"), x.majorId()),
+                new Check("MajorRepository.loadAllSubjects", MajorRepository.allSubjectsSql(1),
+                        Map.of("ms", "PRIMARY", "s", "PRIMARY"), x.majorId()),
+                new Check("SubjectRepository.get", SubjectRepository.GET_SQL,
+                        Map.of("subjects", "PRIMARY"), x.subjectId()),
+                new Check("SubjectRepository.getAll", SubjectRepository.GET_ALL_SQL,
+                        Map.of("subjects", "PRIMARY|ALL")),
+                new Check("SubjectRepository.loadMajors", SubjectRepository.majorsSql(1),
+                        Map.of("ms", "subject_id", "m", "PRIMARY"), x.subjectId()),
+                new Check("SubjectRepository.loadByMajorId", SubjectRepository.BY_MAJOR_SQL,
+                        Map.of("ms", "PRIMARY", "s", "PRIMARY"), x.majorId()),
+                new Check("MarkRepository.get", MarkRepository.GET_SQL,
+                        markJoins("PRIMARY"), x.markId()),
+                new Check("MarkRepository.getAll", MarkRepository.MARK_SELECT,
+                        markJoins("ALL")),
+                new Check("MarkRepository.findByStudent", MarkRepository.FIND_BY_STUDENT_SQL,
+                        markJoins("student_values|student_subject"), x.studentId()),
+                new Check("MarkRepository.findBySubject", MarkRepository.FIND_BY_SUBJECT_SQL,
+                        markJoins("subjectId"), x.subjectId()),
+                new Check("MarkRepository.findByStudentAndSubject", MarkRepository.FIND_BY_STUDENT_AND_SUBJECT_SQL,
+                        markJoins("student_subject|student_values"), x.studentId(), x.subjectId()),
+                new Check("MarkRepository.calculateStudentAverage", MarkRepository.STUDENT_AVERAGE_SQL,
+                        Map.of("mk", "student_values", "sub", "PRIMARY"), x.studentId()),
+                new Check("MarkRepository.loadIds", MarkRepository.idsSql(1),
+                        Map.of("marks", "student_values|student_subject"), x.studentId()),
+                new Check("DossierAdministratifRepository.getAll", DossierAdministratifRepository.GET_ALL_SQL,
+                        Map.of("dossier_administratif", "ALL")),
+                new Check("DossierAdministratifRepository.findByStudentId",
+                        DossierAdministratifRepository.FIND_BY_STUDENT_SQL,
+                        Map.of("dossier_administratif", "eleve_id"), x.studentId()),
+                new Check("DossierAdministratifRepository.findByNumeroInscription",
+                        DossierAdministratifRepository.FIND_BY_NUMERO_SQL,
+                        Map.of("dossier_administratif", "numero_inscription"), x.numero()),
+                new Check("DossierAdministratifRepository.getCount", DossierAdministratifRepository.COUNT_SQL,
+                        Map.of("dossier_administratif", "PRIMARY|numero_inscription|eleve_id")),
+                new Check("UserRepository.getAll", UserRepository.GET_ALL_SQL,
+                        Map.of("users", "ALL")),
+                new Check("UserRepository.findByUsername", UserRepository.FIND_BY_USERNAME_SQL,
+                        Map.of("users", "username"), x.username()),
+                new Check("StatisticsRepository.getSnapshot", StatisticsRepository.SNAPSHOT_SQL,
+                        Map.of("m", "ALL|name", "ms", "PRIMARY", "s", "major_average")),
+                new Check("MajorStats.removeCurrent", MajorStats.CURRENT_SQL,
+                        Map.of("students", "PRIMARY"), x.studentId()),
+                // an insert reads no index; checked so that the statement keeps parsing
+                new Check("MajorStats.apply", MajorStats.APPLY_SQL,
+                        Map.of("major_stats", "ALL"), x.majorId(), 0, 0, 0, 0.0, 0.0),
+                new Check("AverageRecomputation.recomputeDirty", AverageRecomputation.DIRTY_SQL,
+                        Map.of("d", "PRIMARY|ALL", "m", "student_values|student_subject", "sub", "PRIMARY")),
+                new Check("AverageRecomputation.recomputeAll", AverageRecomputation.ALL_SQL,
+                        Map.of("m", "student_values|student_subject", "sub", "PRIMARY", "d", "PRIMARY")),
+                new Check("AverageRecomputation.lock", AverageRecomputation.lockSql(1),
+                        Map.of("students", "PRIMARY"), x.studentId()),
+                new Check("AverageRecomputation.write (update)", AverageRecomputation.UPDATE_SQL,
+                        Map.of("students", "PRIMARY"), x.average(), x.studentId()),
+                new Check("AverageRecomputation.write (clean)", AverageRecomputation.CLEAN_SQL,
+                        Map.of("student_average_dirty", "PRIMARY"), x.studentId(), 1)
+        );
+    }
+
+    private static Map<String, String> with(Map<String, String> joins, String table, String key) {
+        Map<String, String> expected = new LinkedHashMap<>(joins);
+        expected.put(table, key);
+        return expected;
+    }
+
+    private static Map<String, String> markJoins(String marksKey) {
+        return Map.of("mk", marksKey, "st", "PRIMARY", "m", "PRIMARY", "d", "eleve_id", "sub", "PRIMARY");
+    }
+}
@@ -0,0 +1,98 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Major;
+import com.ensa.v2school.sm.Models.Subject;
+import com.ensa.v2school.sm.utils.EntityCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared read-through caches of {@link MajorRepository} and {@link SubjectRepository}.
+ * <p>
+ * Majors embed their subjects and subjects embed their majors, so any write to either table (or to
+ * {@code major_subject}) invalidates all of them. Callers always receive copies: the forms edit the
+ * objects they are given before saving, and an edit that is cancelled or fails must not leak into the cache.
+ */
+public final class ReferenceDataCache {
+
+    static final EntityCache<String, List<Major>> MAJORS = EntityCache.fromSystemProperties("majors");
+    static final EntityCache<Integer, Optional<Major>> MAJOR_BY_ID = EntityCache.fromSystemProperties("major-by-id");
+    static final EntityCache<String, List<Subject>> SUBJECTS = EntityCache.fromSystemProperties("subjects");
+    static final EntityCache<Integer, Optional<Subject>> SUBJECT_BY_ID = EntityCache.fromSystemProperties("subject-by-id");
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private ReferenceDataCache() {
+    }
+
+    /** Every cache, for monitoring. */
+    public static List<EntityCache<?, ?>> caches() {
+        return List.of(MAJORS, MAJOR_BY_ID, SUBJECTS, SUBJECT_BY_ID);
+    }
+
+    /**
+     * Incremented by every write to majors or subjects: a view that read them at another generation shows stale data.
+     */
+    public static long generation() {
+        return GENERATION.get();
+    }
+
+    static void invalidateAll() {
+        GENERATION.incrementAndGet();
+        MAJORS.invalidateAll();
+        MAJOR_BY_ID.invalidateAll();
+        SUBJECTS.invalidateAll();
+        SUBJECT_BY_ID.invalidateAll();
+    }
+
+    // --- Copies handed out to callers (one level deep, sharing preserved within a list) ---
+
+    static List<Major> copyMajors(List<Major> majors) {
+        Map<Integer, Subject> subjects = new HashMap<>();
+        List<Major> copies = new ArrayList<>(majors.size());
+        for (Major major : majors) {
+            copies.add(copyMajor(major, subjects));
+        }
+        return copies;
+    }
+
+    static Optional<Major> copyMajor(Optional<Major> major) {
+        return major.map(m -> copyMajor(m, new HashMap<>()));
+    }
+
+    static List<Subject> copySubjects(List<Subject> subjects) {
+        Map<Integer, Major> majors = new HashMap<>();
+        List<Subject> copies = new ArrayList<>(subjects.size());
+        for (Subject subject : subjects) {
+            copies.add(copySubject(subject, majors));
+        }
+        return copies;
+    }
+
+    static Optional<Subject> copySubject(Optional<Subject> subject) {
+        return subject.map(s -> copySubject(s, new HashMap<>()));
+    }
+
+    private static Major copyMajor(Major major, Map<Integer, Subject> subjects) {
+        List<Subject> subjectCopies = new ArrayList<>();
+        for (Subject subject : major.getSubjects()) {
+            subjectCopies.add(subjects.computeIfAbsent(subject.getId(),
+                    id -> new Subject(id, subject.getName(), new ArrayList<>(subject.getMajors()))));
+        }
+        return new Major(major.getId(), major.getMajorName(), major.getDescription(), subjectCopies);
+    }
+
+    private static Subject copySubject(Subject subject, Map<Integer, Major> majors) {
+        List<Major> majorCopies = new ArrayList<>();
+        for (Major major : subject.getMajors()) {
+            majorCopies.add(majors.computeIfAbsent(major.getId(),
+                    id -> new Major(id, major.getMajorName(), major.getDescription(), new ArrayList<>(major.getSubjects()))));
+        }
+        return new Subject(subject.getId(), subject.getName(), majorCopies);
+    }
+}
@@ -0,0 +1,360 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
+import com.ensa.v2school.sm.utils.SqlScript;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations: the scripts {@code sql/migrations/V<version>__<description>.sql} listed in
+ * {@code sql/migrations/index} are applied in version order, each one once, and recorded in {@code schema_history}
+ * with the checksum of their text. A script changed after being applied, or a database migrated by a newer
+ * version of the application, stops the migration.
+ * <p>
+ * A script is a sequence of statements ending with {@code ;} at the end of a line; {@code --} lines are comments.
+ * Each script runs in its own transaction, but MySQL commits DDL implicitly: only data changes are rolled back
+ * when a script fails, its DDL has to be undone by hand.
+ * <p>
+ * A script starting with {@value #ONLINE} holds long index builds only. On MySQL its {@code ALTER TABLE}s run with
+ * {@code ALGORITHM=INPLACE, LOCK=NONE}, so that the table stays writable, and at startup {@link #start()} applies it
+ * in the background: the application works meanwhile, only slower. Online scripts therefore come last in a release;
+ * a plain script after a pending online one has to be applied with the {@code Migrate} tool first.
+ * <p>
+ * {@code sql/data.sql} creates the latest schema directly and records every version as applied.
+ */
+public class SchemaMigrations {
+
+    private static final Log LOG = Log.get(SchemaMigrations.class);
+
+    static final String ONLINE = "-- sm:online";
+
+    private static final String LOCATION = "/com/ensa/v2school/sm/sql/migrations/";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern ALTER_TABLE = Pattern.compile("(?is)^ALTER\\s+TABLE\\b.*");
+    private static final String LOCK_NAME = "school_management.schema_migrations";
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    private static final String HISTORY_SQL = """
+        CREATE TABLE IF NOT EXISTS schema_history (
+          version INT NOT NULL,
+          description VARCHAR(200) NOT NULL,
+          checksum BIGINT NOT NULL,
+          execution_ms BIGINT NOT NULL DEFAULT 0,
+          installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+          PRIMARY KEY (version)
+        )
+        """;
+
+    public record Migration(int version, String description, String script, long checksum, boolean online) {
+    }
+
+    private static List<Migration> bundled;
+    private static Thread background;
+
+    private final DataBaseConnection connection;
+
+    public SchemaMigrations() {
+        this.connection = DataBaseConnection.getInstance();
+    }
+
+    /**
+     * Brings the schema up to date before the application touches it. The usual case, nothing pending, costs one
+     * query on {@code schema_history}. Pending plain scripts are applied now; pending {@value #ONLINE} ones are
+     * applied on a daemon thread, unless {@code -Dsm.migrations.onlineInBackground=false}.
+     * <p>
+     * This runs on the JavaFX Application Thread, so it waits at most {@code sm.migrations.startupLockTimeoutSeconds}
+     * (5 by default) for another instance that is migrating, then fails rather than freezing the window.
+     *
+     * @throws IllegalStateException if a plain script follows a pending online one: it cannot run before the
+     *                               index build, nor wait for it at startup
+     */
+    public static synchronized void start() throws SQLException {
+        SchemaMigrations migrations = new SchemaMigrations();
+        List<Migration> pending = migrations.pending();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        boolean inBackground = Boolean.parseBoolean(System.getProperty("sm.migrations.onlineInBackground", "true"));
+        List<Migration> now = new ArrayList<>();
+        List<Migration> deferred = new ArrayList<>();
+        for (Migration migration : pending) {
+            if (inBackground && migration.online()) {
+                deferred.add(migration);
+            } else if (!deferred.isEmpty()) {
+                throw new IllegalStateException("Migration " + migration.version() + " (" + migration.description()
+                        + ") follows the pending online migration " + deferred.getFirst().version()
+                        + ": apply them with the Migrate tool before starting the application");
+            } else {
+                now.add(migration);
+            }
+        }
+        migrations.apply(now, Integer.getInteger("sm.migrations.startupLockTimeoutSeconds", 5));
+
+        if (!deferred.isEmpty() && background == null) {
+            background = new Thread(() -> {
+                try {
+                    migrations.apply(deferred, lockTimeoutSeconds());
+                } catch (SQLException e) {
+                    LOG.error("Error applying online migrations, retried at next startup", e);
+                }
+            }, "schema-migrations");
+            background.setDaemon(true);
+            background.start();
+        }
+    }
+
+    /** Migrations shipped with the application, in version order. */
+    public static synchronized List<Migration> bundled() {
+        if (bundled != null) {
+            return bundled;
+        }
+        List<Migration> migrations = new ArrayList<>();
+        for (String line : SqlScript.read(LOCATION + "index").split("\n")) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Matcher name = FILE_NAME.matcher(line);
+            if (!name.matches()) {
+                throw new IllegalStateException("Invalid migration name: " + line);
+            }
+            int version = Integer.parseInt(name.group(1));
+            if (!migrations.isEmpty() && version <= migrations.getLast().version()) {
+                throw new IllegalStateException("Migration " + line + " is out of order");
+            }
+            String text = SqlScript.read(LOCATION + line); // \n line endings, so CRLF checkouts keep the checksum
+            migrations.add(new Migration(version, name.group(2).replace('_', ' '), text,
+                    checksum(text), text.startsWith(ONLINE)));
+        }
+        bundled = List.copyOf(migrations);
+        return bundled;
+    }
+
+    /** Checksum of every version recorded in {@code schema_history}, creating the table on first use. */
+    public Map<Integer, Long> applied() throws SQLException {
+        try (Connection con = connection.getConnection()) {
+            return applied(con);
+        } catch (SQLException e) {
+            LOG.error("Error reading schema history", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Bundled migrations not applied yet.
+     *
+     * @throws IllegalStateException if an applied script was modified or is unknown to this version
+     */
+    public List<Migration> pending() throws SQLException {
+        return pending(bundled(), applied());
+    }
+
+    /**
+     * Applies every pending migration now, online ones included.
+     *
+     * @return the migrations applied
+     */
+    public List<Migration> migrate() throws SQLException {
+        return apply(pending(), lockTimeoutSeconds());
+    }
+
+    /**
+     * Applies {@code migrations} in order, stopping at the first failure. On MySQL the run holds a named lock,
+     * waited for up to {@code lockTimeoutSeconds}, so that two instances starting together do not both migrate;
+     * the history is read again once it is held.
+     */
+    private List<Migration> apply(List<Migration> migrations, int lockTimeoutSeconds) throws SQLException {
+        if (migrations.isEmpty()) {
+            return migrations;
+        }
+        List<Migration> done = new ArrayList<>();
+        Migration current = null;
+        Connection con = null;
+        boolean locked = false;
+
+        try {
+            con = connection.getConnection();
+            boolean mySql = "MySQL".equals(con.getMetaData().getDatabaseProductName());
+            if (mySql) {
+                lock(con, lockTimeoutSeconds);
+                locked = true;
+            }
+            List<Migration> pending = pending(migrations, applied(con));
+            for (Migration migration : pending) {
+                current = migration;
+                long start = System.nanoTime();
+                if (migration.online()) {
+                    applyOnline(con, migration, mySql);
+                    record(con, migration, start);
+                } else {
+                    applyInTransaction(con, migration, start);
+                }
+                LOG.info("Applied schema migration", "version", migration.version(),
+                        "description", migration.description(), "ms", (System.nanoTime() - start) / 1_000_000);
+                done.add(migration);
+            }
+            return done;
+
+        } catch (SQLException e) {
+            LOG.error("Error migrating schema", "version", current != null ? current.version() : null, e);
+            throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    if (locked) {
+                        unlock(con);
+                    }
+                    con.close();
+                } catch (SQLException ex) {
+                    LOG.error("Error closing connection", ex);
+                }
+            }
+        }
+    }
+
+    /** Runs a script and records it in one transaction (see the class comment for DDL). */
+    private void applyInTransaction(Connection con, Migration migration, long startNanos) throws SQLException {
+        try {
+            con.setAutoCommit(false); // Start transaction
+
+            try (Statement st = con.createStatement()) {
+                for (String statement : SqlScript.statements(migration.script())) {
+                    st.execute(statement);
+                }
+            }
+            record(con, migration, startNanos);
+
+            con.commit();
+
+        } catch (SQLException e) {
+            try {
+                con.rollback();
+            } catch (SQLException ex) {
+                LOG.error("Error during rollback", ex);
+            }
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Runs the index builds of an {@value #ONLINE} script one by one outside any transaction. An index already
+     * present (a previous run interrupted after building it) is skipped, so the script can simply be run again.
+     */
+    private void applyOnline(Connection con, Migration migration, boolean mySql) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            for (String statement : SqlScript.statements(migration.script())) {
+                if (mySql && ALTER_TABLE.matcher(statement).matches()) {
+                    statement += ", ALGORITHM=INPLACE, LOCK=NONE";
+                }
+                try {
+                    st.execute(statement);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != ER_DUP_KEYNAME) {
+                        throw e;
+                    }
+                    LOG.info("Index already present, skipped", "error", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void record(Connection con, Migration migration, long startNanos) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO schema_history (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+            ps.setInt(1, migration.version());
+            ps.setString(2, migration.description());
+            ps.setLong(3, migration.checksum());
+            ps.setLong(4, (System.nanoTime() - startNanos) / 1_000_000);
+            ps.executeUpdate();
+        }
+    }
+
+    private static Map<Integer, Long> applied(Connection con) throws SQLException {
+        Map<Integer, Long> versions = new HashMap<>();
+        try (Statement st = con.createStatement()) {
+            ResultSet rs;
+            try {
+                rs = st.executeQuery("SELECT version, checksum FROM schema_history");
+            } catch (SQLException e) {
+                if (!"42S02".equals(e.getSQLState())) { // table not found
+                    throw e;
+                }
+                st.execute(HISTORY_SQL);
+                return versions;
+            }
+            try (rs) {
+                while (rs.next()) {
+                    versions.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+        }
+        return versions;
+    }
+
+    static List<Migration> pending(List<Migration> migrations, Map<Integer, Long> applied) {
+        Map<Integer, Migration> known = new HashMap<>();
+        for (Migration migration : bundled()) {
+            known.put(migration.version(), migration);
+        }
+        for (Map.Entry<Integer, Long> entry : applied.entrySet()) {
+            Migration migration = known.get(entry.getKey());
+            if (migration == null) {
+                throw new IllegalStateException("Schema version " + entry.getKey()
+                        + " is unknown to this version of the application");
+            }
+            if (migration.checksum() != entry.getValue()) {
+                throw new IllegalStateException("Migration " + entry.getKey() + " (" + migration.description()
+                        + ") was modified after being applied");
+            }
+        }
+        return migrations.stream()
+                .filter(m -> !applied.containsKey(m.version()))
+                .toList();
+    }
+
+    /** Off the FX thread (background migrations, the Migrate tool) an index build of another instance is waited for. */
+    private static int lockTimeoutSeconds() {
+        return Integer.getInteger("sm.migrations.lockTimeoutSeconds", 300);
+    }
+
+    private static void lock(Connection con, int timeout) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, timeout);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out after " + timeout + " s waiting for another instance to migrate");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+
+    static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,11 @@
+package com.ensa.v2school.sm.DAO;
+
+import java.sql.SQLException;
+
+/**
+ * A unit of blocking JDBC work, e.g. {@code () -> studentRepository.findByMajor(id)}.
+ */
+@FunctionalInterface
+public interface SqlCall<R> {
+    R call() throws SQLException;
+}
@@ -0,0 +1,127 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Statistics;
+import com.ensa.v2school.sm.Models.Statistics.MajorStatistics;
+import com.ensa.v2school.sm.Models.Statistics.Summary;
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dashboard statistics in one query over the {@code major_stats} aggregates (see {@link MajorStats}): one row per
+ * (major, 1-point bin of the average) holding the count, sum and sum of squares, from which every figure of the
+ * {@link Statistics} snapshot (counts, mean, standard deviation, percentiles, histograms) is derived.
+ * Min/max cannot be maintained under deletes, they come from the {@code (major_id, average)} index instead.
+ * The cost is O(majors), whatever the number of students.
+ */
+public class StatisticsRepository {
+
+    private static final Log LOG = Log.get(StatisticsRepository.class);
+
+    static final String SNAPSHOT_SQL = """
+        SELECT m.id AS major_id,
+               m.name AS major_name,
+               ms.bin,
+               COALESCE(ms.student_count, 0) AS students,
+               COALESCE(ms.graded_count, 0) AS graded,
+               ms.total,
+               ms.total_sq,
+               (SELECT MIN(s.average) FROM students s WHERE s.major_id = m.id) AS min_average,
+               (SELECT MAX(s.average) FROM students s WHERE s.major_id = m.id) AS max_average
+        FROM majors m
+        LEFT JOIN major_stats ms ON ms.major_id = m.id
+        ORDER BY m.name, m.id
+        """;
+
+    private final DataBaseConnection connection;
+
+    public StatisticsRepository() {
+        this.connection = DataBaseConnection.getInstance();
+    }
+
+    public Statistics getSnapshot() throws SQLException {
+        int studentsCount = 0;
+        Accumulator overall = new Accumulator();
+        List<MajorStatistics> byMajor = new ArrayList<>();
+
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(SNAPSHOT_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            int currentId = -1;
+            String currentName = null;
+            Accumulator major = null;
+
+            while (rs.next()) {
+                int majorId = rs.getInt("major_id");
+                if (major == null || majorId != currentId) {
+                    if (major != null) {
+                        byMajor.add(new MajorStatistics(currentId, currentName, major.toSummary()));
+                    }
+                    currentId = majorId;
+                    currentName = rs.getString("major_name");
+                    major = new Accumulator();
+                }
+
+                studentsCount += rs.getInt("students");
+                long graded = rs.getLong("graded");
+                int bin = rs.getInt("bin");
+                if (graded > 0 && bin != MajorStats.NO_AVERAGE) {
+                    double total = rs.getDouble("total");
+                    double totalSq = rs.getDouble("total_sq");
+                    float min = rs.getFloat("min_average");
+                    float max = rs.getFloat("max_average");
+                    major.add(bin, graded, total, totalSq, min, max);
+                    overall.add(bin, graded, total, totalSq, min, max);
+                }
+            }
+            if (major != null) {
+                byMajor.add(new MajorStatistics(currentId, currentName, major.toSummary()));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error computing statistics", e);
+            throw e;
+        }
+
+        return new Statistics(studentsCount, byMajor.size(), overall.toSummary(), byMajor, Instant.now());
+    }
+
+    /** Running totals of a set of (bin, count, sum, sum of squares, min, max) groups. */
+    static final class Accumulator {
+        private final long[] histogram = new long[Statistics.BINS];
+        private long count;
+        private double total;
+        private double totalSq;
+        private float min = Float.MAX_VALUE;
+        private float max = -Float.MAX_VALUE;
+
+        void add(int bin, long count, double total, double totalSq, float min, float max) {
+            histogram[Math.max(0, Math.min(bin, Statistics.BINS - 1))] += count;
+            this.count += count;
+            this.total += total;
+            this.totalSq += totalSq;
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+        }
+
+        Summary toSummary() {
+            if (count == 0) {
+                return Summary.EMPTY;
+            }
+            double mean = total / count;
+            // population variance; clamped because of floating point cancellation
+            double variance = Math.max(0, totalSq / count - mean * mean);
+            return new Summary(count, mean, Math.sqrt(variance), min, max,
+                    Arrays.stream(histogram).boxed().toList());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ensa.v2school.sm.DAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Makes a forward-only, read-only statement stream its result instead of loading it whole into the heap.
+ */
+final class Streaming {
+
+    private Streaming() {
+    }
+
+    /**
+     * Connector/J only streams with a fetch size of {@link Integer#MIN_VALUE} (one row at a time; the connection
+     * cannot run anything else until the result set is closed). Other drivers get {@code fetchSize}.
+     */
+    static void enable(Connection con, Statement statement, int fetchSize) throws SQLException {
+        statement.setFetchSize("MySQL".equals(con.getMetaData().getDatabaseProductName())
+                ? Integer.MIN_VALUE
+                : fetchSize);
+    }
+}
@@ -0,0 +1,303 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Major;
+import com.ensa.v2school.sm.Models.Student;
+import com.ensa.v2school.sm.utils.CsvReader;
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming import of students from a CSV file with the header {@code id,first_name,last_name,average,major_id}
+ * (any column order, extra columns ignored).
+ * <p>
+ * The file is read {@value #CHUNK_SIZE} rows at a time; each chunk is validated in parallel against the cached
+ * major ids, then inserted as one batch in its own transaction (with its {@code major_stats} deltas). If the batch
+ * fails, its rows are retried one by one so only the bad rows are rejected. Rejected rows go to a CSV error
+ * report as they are found; memory use does not depend on the file size.
+ */
+public class StudentImporter {
+
+    private static final Log LOG = Log.get(StudentImporter.class);
+
+    private static final int CHUNK_SIZE = 1_000;
+    private static final List<String> COLUMNS = List.of("id", "first_name", "last_name", "average", "major_id");
+
+    private final DataBaseConnection connection;
+    private final StudentRepository studentRepository;
+    private final MajorRepository majorRepository;
+
+    public StudentImporter() {
+        this.connection = DataBaseConnection.getInstance();
+        this.studentRepository = new StudentRepository();
+        this.majorRepository = new MajorRepository();
+    }
+
+    public record Result(long rows, long imported, long rejected, Path report, long elapsedMillis) {}
+
+    private record Row(long line, List<String> fields) {}
+
+    /** A parsed row: exactly one of {@code student} and {@code error} is set. */
+    private record Checked(long line, String id, Student student, String error) {}
+
+    /**
+     * Imports {@code csv}, writing rejected rows ({@code line,id,error}) to {@code report}.
+     */
+    public Result importFile(Path csv, Path report) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Set<Integer> majorIds = new HashSet<>();
+        for (Major major : majorRepository.getAll()) {
+            majorIds.add(major.getId());
+        }
+
+        long rows = 0, imported = 0, rejected = 0;
+        try (CsvReader reader = CsvReader.open(csv);
+             BufferedWriter errors = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+
+            errors.write("line,id,error\n");
+            int[] positions = header(reader.next());
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> fields;
+            do {
+                fields = reader.next();
+                if (fields != null && !(fields.size() == 1 && fields.get(0).isBlank())) {
+                    chunk.add(new Row(reader.getRecordLine(), fields));
+                }
+                if (chunk.size() == CHUNK_SIZE || (fields == null && !chunk.isEmpty())) {
+                    List<Checked> checked = chunk.parallelStream()
+                            .map(row -> check(row, positions, majorIds))
+                            .collect(Collectors.toCollection(ArrayList::new));
+                    rows += chunk.size();
+                    chunk.clear();
+
+                    List<Checked> valid = rejectDuplicates(checked);
+                    Map<Long, String> failures = insert(valid);
+                    imported += valid.size() - failures.size();
+
+                    for (Checked row : checked) {
+                        String error = row.error() != null ? row.error() : failures.get(row.line());
+                        if (error != null) {
+                            rejected++;
+                            errors.write(row.line() + "," + csvField(row.id()) + "," + csvField(error) + "\n");
+                        }
+                    }
+                }
+            } while (fields != null);
+        }
+
+        return new Result(rows, imported, rejected, report, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static int[] header(List<String> header) throws IOException {
+        if (header == null) {
+            throw new IOException("Empty file");
+        }
+        int[] positions = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            positions[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().toLowerCase(Locale.ROOT).equals(COLUMNS.get(i))) {
+                    positions[i] = j;
+                }
+            }
+            if (positions[i] < 0) {
+                throw new IOException("Missing column: " + COLUMNS.get(i));
+            }
+        }
+        return positions;
+    }
+
+    /** Validates one row; runs on the common fork-join pool, so it only reads shared state. */
+    private static Checked check(Row row, int[] positions, Set<Integer> majorIds) {
+        String id = field(row, positions[0]);
+        try {
+            if (id.isEmpty() || id.length() > 20) {
+                throw new IllegalArgumentException("id must have 1 to 20 characters");
+            }
+            String firstName = field(row, positions[1]);
+            String lastName = field(row, positions[2]);
+            if (firstName.isEmpty() || firstName.length() > 50 || lastName.isEmpty() || lastName.length() > 50) {
+                throw new IllegalArgumentException("first and last name must have 1 to 50 characters");
+            }
+            float average = Float.parseFloat(field(row, positions[3]).replace(',', '.'));
+            if (!(average >= 0 && average <= 20)) {
+                throw new IllegalArgumentException("average must be between 0 and 20");
+            }
+            int majorId = Integer.parseInt(field(row, positions[4]));
+            if (!majorIds.contains(majorId)) {
+                throw new IllegalArgumentException("unknown major " + majorId);
+            }
+            Major major = new Major(majorId, null, null, new ArrayList<>());
+            return new Checked(row.line(), id, new Student(id, firstName, lastName, null, average, major), null);
+
+        } catch (NumberFormatException e) {
+            return new Checked(row.line(), id, null, "not a number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new Checked(row.line(), id, null, e.getMessage());
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String field(Row row, int position) {
+        return position < row.fields().size() ? row.fields().get(position).trim() : "";
+    }
+
+    /**
+     * Rejects ids repeated inside the chunk or already in the database (ids repeated across chunks are caught
+     * by the primary key on insert).
+     */
+    private List<Checked> rejectDuplicates(List<Checked> checked) throws SQLException {
+        Set<String> seen = new HashSet<>();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < checked.size(); i++) {
+            Checked row = checked.get(i);
+            if (row.student() == null) {
+                continue;
+            }
+            if (!seen.add(row.id())) {
+                checked.set(i, new Checked(row.line(), row.id(), null, "duplicate id in file"));
+            } else {
+                ids.add(row.id());
+            }
+        }
+
+        Set<String> existing = existingIds(ids);
+        List<Checked> valid = new ArrayList<>();
+        for (int i = 0; i < checked.size(); i++) {
+            Checked row = checked.get(i);
+            if (row.student() == null) {
+                continue;
+            }
+            if (existing.contains(row.id())) {
+                checked.set(i, new Checked(row.line(), row.id(), null, "student already exists"));
+            } else {
+                valid.add(row);
+            }
+        }
+        return valid;
+    }
+
+    private Set<String> existingIds(List<String> ids) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT id FROM students WHERE id IN (" + InList.placeholders(ids.size()) + ")")) {
+            InList.setStrings(ps, 1, ids);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString("id"));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error checking existing students", e);
+            throw e;
+        }
+        return existing;
+    }
+
+    /**
+     * Inserts the chunk in one transaction; if that fails, row by row through {@link StudentRepository#create}.
+     *
+     * @return the error of each row that could not be inserted, by line
+     */
+    private Map<Long, String> insert(List<Checked> valid) throws SQLException {
+        Map<Long, String> failures = new HashMap<>();
+        if (valid.isEmpty()) {
+            return failures;
+        }
+        try {
+            insertBatch(valid);
+        } catch (SQLException batchFailure) {
+            if (batchFailure.getSQLState() != null && batchFailure.getSQLState().startsWith("08")) {
+                throw batchFailure; // connection lost: retrying row by row would fail the same way
+            }
+            for (Checked row : valid) {
+                try {
+                    studentRepository.create(row.student());
+                } catch (SQLException e) {
+                    failures.put(row.line(), e.getMessage());
+                }
+            }
+        }
+        return failures;
+    }
+
+    private void insertBatch(List<Checked> valid) throws SQLException {
+        String sql = "INSERT INTO students (id, first_name, last_name, user_id, average, major_id) VALUES (?, ?, ?, ?, ?, ?)";
+        Connection con = null;
+
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
+
+            MajorStats.Delta delta = new MajorStats.Delta();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (Checked row : valid) {
+                    Student student = row.student();
+                    ps.setString(1, student.getId());
+                    ps.setString(2, student.getFirstName());
+                    ps.setString(3, student.getLastName());
+                    ps.setNull(4, Types.INTEGER);
+                    ps.setFloat(5, student.getAverage());
+                    ps.setInt(6, student.getMajor().getId());
+                    ps.addBatch();
+                    delta.add(student.getMajor().getId(), student.getAverage(), 1);
+                }
+                ps.executeBatch();
+            }
+            delta.flush(con);
+            con.commit();
+
+        } catch (SQLException e) {
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error importing students", e);
+            throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
+        }
+    }
+}
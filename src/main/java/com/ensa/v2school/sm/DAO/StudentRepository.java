@@ -1,16 +1,66 @@
 package com.ensa.v2school.sm.DAO;
 
-import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Student;
-import com.ensa.v2school.sm.Models.DossierAdministratif;
 import com.ensa.v2school.sm.Models.Subject;
 import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
 
 import java.sql.*;
 import java.util.*;
 
 public class StudentRepository implements CRUD<Student, String> {
 
+    private static final Log LOG = Log.get(StudentRepository.class);
+
+    private static final String STUDENT_COLUMNS = """
+        SELECT
+            s.id,
+            s.first_name,
+            s.last_name,
+            s.average,
+            m.id AS major_id,
+            m.name AS major_name,
+            m.description AS major_description,
+            d.id AS dossier_id,
+            d.numero_inscription,
+            d.date_creation
+        FROM students s
+        """;
+
+    /** Students with their major and dossier, in the columns {@link IdentityMap#student} reads. */
+    static final String STUDENT_SELECT = STUDENT_COLUMNS + """
+        JOIN majors m ON s.major_id = m.id
+        LEFT JOIN dossier_administratif d ON s.id = d.eleve_id
+        """;
+
+    /** {@link #STUDENT_SELECT} keeping the students without a major, for the paged table that lists them all. */
+    static final String STUDENT_PAGE_SELECT = STUDENT_COLUMNS + """
+        LEFT JOIN majors m ON s.major_id = m.id
+        LEFT JOIN dossier_administratif d ON s.id = d.eleve_id
+        """;
+
+    static final String GET_SQL = STUDENT_SELECT + "WHERE s.id = ?";
+    static final String GET_ALL_SQL = STUDENT_SELECT + "ORDER BY s.id ASC";
+    static final String FIRST_PAGE_SQL = STUDENT_PAGE_SELECT + "ORDER BY s.id ASC LIMIT ?";
+    static final String PAGE_SQL = STUDENT_PAGE_SELECT + "WHERE s.id > ? ORDER BY s.id ASC LIMIT ?";
+    static final String FIRST_ID_SQL = "SELECT id FROM students ORDER BY id ASC LIMIT 1 OFFSET ?";
+    static final String ID_AFTER_SQL = "SELECT id FROM students WHERE id > ? ORDER BY id ASC LIMIT 1 OFFSET ?";
+    static final String SEARCH_BY_NAME_SQL = STUDENT_SELECT
+            + "WHERE s.last_name LIKE ? ORDER BY s.last_name, s.first_name LIMIT ?";
+    static final String FIRST_RANKING_PAGE_SQL = STUDENT_SELECT
+            + "WHERE s.average IS NOT NULL ORDER BY s.average DESC, s.id DESC LIMIT ?";
+    static final String RANKING_PAGE_SQL = STUDENT_SELECT
+            + "WHERE s.average < ? OR (s.average = ? AND s.id < ?) ORDER BY s.average DESC, s.id DESC LIMIT ?";
+    static final String FIND_BY_MAJOR_SQL = STUDENT_SELECT + "WHERE s.major_id = ?";
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM students";
+    static final String ENROLLED_SUBJECTS_SQL = """
+        SELECT s.id, s.name
+        FROM subjects s
+        JOIN student_subject ss ON s.id = ss.subject_id
+        WHERE ss.student_id = ?
+        ORDER BY s.name
+        """;
+
     private DataBaseConnection connection;
 
     public StudentRepository() {
@@ -20,154 +70,180 @@ public class StudentRepository implements CRUD<Student, String> {
     @Override
     public Student create(Student student) throws SQLException {
         String sql = "INSERT INTO students (id, first_name, last_name, user_id, average, major_id) VALUES (?, ?, ?, ?, ?, ?)";
+        Connection con = null;
 
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
 
-            ps.setString(1, student.getId());
-            ps.setString(2, student.getFirstName());
-            ps.setString(3, student.getLastName());
-            if (student.getUser() != null) {
-                ps.setInt(4, student.getUser().getId());
-            } else {
-                ps.setNull(4, Types.INTEGER);
-            }
-            ps.setFloat(5, student.getAverage());
-            // Ensure major is not null and has an ID
-            if (student.getMajor() != null) {
-                ps.setInt(6, student.getMajor().getId());
-            } else {
-                ps.setNull(6, Types.INTEGER);
-            }
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, student.getId());
+                ps.setString(2, student.getFirstName());
+                ps.setString(3, student.getLastName());
+                if (student.getUser() != null) {
+                    ps.setInt(4, student.getUser().getId());
+                } else {
+                    ps.setNull(4, Types.INTEGER);
+                }
+                ps.setFloat(5, student.getAverage());
+                // Ensure major is not null and has an ID
+                if (student.getMajor() != null) {
+                    ps.setInt(6, student.getMajor().getId());
+                } else {
+                    ps.setNull(6, Types.INTEGER);
+                }
 
-            int rowsAffected = ps.executeUpdate();
+                int rowsAffected = ps.executeUpdate();
 
-            if (rowsAffected == 0) {
-                throw new SQLException("Student not created");
+                if (rowsAffected == 0) {
+                    throw new SQLException("Student not created");
+                }
             }
+            MajorStats.apply(con, student.getMajor().getId(), student.getAverage(), 1);
+            con.commit();
             return student;
 
         } catch (SQLException e) {
-            System.err.println("Error creating student: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error creating student", e);
             throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
         } // normalement ca sert a rien had le catch, 7it en tt cas l erreur ghadi t throwa no matter what, unless we wanna change its type for example
     }
 
     @Override
     public Student update(Student student) throws SQLException {
         String sql = "UPDATE students SET first_name = ?, last_name = ?, user_id = ?, average = ?, major_id = ? WHERE id = ?";
+        Connection con = null;
 
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
 
-            ps.setString(1, student.getFirstName());
-            ps.setString(2, student.getLastName());
-            if (student.getUser() != null) {
-                ps.setInt(3, student.getUser().getId());
-            } else {
-                ps.setNull(3, Types.INTEGER);
-            }
-            ps.setFloat(4, student.getAverage());
-            // Ensure major is not null and has an ID
-            if (student.getMajor() != null) {
-                ps.setInt(5, student.getMajor().getId());
-            } else {
-                ps.setNull(5, Types.INTEGER);
-            }
-            ps.setString(6, student.getId());
+            // Locks the row, so concurrent updates of the same student apply their deltas one after the other
+            MajorStats.removeCurrent(con, student.getId());
+
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, student.getFirstName());
+                ps.setString(2, student.getLastName());
+                if (student.getUser() != null) {
+                    ps.setInt(3, student.getUser().getId());
+                } else {
+                    ps.setNull(3, Types.INTEGER);
+                }
+                ps.setFloat(4, student.getAverage());
+                // Ensure major is not null and has an ID
+                if (student.getMajor() != null) {
+                    ps.setInt(5, student.getMajor().getId());
+                } else {
+                    ps.setNull(5, Types.INTEGER);
+                }
+                ps.setString(6, student.getId());
 
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("Student not updated");
+                int rowsAffected = ps.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new SQLException("Student not updated");
+                }
             }
+            MajorStats.apply(con, student.getMajor().getId(), student.getAverage(), 1);
+            con.commit();
             return student;
 
         } catch (SQLException e) {
-            System.err.println("Error updating student: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error updating student", e);
             throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
         }
     }
 
     @Override
     public Student delete(Student student) throws SQLException {
         String sql = "DELETE FROM students WHERE id = ?";
+        Connection con = null;
 
-        try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+        try {
+            con = connection.getConnection();
+            con.setAutoCommit(false); // Start transaction
 
-            ps.setString(1, student.getId());
-            int rowsAffected = ps.executeUpdate();
+            MajorStats.removeCurrent(con, student.getId());
 
-            if (rowsAffected == 0) {
-                throw new SQLException("Student not deleted");
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, student.getId());
+                int rowsAffected = ps.executeUpdate();
+
+                if (rowsAffected == 0) {
+                    throw new SQLException("Student not deleted");
+                }
             }
+            con.commit();
             return student;
 
         } catch (SQLException e) {
-            System.err.println("Error deleting student: " + e.getMessage());
+            if (con != null) {
+                try {
+                    con.rollback(); // Rollback on error
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Error during rollback", rollbackEx);
+                }
+            }
+            LOG.error("Error deleting student", e);
             throw e;
+        } finally {
+            if (con != null) {
+                try {
+                    con.setAutoCommit(true);
+                    con.close();
+                } catch (SQLException closeEx) {
+                    LOG.error("Error closing connection", closeEx);
+                }
+            }
         }
     } // this should be delete by id normalement :D
 
     @Override
     public Optional<Student> get(String id) throws SQLException {
-        String sql = """
-        SELECT 
-            s.id,
-            s.first_name,
-            s.last_name,
-            s.average,
-            m.id AS major_id,
-            m.name AS major_name,
-            m.description AS major_description,
-            d.id AS dossier_id,
-            d.numero_inscription,
-            d.date_creation
-        FROM students s
-        JOIN majors m ON s.major_id = m.id
-        LEFT JOIN dossier_administratif d ON s.id = d.eleve_id
-        WHERE s.id = ?
-    """;
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(GET_SQL)) {
 
             ps.setString(1, id);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                // *** ADJUSTED Major constructor: Added new ArrayList<>() for subjects ***
-                Major major = new Major(
-                        rs.getInt("major_id"),
-                        rs.getString("major_name"),
-                        rs.getString("major_description"),
-                        new ArrayList<>()
-                );
-
-                DossierAdministratif dossier = null;
-                if (rs.getObject("dossier_id") != null) {
-                    dossier = new DossierAdministratif(
-                            rs.getInt("dossier_id"),
-                            rs.getString("numero_inscription"),
-                            rs.getDate("date_creation").toLocalDate(),
-                            rs.getString("id")
-                    );
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Student student = new IdentityMap().student(rs, "id");
+                    return Optional.of(student);
                 }
-
-                Student student = new Student(
-                        rs.getString("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        null,
-                        rs.getFloat("average"),
-                        major,
-                        dossier
-                );
-                return Optional.of(student);
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting student: " + e.getMessage());
+            LOG.error("Error getting student", e);
             throw e;
         }
 
@@ -175,62 +251,20 @@ public class StudentRepository implements CRUD<Student, String> {
     }
 
     public List<Student> getAll() throws SQLException {
-        String sql = """
-        SELECT 
-            s.id,
-            s.first_name,
-            s.last_name,
-            s.average,
-            m.id AS major_id,
-            m.name AS major_name,
-            m.description AS major_description,
-            d.id AS dossier_id,
-            d.numero_inscription,
-            d.date_creation
-        FROM students s
-        JOIN majors m ON s.major_id = m.id
-        LEFT JOIN dossier_administratif d ON s.id = d.eleve_id
-        ORDER BY s.id ASC
-        """;
-
         List<Student> students = new ArrayList<>();
+        IdentityMap identities = new IdentityMap(); // one Major per major, not per student
 
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(GET_ALL_SQL)) {
 
             while (rs.next()) {
-                Major major = new Major(
-                        rs.getInt("major_id"),
-                        rs.getString("major_name"),
-                        rs.getString("major_description"),
-                        new ArrayList<>()
-                );
-
-                DossierAdministratif dossier = null;
-                if (rs.getObject("dossier_id") != null) {
-                    dossier = new DossierAdministratif(
-                            rs.getInt("dossier_id"),
-                            rs.getString("numero_inscription"),
-                            rs.getDate("date_creation").toLocalDate(),
-                            rs.getString("id")
-                    );
-                }
-
-                Student std = new Student(
-                        rs.getString("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        null,
-                        rs.getFloat("average"),
-                        major,
-                        dossier
-                );
+                Student std = identities.student(rs, "id");
                 students.add(std);
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting all students: " + e.getMessage());
+            LOG.error("Error getting all students", e);
             throw e;
         }
 
@@ -239,89 +273,168 @@ public class StudentRepository implements CRUD<Student, String> {
 
     // CUSTOM METHODS
 
-    public List<Student> findByMajor(int majorId) throws SQLException {
-        String sql = """
-        SELECT 
-            s.id,
-            s.first_name,
-            s.last_name,
-            s.average,
-            m.id AS major_id,
-            m.name AS major_name,
-            m.description AS major_description,
-            d.id AS dossier_id,
-            d.numero_inscription,
-            d.date_creation
-        FROM students s
-        JOIN majors m ON s.major_id = m.id
-        LEFT JOIN dossier_administratif d ON s.id = d.eleve_id
-        WHERE s.major_id = ?
-    """;
+    /**
+     * Keyset pagination over {@code students.id}: returns at most {@code limit} students whose id comes
+     * strictly after {@code afterId} (or from the start when it is null). Cost does not grow with the page number.
+     */
+    public List<Student> findPage(String afterId, int limit) throws SQLException {
+        String sql = afterId != null ? PAGE_SQL : FIRST_PAGE_SQL;
 
-        List<Student> students = new ArrayList<>();
+        List<Student> students = new ArrayList<>(limit);
+        IdentityMap identities = new IdentityMap();
 
         try (Connection con = connection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
-            ps.setInt(1, majorId);
-            ResultSet rs = ps.executeQuery();
+            int index = 1;
+            if (afterId != null) {
+                ps.setString(index++, afterId);
+            }
+            ps.setInt(index, limit);
 
-            while (rs.next()) {
-                // *** ADJUSTED Major constructor: Added new ArrayList<>() for subjects ***
-                Major major = new Major(
-                        rs.getInt("major_id"),
-                        rs.getString("major_name"),
-                        rs.getString("major_description"),
-                        new ArrayList<>()
-                );
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    students.add(identities.student(rs, "id"));
+                }
+            }
+            return students;
+
+        } catch (SQLException e) {
+            LOG.error("Error getting students page", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the id found {@code skip} rows after {@code afterId} in id order (or from the start when it is null),
+     * walking only the primary key index. Used to find the keyset anchor of a page the user jumped to.
+     */
+    public Optional<String> findIdAfter(String afterId, int skip) throws SQLException {
+        String sql = afterId != null ? ID_AFTER_SQL : FIRST_ID_SQL;
+
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            int index = 1;
+            if (afterId != null) {
+                ps.setString(index++, afterId);
+            }
+            ps.setInt(index, skip);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(rs.getString(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            LOG.error("Error locating student page", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Students whose last name starts with {@code prefix}, in (last name, first name) order, at most {@code limit}.
+     * A prefix match so that the {@code students.name} index is used; {@code %} and {@code _} are matched literally.
+     */
+    public List<Student> searchByName(String prefix, int limit) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        IdentityMap identities = new IdentityMap();
 
-                DossierAdministratif dossier = null;
-                if (rs.getObject("dossier_id") != null) {
-                    dossier = new DossierAdministratif(
-                            rs.getInt("dossier_id"),
-                            rs.getString("numero_inscription"),
-                            rs.getDate("date_creation").toLocalDate(),
-                            rs.getString("id")
-                    );
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(SEARCH_BY_NAME_SQL)) {
+
+            ps.setString(1, prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            ps.setInt(2, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    students.add(identities.student(rs, "id"));
                 }
+            }
+            return students;
 
-                Student student = new Student(
-                        rs.getString("id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        null,
-                        rs.getFloat("average"),
-                        major,
-                        dossier
-                );
+        } catch (SQLException e) {
+            LOG.error("Error searching students", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Keyset pagination over the ranking (best average first, ties by id): returns at most {@code limit} students
+     * ranked after ({@code afterAverage}, {@code afterId}), or from the top when both are null.
+     * Students without an average are not ranked.
+     */
+    public List<Student> findPageByAverage(Float afterAverage, String afterId, int limit) throws SQLException {
+        String sql = afterAverage != null ? RANKING_PAGE_SQL : FIRST_RANKING_PAGE_SQL;
 
-                students.add(student);
+        List<Student> students = new ArrayList<>(limit);
+        IdentityMap identities = new IdentityMap();
+
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            int index = 1;
+            if (afterAverage != null) {
+                ps.setFloat(index++, afterAverage);
+                ps.setFloat(index++, afterAverage);
+                ps.setString(index++, afterId);
             }
+            ps.setInt(index, limit);
 
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    students.add(identities.student(rs, "id"));
+                }
+            }
             return students;
 
         } catch (SQLException e) {
-            System.err.println("Error finding students by major: " + e.getMessage());
+            LOG.error("Error getting students ranking page", e);
+            throw e;
+        }
+    }
+
+
+    public List<Student> findByMajor(int majorId) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        IdentityMap identities = new IdentityMap(); // one Major per major, not per student
+
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement(FIND_BY_MAJOR_SQL)) {
+
+            ps.setInt(1, majorId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Student student = identities.student(rs, "id");
+
+                    students.add(student);
+                }
+
+                return students;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error finding students by major", e);
             throw e;
         }
     }
 
     public int getCount() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM students";
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(COUNT_SQL)) {
             if (rs.next()) {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting count: " + e.getMessage());
+            LOG.error("Error getting count", e);
         }
         return 0;
     }
 
+    /**
+     * Mean of every student's average, read from the {@code major_stats} aggregates.
+     */
     public Float getAverage() throws SQLException {
-        String sql = "SELECT AVG(average) FROM students";
+        String sql = "SELECT SUM(total) / NULLIF(SUM(graded_count), 0) FROM major_stats";
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
@@ -329,18 +442,22 @@ public class StudentRepository implements CRUD<Student, String> {
                 return rs.getFloat(1);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting average: " + e.getMessage());
+            LOG.error("Error getting average", e);
         }
 
         return 0f;
     }
 
+    /**
+     * Mean average of each major that has graded students, read from the {@code major_stats} aggregates.
+     */
     public Map<String, Float> getAverageByMajor() throws SQLException {
         String sql = """
-        SELECT m.name, AVG(s.average) AS avg_grade
-        FROM students s
-        JOIN majors m ON s.major_id = m.id
-        GROUP BY m.name
+        SELECT m.name, SUM(ms.total) / SUM(ms.graded_count) AS avg_grade
+        FROM major_stats ms
+        JOIN majors m ON ms.major_id = m.id
+        GROUP BY m.id, m.name
+        HAVING SUM(ms.graded_count) > 0
         """;
 
         Map<String, Float> result = new HashMap<>();
@@ -357,7 +474,7 @@ public class StudentRepository implements CRUD<Student, String> {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting average by major: " + e.getMessage());
+            LOG.error("Error getting average by major", e);
             throw e;
         }
 
@@ -386,25 +503,17 @@ public class StudentRepository implements CRUD<Student, String> {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error enrolling student in subjects: " + e.getMessage());
+            LOG.error("Error enrolling student in subjects", e);
             throw e;
         }
     }
 
 
     public List<Subject> getEnrolledSubjects(String studentId) throws SQLException {
-        String sql = """
-        SELECT s.id, s.name
-        FROM subjects s
-        JOIN student_subject ss ON s.id = ss.subject_id
-        WHERE ss.student_id = ?
-        ORDER BY s.name
-    """;
-
         List<Subject> subjects = new ArrayList<>();
 
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(ENROLLED_SUBJECTS_SQL)) {
 
             ps.setString(1, studentId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -444,10 +553,10 @@ public class StudentRepository implements CRUD<Student, String> {
                 try {
                     con.rollback();
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error unenrolling student from subjects: " + e.getMessage());
+            LOG.error("Error unenrolling student from subjects", e);
             throw e;
         } finally {
             if (con != null) {
@@ -455,10 +564,9 @@ public class StudentRepository implements CRUD<Student, String> {
                     con.setAutoCommit(true);
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
     }
-
 }
\ No newline at end of file
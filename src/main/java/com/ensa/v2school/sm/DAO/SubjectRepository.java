@@ -3,14 +3,32 @@ package com.ensa.v2school.sm.DAO;
 import com.ensa.v2school.sm.Models.Major;
 import com.ensa.v2school.sm.Models.Subject;
 import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class SubjectRepository implements CRUD<Subject, Integer> {
 
+    private static final Log LOG = Log.get(SubjectRepository.class);
+
+    /** Maximum number of ids bound in one {@code IN (...)} list. */
+    private static final int IN_CHUNK_SIZE = 512; // a power of two: full chunks need no InList padding
+
+    static final String GET_SQL = "SELECT id, name FROM subjects WHERE id = ?";
+    static final String GET_ALL_SQL = "SELECT id, name FROM subjects ORDER BY id ASC";
+    static final String BY_MAJOR_SQL = """
+        SELECT s.id, s.name
+        FROM subjects s
+        JOIN major_subject ms ON s.id = ms.subject_id
+        WHERE ms.major_id = ?
+        ORDER BY s.id ASC
+        """;
+
     private final DataBaseConnection connection;
 
     public SubjectRepository() {
@@ -18,32 +36,39 @@ public class SubjectRepository implements CRUD<Subject, Integer> {
     }
 
     /**
-     * Helper method to retrieve the list of Majors associated with a given Subject ID.
+     * Loads the majors of every subject in the map with one query per {@value #IN_CHUNK_SIZE} subjects
+     * (instead of one per subject). Majors go through {@code identities}, so each major is materialised
+     * once however many subjects it is linked to.
      */
-    private List<Major> getMajorsForSubject(Connection con, int subjectId) throws SQLException {
-        String sql = """
-            SELECT m.id, m.name, m.description
-            FROM majors m
-            JOIN major_subject ms ON m.id = ms.major_id
-            WHERE ms.subject_id = ?
-        """;
+    void loadMajors(Connection con, Map<Integer, Subject> subjects, IdentityMap identities) throws SQLException {
+        for (Subject subject : subjects.values()) {
+            subject.setMajors(new ArrayList<>());
+        }
 
-        List<Major> majors = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(subjects.keySet());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
 
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, subjectId);
-            ResultSet rs = ps.executeQuery();
+            try (PreparedStatement ps = con.prepareStatement(majorsSql(chunk.size()))) {
+                InList.setInts(ps, 1, chunk);
 
-            while (rs.next()) {
-                majors.add(new Major(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("description"),
-                        new ArrayList<>()
-                ));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Major major = identities.major(rs, "id", "name", "description");
+                        subjects.get(rs.getInt("subject_id")).getMajors().add(major);
+                    }
+                }
             }
         }
-        return majors;
+    }
+
+    /** Majors of {@code subjects} subjects, as read by {@link #loadMajors}. */
+    static String majorsSql(int subjects) {
+        return """
+            SELECT ms.subject_id, m.id, m.name, m.description
+            FROM major_subject ms
+            JOIN majors m ON ms.major_id = m.id
+            WHERE ms.subject_id IN (""" + InList.placeholders(subjects) + ")";
     }
 
     /**
@@ -92,9 +117,10 @@ public class SubjectRepository implements CRUD<Subject, Integer> {
                 int rowsAffected = ps.executeUpdate();
 
                 if (rowsAffected > 0) {
-                    ResultSet keys = ps.getGeneratedKeys();
-                    if (keys.next()) {
-                        subject.setId(keys.getInt(1));
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            subject.setId(keys.getInt(1));
+                        }
                     }
                     insertMajors(con, subject);
                     con.commit();
@@ -108,18 +134,19 @@ public class SubjectRepository implements CRUD<Subject, Integer> {
                 try {
                     con.rollback();
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error creating subject: " + e.getMessage());
+            LOG.error("Error creating subject", e);
             throw e;
         } finally {
+            ReferenceDataCache.invalidateAll();
             if (con != null) {
                 try {
                     con.setAutoCommit(true);
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
@@ -153,18 +180,19 @@ public class SubjectRepository implements CRUD<Subject, Integer> {
                 try {
                     con.rollback();
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error updating subject: " + e.getMessage());
+            LOG.error("Error updating subject", e);
             throw e;
         } finally {
+            ReferenceDataCache.invalidateAll();
             if (con != null) {
                 try {
                     con.setAutoCommit(true);
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
@@ -197,113 +225,124 @@ public class SubjectRepository implements CRUD<Subject, Integer> {
                 try {
                     con.rollback();
                 } catch (SQLException rollbackEx) {
-                    System.err.println("Error during rollback: " + rollbackEx.getMessage());
+                    LOG.error("Error during rollback", rollbackEx);
                 }
             }
-            System.err.println("Error deleting subject: " + e.getMessage());
+            LOG.error("Error deleting subject", e);
             throw e;
         } finally {
+            ReferenceDataCache.invalidateAll();
             if (con != null) {
                 try {
                     con.setAutoCommit(true);
                     con.close();
                 } catch (SQLException closeEx) {
-                    System.err.println("Error closing connection: " + closeEx.getMessage());
+                    LOG.error("Error closing connection", closeEx);
                 }
             }
         }
     }
 
+    /**
+     * Served from {@link ReferenceDataCache}.
+     */
     @Override
     public Optional<Subject> get(Integer id) throws SQLException {
-        String sql = "SELECT id, name FROM subjects WHERE id = ?";
+        return ReferenceDataCache.copySubject(ReferenceDataCache.SUBJECT_BY_ID.get(id, () -> load(id)));
+    }
 
+    private Optional<Subject> load(Integer id) throws SQLException {
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(GET_SQL)) {
 
             ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-
-            if (!rs.next()) return Optional.empty();
-
             Subject subject = new Subject();
-            subject.setId(rs.getInt("id"));
-            subject.setName(rs.getString("name"));
-            subject.setMajors(getMajorsForSubject(con, id));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return Optional.empty();
+
+                subject.setId(rs.getInt("id"));
+                subject.setName(rs.getString("name"));
+            }
+            loadMajors(con, Map.of(subject.getId(), subject), new IdentityMap());
 
             return Optional.of(subject);
         } catch (SQLException e) {
-            System.err.println("Error getting subject: " + e.getMessage());
+            LOG.error("Error getting subject", e);
             throw e;
         }
     }
 
+    /**
+     * Served from {@link ReferenceDataCache}.
+     */
     @Override
     public List<Subject> getAll() throws SQLException {
-        String sql = "SELECT id, name FROM subjects ORDER BY id ASC";
+        return ReferenceDataCache.copySubjects(ReferenceDataCache.SUBJECTS.get("all", this::loadAll));
+    }
 
-        List<Subject> subjects = new ArrayList<>();
+    private List<Subject> loadAll() throws SQLException {
+        Map<Integer, Subject> subjects = new LinkedHashMap<>();
 
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(GET_ALL_SQL)) {
 
             while (rs.next()) {
                 Subject subject = new Subject();
                 subject.setId(rs.getInt("id"));
                 subject.setName(rs.getString("name"));
-                subjects.add(subject);
+                subjects.put(subject.getId(), subject);
             }
 
-            for (Subject subject : subjects) {
-                subject.setMajors(getMajorsForSubject(con, subject.getId()));
+            // Batch loading: one query for the majors of every subject, each Major shared between its subjects
+            if (!subjects.isEmpty()) {
+                loadMajors(con, subjects, new IdentityMap());
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting all subjects: " + e.getMessage());
+            LOG.error("Error getting all subjects", e);
             throw e;
         }
 
-        return subjects;
+        return new ArrayList<>(subjects.values());
     }
 
     /**
      * Retrieves all Subjects associated with a specific Major ID.
      * FIXED: Now properly loads all majors for each subject, not just an empty list.
+     * The majors of all the subjects are batch loaded in a single query.
      */
     public List<Subject> findByMajorId(int majorId) throws SQLException {
-        String sql = """
-            SELECT s.id, s.name
-            FROM subjects s
-            JOIN major_subject ms ON s.id = ms.subject_id
-            WHERE ms.major_id = ?
-            ORDER BY s.id ASC
-        """;
+        return ReferenceDataCache.copySubjects(
+                ReferenceDataCache.SUBJECTS.get("major:" + majorId, () -> loadByMajorId(majorId)));
+    }
 
-        List<Subject> subjects = new ArrayList<>();
+    private List<Subject> loadByMajorId(int majorId) throws SQLException {
+        Map<Integer, Subject> subjects = new LinkedHashMap<>();
 
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(BY_MAJOR_SQL)) {
 
             ps.setInt(1, majorId);
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                Subject subject = new Subject();
-                subject.setId(rs.getInt("id"));
-                subject.setName(rs.getString("name"));
-
-                // CRITICAL FIX: Load the actual majors for each subject
-                subject.setMajors(getMajorsForSubject(con, subject.getId()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Subject subject = new Subject();
+                    subject.setId(rs.getInt("id"));
+                    subject.setName(rs.getString("name"));
+                    subjects.put(subject.getId(), subject);
+                }
+            }
 
-                subjects.add(subject);
+            // CRITICAL FIX: Load the actual majors for each subject
+            if (!subjects.isEmpty()) {
+                loadMajors(con, subjects, new IdentityMap());
             }
 
         } catch (SQLException e) {
-            System.err.println("Error finding subjects by major ID: " + e.getMessage());
+            LOG.error("Error finding subjects by major ID", e);
             throw e;
         }
 
-        return subjects;
+        return new ArrayList<>(subjects.values());
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.ensa.v2school.sm.DAO;
 import com.ensa.v2school.sm.Models.ROLE;
 import com.ensa.v2school.sm.Models.User;
 import com.ensa.v2school.sm.utils.DataBaseConnection;
+import com.ensa.v2school.sm.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -11,6 +12,11 @@ import java.util.Optional;
 
 public class UserRepository implements CRUD<User, Integer> {
 
+    private static final Log LOG = Log.get(UserRepository.class);
+
+    static final String GET_ALL_SQL = "SELECT * FROM users";
+    static final String FIND_BY_USERNAME_SQL = "SELECT * FROM users WHERE userName = ?";
+
     private static DataBaseConnection connection;
 
     public UserRepository() {
@@ -31,15 +37,16 @@ public class UserRepository implements CRUD<User, Integer> {
             int rowsAffected = ps.executeUpdate();
 
             if (rowsAffected > 0) {
-                ResultSet generatedKeys = ps.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    user.setId(generatedKeys.getInt(1));
+                try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        user.setId(generatedKeys.getInt(1));
+                    }
                 }
                 return user;
             }
 
         } catch (SQLException e) {
-            System.err.println("Error creating user: " + e.getMessage());
+            LOG.error("Error creating user", e);
             throw e;
         }
 
@@ -62,7 +69,7 @@ public class UserRepository implements CRUD<User, Integer> {
             return rowsAffected > 0 ? user : null;
 
         } catch (SQLException e) {
-            System.err.println("Error updating user: " + e.getMessage());
+            LOG.error("Error updating user", e);
             throw e;
         }
     }
@@ -80,7 +87,7 @@ public class UserRepository implements CRUD<User, Integer> {
             return rowsAffected > 0 ? user : null;
 
         } catch (SQLException e) {
-            System.err.println("Error deleting user: " + e.getMessage());
+            LOG.error("Error deleting user", e);
             throw e;
         }
     }
@@ -93,20 +100,20 @@ public class UserRepository implements CRUD<User, Integer> {
              PreparedStatement ps = con.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                User user = new User(
-                        rs.getInt("id"),
-                        rs.getString("userName"),
-                        rs.getString("password"),
-                        ROLE.valueOf(rs.getString("role"))
-                );
-                return Optional.of(user);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User user = new User(
+                            rs.getInt("id"),
+                            rs.getString("userName"),
+                            rs.getString("password"),
+                            ROLE.valueOf(rs.getString("role"))
+                    );
+                    return Optional.of(user);
+                }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting user: " + e.getMessage());
+            LOG.error("Error getting user", e);
             throw e;
         }
 
@@ -115,12 +122,11 @@ public class UserRepository implements CRUD<User, Integer> {
 
     @Override
     public List<User> getAll() throws SQLException {
-        String sql = "SELECT * FROM users";
         List<User> users = new ArrayList<>();
 
         try (Connection con = connection.getConnection();
              Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             ResultSet rs = st.executeQuery(GET_ALL_SQL)) {
 
             while (rs.next()) {
                 User user = new User(
@@ -135,33 +141,31 @@ public class UserRepository implements CRUD<User, Integer> {
             return users;
 
         } catch (SQLException e) {
-            System.err.println("Error getting all users: " + e.getMessage());
+            LOG.error("Error getting all users", e);
             throw e;
         }
     }
 
     // Custom Methods
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE userName = ?";
-
         try (Connection con = connection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(FIND_BY_USERNAME_SQL)) {
 
             ps.setString(1, username);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                User user = new User(
-                        rs.getInt("id"),
-                        rs.getString("userName"),
-                        rs.getString("password"),
-                        ROLE.valueOf(rs.getString("role"))
-                );
-                return Optional.of(user);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User user = new User(
+                            rs.getInt("id"),
+                            rs.getString("userName"),
+                            rs.getString("password"),
+                            ROLE.valueOf(rs.getString("role"))
+                    );
+                    return Optional.of(user);
+                }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error finding user by username: " + e.getMessage());
+            LOG.error("Error finding user by username", e);
         }
         return Optional.empty();
     }
@@ -174,22 +178,22 @@ public class UserRepository implements CRUD<User, Integer> {
              PreparedStatement ps = con.prepareStatement(sql)) {
 
             ps.setString(1, role.name());
-            ResultSet rs = ps.executeQuery();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    User user = new User(
+                            rs.getInt("id"),
+                            rs.getString("userName"),
+                            rs.getString("password"),
+                            ROLE.valueOf(rs.getString("role"))
+                    );
+                    users.add(user);
+                }
 
-            while (rs.next()) {
-                User user = new User(
-                        rs.getInt("id"),
-                        rs.getString("userName"),
-                        rs.getString("password"),
-                        ROLE.valueOf(rs.getString("role"))
-                );
-                users.add(user);
+                return Optional.of(users);
             }
 
-            return Optional.of(users);
-
         } catch (SQLException e) {
-            System.err.println("Error finding users by role: " + e.getMessage());
+            LOG.error("Error finding users by role", e);
             throw e;
         }
     }
@@ -1,19 +1,28 @@
 package com.ensa.v2school.sm;
 
+import com.ensa.v2school.sm.DAO.AverageRecomputation;
+import com.ensa.v2school.sm.DAO.MajorStatsVerifier;
+import com.ensa.v2school.sm.DAO.SchemaMigrations;
+import com.ensa.v2school.sm.utils.FxStallMonitor;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.sql.SQLException;
 
 public class HelloApplication extends Application {
     @Override
-    public void start(Stage stage) throws IOException {
+    public void start(Stage stage) throws IOException, SQLException {
+        FxStallMonitor.start();
+        SchemaMigrations.start(); // one query when the schema is current
         FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("login.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 620, 403);
         stage.setTitle("Hello!");
         stage.setScene(scene);
         stage.show();
+        MajorStatsVerifier.start();
+        AverageRecomputation.start();
     }
 }
@@ -0,0 +1,61 @@
+package com.ensa.v2school.sm.Models;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the dashboard figures, built by {@code StatisticsRepository} in one round trip.
+ *
+ * @param overall every student, whatever their major
+ * @param byMajor one entry per major (majors without students included), by name
+ */
+public record Statistics(int studentsCount, int majorsCount, Summary overall, List<MajorStatistics> byMajor,
+                         Instant computedAt) {
+
+    public static final int BINS = 20;
+
+    public Statistics {
+        byMajor = List.copyOf(byMajor);
+    }
+
+    public record MajorStatistics(int majorId, String majorName, Summary summary) {}
+
+    /**
+     * Distribution of student averages: {@code histogram.get(i)} students have an average in {@code [i, i + 1)},
+     * the last bin also holding the 20s. {@code count} only covers students that have an average.
+     */
+    public record Summary(long count, double mean, double stdDev, float min, float max, List<Long> histogram) {
+
+        public static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, List.of());
+
+        public Summary {
+            histogram = List.copyOf(histogram);
+        }
+
+        public double median() {
+            return percentile(50);
+        }
+
+        /**
+         * Percentile estimated from the histogram, interpolating linearly inside the bin
+         * (the outer bins are narrowed to {@code min}/{@code max}). Exact to within one point.
+         */
+        public double percentile(double percent) {
+            if (count == 0) {
+                return 0;
+            }
+            double rank = percent / 100 * count;
+            long seen = 0;
+            for (int bin = 0; bin < histogram.size(); bin++) {
+                long inBin = histogram.get(bin);
+                if (inBin > 0 && seen + inBin >= rank) {
+                    double low = Math.max(bin, min);
+                    double high = Math.min(bin + 1, max);
+                    return low + (high - low) * (rank - seen) / inBin;
+                }
+                seen += inBin;
+            }
+            return max;
+        }
+    }
+}
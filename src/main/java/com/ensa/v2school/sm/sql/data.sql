@@ -57,6 +57,9 @@ CREATE TABLE students (
   PRIMARY KEY (id),
   UNIQUE KEY user_id (user_id),
   KEY major_id (major_id),
+  KEY major_average (major_id, average),
+  KEY name (last_name, first_name),
+  KEY average (average, id),
   CONSTRAINT students_ibfk_1 FOREIGN KEY (user_id)
     REFERENCES users (id) ON DELETE CASCADE,
   CONSTRAINT students_ibfk_2 FOREIGN KEY (major_id)
@@ -78,7 +81,9 @@ INSERT INTO students VALUES
 CREATE TABLE subjects (
   id INT NOT NULL AUTO_INCREMENT,
   name VARCHAR(100) NOT NULL,
-  PRIMARY KEY (id)
+  coefficient FLOAT NOT NULL DEFAULT 1,
+  PRIMARY KEY (id),
+  CONSTRAINT subjects_chk_1 CHECK (coefficient > 0)
 ) ENGINE=InnoDB;
 
 INSERT INTO subjects (id, name) VALUES
@@ -156,3 +161,79 @@ CREATE TABLE dossier_administratif (
 INSERT INTO dossier_administratif VALUES
 (1, 'INS-2025-0001', '2025-12-23', 'ST001'),
 (2, 'INS-2025-0002', '2025-12-23', 'ST002');
+
+-- ================================
+-- TABLE: marks
+-- ================================
+CREATE TABLE marks (
+  id INT NOT NULL AUTO_INCREMENT,
+  studentId VARCHAR(20) NOT NULL,
+  subjectId INT NOT NULL,
+  value FLOAT NOT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY student_subject (studentId, subjectId),
+  KEY subjectId (subjectId),
+  KEY student_values (studentId, subjectId, value),
+  CONSTRAINT marks_ibfk_1 FOREIGN KEY (studentId)
+    REFERENCES students (id) ON DELETE CASCADE,
+  CONSTRAINT marks_ibfk_2 FOREIGN KEY (subjectId)
+    REFERENCES subjects (id) ON DELETE CASCADE,
+  CONSTRAINT marks_chk_1 CHECK (value >= 0 AND value <= 20)
+) ENGINE=InnoDB;
+
+-- ================================
+-- TABLE: student_average_dirty
+-- Students whose marks changed since the last AverageRecomputation run.
+-- ================================
+CREATE TABLE student_average_dirty (
+  student_id VARCHAR(20) NOT NULL,
+  version INT NOT NULL DEFAULT 1,
+  PRIMARY KEY (student_id),
+  CONSTRAINT student_average_dirty_ibfk_1 FOREIGN KEY (student_id)
+    REFERENCES students (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- ================================
+-- TABLE: major_stats
+-- Running aggregates of students per (major, 1-point bin of the average; -1 = no average),
+-- maintained by StudentRepository and reconciled by MajorStatsVerifier.
+-- ================================
+CREATE TABLE major_stats (
+  major_id INT NOT NULL,
+  bin TINYINT NOT NULL,
+  student_count INT NOT NULL DEFAULT 0,
+  graded_count INT NOT NULL DEFAULT 0,
+  total DOUBLE NOT NULL DEFAULT 0,
+  total_sq DOUBLE NOT NULL DEFAULT 0,
+  PRIMARY KEY (major_id, bin),
+  CONSTRAINT major_stats_ibfk_1 FOREIGN KEY (major_id)
+    REFERENCES majors (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+INSERT INTO major_stats (major_id, bin, student_count, graded_count, total, total_sq)
+SELECT major_id, COALESCE(GREATEST(0, LEAST(FLOOR(average), 19)), -1) AS bin,
+       COUNT(*), COUNT(average), COALESCE(SUM(average), 0), COALESCE(SUM(average * average), 0)
+FROM students
+GROUP BY major_id, COALESCE(GREATEST(0, LEAST(FLOOR(average), 19)), -1);
+
+-- ================================
+-- TABLE: schema_history
+-- Versions of sql/migrations applied to this database (see SchemaMigrations).
+-- This script already creates the schema of the latest one. When a migration is folded in here, record it
+-- with the checksum printed by tools.Migrate --status: a wrong checksum stops the application at startup.
+-- ================================
+CREATE TABLE schema_history (
+  version INT NOT NULL,
+  description VARCHAR(200) NOT NULL,
+  checksum BIGINT NOT NULL,
+  execution_ms BIGINT NOT NULL DEFAULT 0,
+  installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (version)
+) ENGINE=InnoDB;
+
+INSERT INTO schema_history (version, description, checksum) VALUES
+(1, 'baseline', 2275993250),
+(2, 'marks', 2434774118),
+(3, 'major stats', 3921107931),
+(4, 'average recomputation', 3710936936),
+(5, 'hot path indexes', 1635344971);
@@ -0,0 +1,357 @@
+package com.ensa.v2school.sm.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a large, referentially consistent dataset for the schema of {@code sql/data.sql}:
+ * users, majors, subjects, major_subject, students, student_subject, marks and dossier_administratif.
+ * <p>
+ * Output is one file per table, in load order, plus a {@code load.sql} driver to run with the
+ * {@code mysql} client from the output directory ({@code mysql --local-infile=1 school_management < load.sql}).
+ * The tables are emptied first; the same config and seed always produce the same files.
+ * Rows are streamed to disk, so the student count is only bounded by disk space.
+ * <p>
+ * Student averages are the mean of the marks generated for them, so the data passes the
+ * {@code CHECK (average BETWEEN 0 AND 20)} and agrees with {@code MarkRepository.calculateStudentAverage}.
+ */
+public class DataGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Fatima", "Salma", "Farid", "Sara", "Chorouk", "Karim", "Youssef", "Imane", "Omar", "Nadia",
+            "Hamza", "Khadija", "Mehdi", "Asmae", "Ayoub", "Hajar", "Anas", "Meryem", "Reda", "Zineb"
+    };
+    private static final String[] LAST_NAMES = {
+            "Abdessettar", "Aafifi", "Abdelouahed", "Kendil", "Berrada", "Alami", "Bennani", "Tazi", "El Idrissi",
+            "Chraibi", "Fassi", "Lahlou", "Benjelloun", "Ouazzani", "Sqalli", "Bouzid", "Naciri", "Amrani"
+    };
+    private static final String[] MAJOR_NAMES = {
+            "Informatique", "Génie Civil", "Génie Électrique", "Génie Mécanique", "Génie Industriel",
+            "Génie des Procédés", "Télécommunications", "Data Science", "Génie Logiciel", "Énergies Renouvelables"
+    };
+
+    private final GeneratorConfig config;
+    private final Random random;
+    private final LocalDate today = LocalDate.now();
+
+    /** Subject ids of each major, index 0 = major 1. */
+    private final List<List<Integer>> subjectsByMajor = new ArrayList<>();
+    private double[] majorWeights;
+
+    public DataGenerator(GeneratorConfig config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+    }
+
+    public static void main(String[] args) throws IOException {
+        GeneratorConfig config = GeneratorConfig.fromArgs(args);
+        long start = System.nanoTime();
+        Summary summary = new DataGenerator(config).generate();
+        System.out.printf("Generated %s in %s (%d ms)%n",
+                summary, config.getOutputDirectory().toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public record Summary(long users, long majors, long subjects, long students, long enrolments, long marks,
+                          long dossiers) {
+        @Override
+        public String toString() {
+            return users + " users, " + majors + " majors, " + subjects + " subjects, " + students + " students, "
+                    + enrolments + " enrolments, " + marks + " marks, " + dossiers + " dossiers";
+        }
+    }
+
+    public Summary generate() throws IOException {
+        Files.createDirectories(config.getOutputDirectory());
+        List<Table> tables = new ArrayList<>();
+
+        long subjects;
+        try (TableWriter majors = open("majors", tables, "id", "name", "description");
+             TableWriter subjectRows = open("subjects", tables, "id", "name");
+             TableWriter majorSubject = open("major_subject", tables, "major_id", "subject_id")) {
+            subjects = writeReferenceData(majors, subjectRows, majorSubject);
+        }
+
+        long users = 1, enrolments = 0, marks = 0, dossiers = 0;
+        try (TableWriter userRows = open("users", tables, "id", "username", "password", "role");
+             TableWriter students = open("students", tables, "id", "user_id", "first_name", "last_name", "average", "major_id");
+             TableWriter studentSubject = open("student_subject", tables, "student_id", "subject_id");
+             TableWriter markRows = open("marks", tables, "id", "studentId", "subjectId", "value");
+             TableWriter dossierRows = open("dossier_administratif", tables, "id", "numero_inscription", "date_creation", "eleve_id")) {
+
+            userRows.row(1, "admin", "admin123", "ADMIN");
+            long markId = 0;
+
+            for (int i = 1; i <= config.getStudents(); i++) {
+                String studentId = String.format("ST%07d", i);
+                int majorId = pickMajor();
+
+                Integer userId = null;
+                if (random.nextDouble() < config.getUserRatio()) {
+                    userId = (int) ++users;
+                    userRows.row(userId, "student" + i, "pass" + i, "STUDENT");
+                }
+
+                List<Integer> enrolled = pickSubjects(subjectsByMajor.get(majorId - 1));
+                List<Object[]> studentMarks = new ArrayList<>();
+                double sum = 0;
+                for (int subjectId : enrolled) {
+                    if (random.nextDouble() < config.getMarkRatio()) {
+                        float value = nextMark();
+                        sum += value;
+                        studentMarks.add(new Object[]{++markId, studentId, subjectId, value});
+                    }
+                }
+                float average = studentMarks.isEmpty() ? 0 : Math.round(sum / studentMarks.size() * 100) / 100f;
+
+                // parents before children, so the CSV files also load with foreign key checks on
+                students.row(studentId, userId,
+                        FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                        LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                        average, majorId);
+                for (int subjectId : enrolled) {
+                    studentSubject.row(studentId, subjectId);
+                }
+                for (Object[] mark : studentMarks) {
+                    markRows.row(mark);
+                }
+                enrolments += enrolled.size();
+                marks += studentMarks.size();
+
+                if (random.nextDouble() < config.getDossierRatio()) {
+                    dossiers++;
+                    dossierRows.row(dossiers, String.format("INS-%d-%07d", today.getYear(), i),
+                            today.minusDays(random.nextInt(365)), studentId);
+                }
+            }
+        }
+
+        writeLoadScript(tables);
+        return new Summary(users, config.getMajors(), subjects, config.getStudents(), enrolments, marks, dossiers);
+    }
+
+    private long writeReferenceData(TableWriter majors, TableWriter subjects, TableWriter majorSubject) throws IOException {
+        int subjectId = 0;
+        for (int m = 1; m <= config.getMajors(); m++) {
+            String name = m <= MAJOR_NAMES.length ? MAJOR_NAMES[m - 1] : "Filière " + m;
+            majors.row(m, name, "Filière générée n°" + m);
+
+            List<Integer> own = new ArrayList<>();
+            for (int n = 1; n <= config.getSubjectsPerMajor(); n++) {
+                subjectId++;
+                subjects.row(subjectId, name + " - Matière " + n);
+                majorSubject.row(m, subjectId);
+                own.add(subjectId);
+            }
+            subjectsByMajor.add(own);
+        }
+
+        // subjects taught in several majors, the many-to-many case of major_subject
+        for (int n = 1; n <= config.getSharedSubjects(); n++) {
+            subjectId++;
+            subjects.row(subjectId, "Tronc commun " + n);
+            int first = random.nextInt(config.getMajors());
+            int second = random.nextInt(config.getMajors());
+            majorSubject.row(first + 1, subjectId);
+            subjectsByMajor.get(first).add(subjectId);
+            if (second != first) {
+                majorSubject.row(second + 1, subjectId);
+                subjectsByMajor.get(second).add(subjectId);
+            }
+        }
+
+        majorWeights = new double[config.getMajors()];
+        double total = 0;
+        for (int m = 0; m < majorWeights.length; m++) {
+            total += config.getMajorDistribution() == GeneratorConfig.Distribution.ZIPF
+                    ? 1 / Math.pow(m + 1, config.getZipfExponent())
+                    : 1;
+            majorWeights[m] = total;
+        }
+        for (int m = 0; m < majorWeights.length; m++) {
+            majorWeights[m] /= total;
+        }
+        return subjectId;
+    }
+
+    private int pickMajor() {
+        double p = random.nextDouble();
+        int low = 0, high = majorWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (majorWeights[mid] < p) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low + 1;
+    }
+
+    /** Distinct random subjects of the major (partial Fisher-Yates). */
+    private List<Integer> pickSubjects(List<Integer> subjects) {
+        int wanted = config.getMinEnrolments()
+                + random.nextInt(config.getMaxEnrolments() - config.getMinEnrolments() + 1);
+        wanted = Math.min(wanted, subjects.size());
+
+        List<Integer> pool = new ArrayList<>(subjects);
+        for (int k = 0; k < wanted; k++) {
+            int j = k + random.nextInt(pool.size() - k);
+            Integer swap = pool.get(k);
+            pool.set(k, pool.get(j));
+            pool.set(j, swap);
+        }
+        return pool.subList(0, wanted);
+    }
+
+    private float nextMark() {
+        double value = config.getMarkDistribution() == GeneratorConfig.Distribution.NORMAL
+                ? config.getMarkMean() + random.nextGaussian() * config.getMarkStdDev()
+                : random.nextDouble() * 20;
+        return Math.round(Math.max(0, Math.min(20, value)) * 4) / 4f;
+    }
+
+    private TableWriter open(String table, List<Table> tables, String... columns) throws IOException {
+        tables.add(new Table(table, columns));
+        String prefix = String.format("%02d_%s", tables.size(), table);
+        return config.getFormat() == GeneratorConfig.Format.CSV
+                ? new CsvTableWriter(config.getOutputDirectory().resolve(prefix + ".csv"), table, columns)
+                : new SqlTableWriter(config.getOutputDirectory().resolve(prefix + ".sql"), table, columns,
+                config.getRowsPerInsert());
+    }
+
+    /**
+     * Loads the files in the order they were written. Columns are listed explicitly, as in the INSERT statements,
+     * so that columns the generator does not write ({@code subjects.coefficient}, ...) take their default.
+     */
+    private void writeLoadScript(List<Table> tables) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(config.getOutputDirectory().resolve("load.sql"),
+                StandardCharsets.UTF_8)) {
+            out.write("-- Generated by DataGenerator (seed " + config.getSeed() + ", " + config.getStudents() + " students)\n");
+            out.write("SET FOREIGN_KEY_CHECKS = 0;\nSET UNIQUE_CHECKS = 0;\n");
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                out.write("TRUNCATE TABLE " + tables.get(i).name() + ";\n");
+            }
+            for (int i = 0; i < tables.size(); i++) {
+                Table table = tables.get(i);
+                String file = String.format("%02d_%s", i + 1, table.name());
+                if (config.getFormat() == GeneratorConfig.Format.CSV) {
+                    out.write("LOAD DATA LOCAL INFILE '" + file + ".csv' INTO TABLE " + table.name()
+                            + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                            + " LINES TERMINATED BY '\\n' IGNORE 1 LINES"
+                            + " (" + String.join(", ", table.columns()) + ");\n");
+                } else {
+                    out.write("SOURCE " + file + ".sql;\n");
+                }
+            }
+            out.write("SET UNIQUE_CHECKS = 1;\nSET FOREIGN_KEY_CHECKS = 1;\n");
+            // aggregates read by the dashboard, see MajorStats
+            out.write("""
+                    TRUNCATE TABLE major_stats;
+                    INSERT INTO major_stats (major_id, bin, student_count, graded_count, total, total_sq)
+                    SELECT major_id, COALESCE(GREATEST(0, LEAST(FLOOR(average), 19)), -1) AS bin,
+                           COUNT(*), COUNT(average), COALESCE(SUM(average), 0), COALESCE(SUM(average * average), 0)
+                    FROM students
+                    GROUP BY major_id, bin;
+                    """);
+        }
+    }
+
+    // --- Output formats ---
+
+    /** A generated table and the columns of its file, in file order. */
+    private record Table(String name, String... columns) {
+    }
+
+    private interface TableWriter extends AutoCloseable {
+        void row(Object... values) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /** Multi-row {@code INSERT ... VALUES (...), (...)} statements of {@code rowsPerInsert} rows, one transaction per file. */
+    private static final class SqlTableWriter implements TableWriter {
+        private final BufferedWriter out;
+        private final String insert;
+        private final int rowsPerInsert;
+        private int pending;
+
+        SqlTableWriter(Path file, String table, String[] columns, int rowsPerInsert) throws IOException {
+            this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            this.insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES\n";
+            this.rowsPerInsert = rowsPerInsert;
+            out.write("START TRANSACTION;\n");
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            out.write(pending == 0 ? insert : ",\n");
+            out.write('(');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(literal(values[i]));
+            }
+            out.write(')');
+            if (++pending == rowsPerInsert) {
+                out.write(";\n");
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (pending > 0) {
+                out.write(";\n");
+            }
+            out.write("COMMIT;\n");
+            out.close();
+        }
+
+        private static String literal(Object value) {
+            if (value == null) return "NULL";
+            if (value instanceof Number) return value.toString();
+            return "'" + value.toString().replace("\\", "\\\\").replace("'", "''") + "'";
+        }
+    }
+
+    /** RFC 4180 CSV with a header line, {@code \N} for NULL as {@code LOAD DATA} expects. */
+    private static final class CsvTableWriter implements TableWriter {
+        private final BufferedWriter out;
+
+        CsvTableWriter(Path file, String table, String[] columns) throws IOException {
+            this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            out.write(String.join(",", columns));
+            out.write('\n');
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(field(values[i]));
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private static String field(Object value) {
+            if (value == null) return "\\N";
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ensa.v2school.sm.tools;
+
+import com.ensa.v2school.sm.DAO.QueryPlans;
+import com.ensa.v2school.sm.DAO.QueryPlans.Check;
+import com.ensa.v2school.sm.DAO.QueryPlans.Sample;
+import com.ensa.v2school.sm.utils.DataBaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan regression check of the repository queries: runs {@code EXPLAIN} on each of them and compares the index
+ * MySQL picks for every table with the expected one, so that a dropped index or a query rewrite that loses it
+ * shows up before it reaches production.
+ * <p>
+ * Run it against a database of realistic size (e.g. loaded from {@link DataGenerator}): on a handful of rows
+ * the optimizer rightly prefers full scans.
+ * {@code java -cp target/classes com.ensa.v2school.sm.tools.ExplainCheck [--verbose]} exits with status 1
+ * when a plan differs. The queries and their expected indexes are listed in {@link QueryPlans}, which reads the
+ * repositories' own SQL.
+ */
+public class ExplainCheck {
+
+    public static void main(String[] args) throws SQLException {
+        boolean verbose = Arrays.asList(args).contains("--verbose");
+        int failures = 0;
+
+        try (Connection con = DataBaseConnection.getInstance().getConnection()) {
+            List<Check> checks = QueryPlans.checks(sample(con));
+            for (Check check : checks) {
+                List<Map<String, String>> plan = explain(con, check);
+                List<String> problems = compare(check.expected(), plan);
+                System.out.println((problems.isEmpty() ? "OK    " : "FAIL  ") + check.name());
+                for (String problem : problems) {
+                    System.out.println("        " + problem);
+                }
+                if (verbose || !problems.isEmpty()) {
+                    for (Map<String, String> row : plan) {
+                        System.out.println("        " + row);
+                    }
+                }
+                if (!problems.isEmpty()) {
+                    failures++;
+                }
+            }
+            System.out.printf("%d of %d plans as expected%n", checks.size() - failures, checks.size());
+        } catch (SQLException e) {
+            System.err.println("Error checking query plans: " + e.getMessage());
+            throw e;
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Sample sample(Connection con) throws SQLException {
+        String sql = """
+            SELECT mk.id, mk.studentId, mk.subjectId, s.major_id, m.name, s.average, s.last_name,
+                   d.numero_inscription, (SELECT MIN(username) FROM users) AS username
+            FROM marks mk
+            JOIN students s ON s.id = mk.studentId
+            JOIN majors m ON m.id = s.major_id
+            JOIN dossier_administratif d ON d.eleve_id = s.id
+            WHERE s.average IS NOT NULL
+            LIMIT 1
+            """;
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            if (!rs.next()) {
+                throw new SQLException("No graded student with a dossier and marks to sample from");
+            }
+            String lastName = rs.getString("last_name");
+            return new Sample(rs.getInt("id"), rs.getString("studentId"), rs.getInt("subjectId"),
+                    rs.getInt("major_id"), rs.getString("name"), rs.getFloat("average"), lastName.substring(0, Math.min(3, lastName.length())),
+                    rs.getString("numero_inscription"), rs.getString("username"));
+        }
+    }
+
+    private static List<Map<String, String>> explain(Connection con, Check check) throws SQLException {
+        List<Map<String, String>> plan = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN " + check.sql())) {
+            for (int i = 0; i < check.params().length; i++) {
+                ps.setObject(i + 1, check.params()[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (String column : List.of("table", "type", "key", "rows", "Extra")) {
+                        row.put(column, rs.getString(column));
+                    }
+                    plan.add(row);
+                }
+            }
+        }
+        return plan;
+    }
+
+    private static List<String> compare(Map<String, String> expected, List<Map<String, String>> plan) {
+        List<String> problems = new ArrayList<>();
+        if (plan.size() == 1 && "Select tables optimized away".equals(plan.get(0).get("Extra"))) {
+            return problems; // answered from index statistics (COUNT, MIN, MAX): no table is read at all
+        }
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            if (plan.stream().noneMatch(row -> entry.getKey().equals(row.get("table")))) {
+                problems.add(entry.getKey() + ": not in the plan");
+            }
+        }
+        for (Map<String, String> row : plan) {
+            String table = row.get("table");
+            if (table == null) {
+                problems.add("no table read: " + row.get("Extra"));
+                continue;
+            }
+            String acceptable = expected.get(table);
+            if (acceptable == null) {
+                problems.add(table + ": unexpected table in the plan");
+                continue;
+            }
+            String key = row.get("key") != null ? row.get("key") : "ALL";
+            if (!Arrays.asList(acceptable.split("\\|")).contains(key)) {
+                problems.add(table + ": uses " + key + ", expected " + acceptable);
+            }
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,150 @@
+package com.ensa.v2school.sm.tools;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the {@link DataGenerator}. Every value can be given on the command line as
+ * {@code --name=value} (e.g. {@code --students=1000000 --format=CSV --seed=7}).
+ */
+public class GeneratorConfig {
+
+    public enum Format {
+        /** One {@code .sql} file per table, made of multi-row INSERT statements. */
+        SQL,
+        /** One {@code .csv} file per table plus a {@code load.sql} of {@code LOAD DATA LOCAL INFILE} statements. */
+        CSV
+    }
+
+    public enum Distribution {
+        UNIFORM,
+        /** Bell curve around {@code markMean} (marks only). */
+        NORMAL,
+        /** A few majors hold most students, skewed by {@code zipfExponent} (majors only). */
+        ZIPF
+    }
+
+    private long seed = 42;
+    private Path outputDirectory = Path.of("target", "generated-data");
+    private Format format = Format.SQL;
+    private int rowsPerInsert = 1_000;
+
+    private int students = 100_000;
+    private int majors = 20;
+    private int subjectsPerMajor = 12;
+    private int sharedSubjects = 10;
+    private double userRatio = 0.5;
+    private double dossierRatio = 0.9;
+
+    private int minEnrolments = 4;
+    private int maxEnrolments = 10;
+    private double markRatio = 0.8;
+
+    private Distribution majorDistribution = Distribution.ZIPF;
+    private double zipfExponent = 1.0;
+    private Distribution markDistribution = Distribution.NORMAL;
+    private double markMean = 12;
+    private double markStdDev = 3.5;
+
+    public static GeneratorConfig fromArgs(String[] args) {
+        GeneratorConfig config = new GeneratorConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "seed" -> config.setSeed(Long.parseLong(value));
+                case "out" -> config.setOutputDirectory(Path.of(value));
+                case "format" -> config.setFormat(Format.valueOf(value.toUpperCase()));
+                case "rowsPerInsert" -> config.setRowsPerInsert(Integer.parseInt(value));
+                case "students" -> config.setStudents(Integer.parseInt(value));
+                case "majors" -> config.setMajors(Integer.parseInt(value));
+                case "subjectsPerMajor" -> config.setSubjectsPerMajor(Integer.parseInt(value));
+                case "sharedSubjects" -> config.setSharedSubjects(Integer.parseInt(value));
+                case "userRatio" -> config.setUserRatio(Double.parseDouble(value));
+                case "dossierRatio" -> config.setDossierRatio(Double.parseDouble(value));
+                case "minEnrolments" -> config.setMinEnrolments(Integer.parseInt(value));
+                case "maxEnrolments" -> config.setMaxEnrolments(Integer.parseInt(value));
+                case "markRatio" -> config.setMarkRatio(Double.parseDouble(value));
+                case "majorDistribution" -> config.setMajorDistribution(Distribution.valueOf(value.toUpperCase()));
+                case "zipfExponent" -> config.setZipfExponent(Double.parseDouble(value));
+                case "markDistribution" -> config.setMarkDistribution(Distribution.valueOf(value.toUpperCase()));
+                case "markMean" -> config.setMarkMean(Double.parseDouble(value));
+                case "markStdDev" -> config.setMarkStdDev(Double.parseDouble(value));
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        config.validate();
+        return config;
+    }
+
+    void validate() {
+        if (students < 0 || majors < 1 || subjectsPerMajor < 1 || sharedSubjects < 0 || rowsPerInsert < 1) {
+            throw new IllegalArgumentException("Counts must be positive");
+        }
+        if (minEnrolments < 0 || minEnrolments > maxEnrolments) {
+            throw new IllegalArgumentException("Need 0 <= minEnrolments <= maxEnrolments");
+        }
+        if (majorDistribution == Distribution.NORMAL) {
+            throw new IllegalArgumentException("majorDistribution must be UNIFORM or ZIPF");
+        }
+        if (markDistribution == Distribution.ZIPF) {
+            throw new IllegalArgumentException("markDistribution must be UNIFORM or NORMAL");
+        }
+    }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public Path getOutputDirectory() { return outputDirectory; }
+    public void setOutputDirectory(Path outputDirectory) { this.outputDirectory = outputDirectory; }
+
+    public Format getFormat() { return format; }
+    public void setFormat(Format format) { this.format = format; }
+
+    public int getRowsPerInsert() { return rowsPerInsert; }
+    public void setRowsPerInsert(int rowsPerInsert) { this.rowsPerInsert = rowsPerInsert; }
+
+    public int getStudents() { return students; }
+    public void setStudents(int students) { this.students = students; }
+
+    public int getMajors() { return majors; }
+    public void setMajors(int majors) { this.majors = majors; }
+
+    public int getSubjectsPerMajor() { return subjectsPerMajor; }
+    public void setSubjectsPerMajor(int subjectsPerMajor) { this.subjectsPerMajor = subjectsPerMajor; }
+
+    public int getSharedSubjects() { return sharedSubjects; }
+    public void setSharedSubjects(int sharedSubjects) { this.sharedSubjects = sharedSubjects; }
+
+    public double getUserRatio() { return userRatio; }
+    public void setUserRatio(double userRatio) { this.userRatio = userRatio; }
+
+    public double getDossierRatio() { return dossierRatio; }
+    public void setDossierRatio(double dossierRatio) { this.dossierRatio = dossierRatio; }
+
+    public int getMinEnrolments() { return minEnrolments; }
+    public void setMinEnrolments(int minEnrolments) { this.minEnrolments = minEnrolments; }
+
+    public int getMaxEnrolments() { return maxEnrolments; }
+    public void setMaxEnrolments(int maxEnrolments) { this.maxEnrolments = maxEnrolments; }
+
+    public double getMarkRatio() { return markRatio; }
+    public void setMarkRatio(double markRatio) { this.markRatio = markRatio; }
+
+    public Distribution getMajorDistribution() { return majorDistribution; }
+    public void setMajorDistribution(Distribution majorDistribution) { this.majorDistribution = majorDistribution; }
+
+    public double getZipfExponent() { return zipfExponent; }
+    public void setZipfExponent(double zipfExponent) { this.zipfExponent = zipfExponent; }
+
+    public Distribution getMarkDistribution() { return markDistribution; }
+    public void setMarkDistribution(Distribution markDistribution) { this.markDistribution = markDistribution; }
+
+    public double getMarkMean() { return markMean; }
+    public void setMarkMean(double markMean) { this.markMean = markMean; }
+
+    public double getMarkStdDev() { return markStdDev; }
+    public void setMarkStdDev(double markStdDev) { this.markStdDev = markStdDev; }
+}
@@ -0,0 +1,32 @@
+package com.ensa.v2school.sm.tools;
+
+import com.ensa.v2school.sm.DAO.SchemaMigrations;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point of {@link SchemaMigrations}, e.g. to build the online indexes of a release ahead of
+ * deploying it: {@code java -cp target/classes com.ensa.v2school.sm.tools.Migrate}.
+ * With {@code --status}, only lists the bundled migrations, their checksum and whether they are applied.
+ */
+public class Migrate {
+
+    public static void main(String[] args) throws SQLException {
+        SchemaMigrations migrations = new SchemaMigrations();
+
+        if (args.length > 0 && args[0].equals("--status")) {
+            Map<Integer, Long> applied = migrations.applied();
+            for (SchemaMigrations.Migration migration : SchemaMigrations.bundled()) {
+                System.out.printf("%3d  %-30s %10d  %s%s%n", migration.version(), migration.description(),
+                        migration.checksum(), applied.containsKey(migration.version()) ? "applied" : "pending",
+                        migration.online() ? " (online)" : "");
+            }
+            return;
+        }
+
+        List<SchemaMigrations.Migration> done = migrations.migrate();
+        System.out.println(done.isEmpty() ? "Schema is up to date" : "Applied " + done.size() + " migration(s)");
+    }
+}
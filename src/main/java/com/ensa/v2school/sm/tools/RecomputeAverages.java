@@ -0,0 +1,21 @@
+package com.ensa.v2school.sm.tools;
+
+import com.ensa.v2school.sm.DAO.AverageRecomputation;
+
+import java.sql.SQLException;
+
+/**
+ * Command line entry point of {@link AverageRecomputation}, e.g. for the end-of-term recalculation:
+ * {@code java -cp target/classes com.ensa.v2school.sm.tools.RecomputeAverages --all}.
+ * Without {@code --all}, only students whose marks changed since the last run are recomputed.
+ */
+public class RecomputeAverages {
+
+    public static void main(String[] args) throws SQLException {
+        boolean all = args.length > 0 && args[0].equals("--all");
+        AverageRecomputation recomputation = new AverageRecomputation();
+        AverageRecomputation.Result result = all ? recomputation.recomputeAll() : recomputation.recomputeDirty();
+        System.out.printf("Recomputed %d students from %d marks, %d averages changed (%d ms)%n",
+                result.students(), result.marks(), result.updated(), result.elapsedMillis());
+    }
+}
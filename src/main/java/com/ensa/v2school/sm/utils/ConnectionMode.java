@@ -0,0 +1,16 @@
+package com.ensa.v2school.sm.utils;
+
+/**
+ * How {@link DataBaseConnection#getConnection()} maps callers to pooled connections; a single call can override it
+ * with {@link DataBaseConnection#getConnection(ConnectionMode)}.
+ */
+public enum ConnectionMode {
+    /** Every call borrows its own lease from the pool. */
+    POOLED,
+    /**
+     * Calls made by the same thread (platform or virtual) while it already holds a lease share that lease,
+     * so nested repository calls never borrow a second connection. The lease goes back to the pool when the
+     * outermost caller closes it.
+     */
+    THREAD_AFFINITY
+}
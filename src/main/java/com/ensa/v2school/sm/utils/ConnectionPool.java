@@ -0,0 +1,500 @@
+package com.ensa.v2school.sm.utils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ * <p>
+ * Connections handed out by {@link #getConnection()} are proxies: calling {@code close()} on them
+ * (which every repository does through try-with-resources) gives the physical connection back to
+ * the pool instead of closing the socket.
+ * <p>
+ * Each physical connection also keeps a {@link StatementCache}: {@code prepareStatement} with SQL text already
+ * prepared on that connection returns the cached statement, and closing it puts it back instead of closing it.
+ * Combined with server-side prepares ({@code useServerPrepStmts}, see {@link PoolConfig}), repeated lookups skip
+ * both the client round trip and the server parse/plan.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    private static final Log LOG = Log.get(ConnectionPool.class);
+
+    private final PoolConfig config;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong contendedBorrows = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong statementsPrepared = new AtomicLong();
+    private final AtomicLong statementsReused = new AtomicLong();
+    private final AtomicLong statementsEvicted = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(PoolConfig config) throws SQLException {
+        if (config.getMaxSize() < 1 || config.getMinIdle() > config.getMaxSize()) {
+            throw new IllegalArgumentException("Invalid pool size: minIdle=" + config.getMinIdle()
+                    + ", maxSize=" + config.getMaxSize());
+        }
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+
+        fillToMinIdle();
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                config.getHousekeepingIntervalMs(), config.getHousekeepingIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        if (!permits.tryAcquire()) {
+            acquireContended();
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = createPhysical();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowTrace = config.getLeakDetectionThresholdMs() > 0
+                    ? new Exception("Connection borrowed by thread " + Thread.currentThread().getName())
+                    : null;
+            pooled.leakReported = false;
+            leased.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.newLease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Slow path of {@link #getConnection()}: every permit is taken, so wait for a release and record the contention.
+     */
+    private void acquireContended() throws SQLException {
+        contendedBorrows.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS);
+            waitNanos.addAndGet(System.nanoTime() - start);
+            if (!acquired) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + config.getConnectionTimeoutMs()
+                        + "ms waiting for a connection (active=" + getActiveCount() + ", max=" + config.getMaxSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the configured credentials");
+    }
+
+    /**
+     * Pops the most recently used idle connection, discarding the ones that fail validation.
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (!config.isValidateOnBorrow() || isValid(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createPhysical() throws SQLException {
+        java.util.Properties props = new java.util.Properties();
+        props.putAll(config.getDriverProperties());
+        if (config.getUser() != null) props.setProperty("user", config.getUser());
+        if (config.getPassword() != null) props.setProperty("password", config.getPassword());
+
+        Connection physical = DriverManager.getConnection(config.getUrl(), props);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Called when a lease is closed: resets the session state and puts the connection back on the idle stack.
+     */
+    private void release(PooledConnection pooled) {
+        leased.remove(pooled);
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                // a repository left a transaction open (or failed mid-way): never hand it to the next borrower
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (pooled.physical.isReadOnly()) {
+                pooled.physical.setReadOnly(false);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            LOG.warn("Discarding pooled connection after failed reset", e);
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.statements.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // the socket is already gone
+        }
+    }
+
+    private void fillToMinIdle() throws SQLException {
+        while (!closed && totalConnections.get() < config.getMinIdle()) {
+            if (!permits.tryAcquire()) {
+                return; // every permit is leased, the pool is busy enough
+            }
+            try {
+                PooledConnection pooled = createPhysical();
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Evicts connections idle for longer than the idle timeout (keeping {@code minIdle}),
+     * tops the pool back up, and reports leases held past the leak detection threshold.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        for (PooledConnection pooled : idle) {
+            if (totalConnections.get() <= config.getMinIdle()) {
+                break;
+            }
+            if (now - pooled.lastUsed > config.getIdleTimeoutMs() && idle.remove(pooled)) {
+                discard(pooled);
+                evictedCount.incrementAndGet();
+            }
+        }
+
+        try {
+            fillToMinIdle();
+        } catch (SQLException e) {
+            LOG.warn("Could not refill connection pool", e);
+        }
+
+        long threshold = config.getLeakDetectionThresholdMs();
+        if (threshold > 0) {
+            for (PooledConnection pooled : leased) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > threshold) {
+                    pooled.leakReported = true;
+                    leakCount.incrementAndGet();
+                    if (pooled.borrowTrace != null) {
+                        LOG.warn("Possible connection leak", "heldMs", now - pooled.borrowedAt, pooled.borrowTrace);
+                    } else {
+                        LOG.warn("Possible connection leak", "heldMs", now - pooled.borrowedAt);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        // leased connections are closed by release() when their borrower gives them back
+    }
+
+    // --- Metrics ---
+
+    public int getActiveCount() { return leased.size(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getTotalCount() { return totalConnections.get(); }
+    public int getMaxSize() { return config.getMaxSize(); }
+    public int getWaitingThreads() { return permits.getQueueLength(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getEvictedCount() { return evictedCount.get(); }
+    public long getLeakCount() { return leakCount.get(); }
+    /** Borrows that found every connection leased and had to wait. */
+    public long getContendedBorrowCount() { return contendedBorrows.get(); }
+    public long getTotalWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(waitNanos.get()); }
+    public long getTimeoutCount() { return timeouts.get(); }
+    /** {@code prepareStatement} calls that had to prepare a new statement. */
+    public long getStatementPrepareCount() { return statementsPrepared.get(); }
+    /** {@code prepareStatement} calls served from a connection's statement cache. */
+    public long getStatementReuseCount() { return statementsReused.get(); }
+    public long getStatementEvictionCount() { return statementsEvicted.get(); }
+
+    public double getStatementCacheHitRatio() {
+        long reused = statementsReused.get();
+        long total = reused + statementsPrepared.get();
+        return total == 0 ? 0 : (double) reused / total;
+    }
+
+    // --- DataSource boilerplate ---
+
+    @Override
+    public PrintWriter getLogWriter() { return DriverManager.getLogWriter(); }
+
+    @Override
+    public void setLogWriter(PrintWriter out) { DriverManager.setLogWriter(out); }
+
+    @Override
+    public void setLoginTimeout(int seconds) { DriverManager.setLoginTimeout(seconds); }
+
+    @Override
+    public int getLoginTimeout() { return DriverManager.getLoginTimeout(); }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) { return iface.isInstance(this); }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile Exception borrowTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(config.getStatementCacheSize(), statementsEvicted);
+        }
+
+        /**
+         * Each borrow gets its own proxy so a stale reference kept after {@code close()}
+         * can never act on the connection once another thread has borrowed it.
+         */
+        private Connection newLease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                case "prepareStatement":
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    return prepare((Connection) proxy, method, args);
+                case "unwrap":
+                case "isWrapperFor":
+                    break;
+                default:
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private PreparedStatement prepare(Connection lease, Method method, Object[] args) throws Throwable {
+            StatementCache.Key key = StatementCache.Key.of(args);
+            if (key == null || !pooled.statements.isEnabled()) {
+                try {
+                    return (PreparedStatement) method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            PreparedStatement statement = pooled.statements.take(key);
+            if (statement != null && !statement.isClosed()) {
+                statementsReused.incrementAndGet();
+            } else {
+                try {
+                    statement = (PreparedStatement) method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                statementsPrepared.incrementAndGet();
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new CachedStatement(this, lease, key, statement));
+        }
+    }
+
+    /**
+     * A statement borrowed from a connection's {@link StatementCache}; {@code close()} resets it and gives it back.
+     */
+    private final class CachedStatement implements InvocationHandler {
+        private final Lease lease;
+        private final Connection leaseProxy;
+        private final StatementCache.Key key;
+        private final PreparedStatement statement;
+        private boolean closed;
+
+        private CachedStatement(Lease lease, Connection leaseProxy, StatementCache.Key key, PreparedStatement statement) {
+            this.lease = lease;
+            this.leaseProxy = leaseProxy;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return leaseProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    if (lease.released) {
+                        // the physical statement belongs to whoever borrowed the connection next
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void giveBack() throws SQLException {
+            StatementCache cache = lease.pooled.statements;
+            try {
+                if (!lease.released) {
+                    ResultSet open = statement.getResultSet();
+                    if (open != null) {
+                        open.close(); // a caller that forgot it must not leak it into the next borrower's cursor
+                    }
+                    statement.setFetchSize(0); // back to the driver default, e.g. after streaming
+                    statement.clearParameters();
+                    statement.clearBatch();
+                    statement.clearWarnings();
+                    if (cache.offer(key, statement)) {
+                        return;
+                    }
+                }
+            } catch (SQLException e) {
+                // could not reset it: close it below
+            }
+            statement.close();
+        }
+    }
+}
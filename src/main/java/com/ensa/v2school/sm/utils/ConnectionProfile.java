@@ -0,0 +1,40 @@
+package com.ensa.v2school.sm.utils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+
+/**
+ * Where the data lives: the settings of the {@link ConnectionPool}, and what to do with the database once
+ * the pool is up. Chosen with {@code -Dsm.db.profile}:
+ * <ul>
+ *     <li>{@code mysql} (default): the MySQL server of {@link MySqlProfile}</li>
+ *     <li>{@code embedded}: an in-process H2 database in MySQL mode, see {@link EmbeddedProfile}</li>
+ *     <li>the class name of any other implementation, with a public no-argument constructor</li>
+ * </ul>
+ * The {@code sm.db.*} and {@code sm.db.pool.*} properties still override the profile's settings.
+ */
+public interface ConnectionProfile {
+
+    PoolConfig poolConfig();
+
+    /** Called once the pool is created, before any repository uses it. */
+    default void initialize(DataSource dataSource) throws SQLException {
+    }
+
+    static ConnectionProfile fromSystemProperties() {
+        String name = System.getProperty("sm.db.profile", "mysql");
+        return switch (name) {
+            case "mysql" -> new MySqlProfile();
+            case "embedded" -> new EmbeddedProfile();
+            default -> {
+                try {
+                    yield (ConnectionProfile) Class.forName(name).getConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                    throw new IllegalArgumentException("Unknown connection profile: " + name, cause);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.ensa.v2school.sm.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma separated, fields optionally quoted with {@code "} ({@code ""} inside quotes
+ * is a quote, and quoted fields may span lines), CRLF or LF line ends, UTF-8 with or without BOM.
+ * <p>
+ * Reads the channel through fixed-size buffers, so memory does not depend on the file size.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private boolean eof;
+    private boolean first = true;
+
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        bytes.flip(); // both empty, ready to read
+        chars.flip();
+    }
+
+    public static CsvReader open(Path file) throws IOException {
+        return new CsvReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the input
+     */
+    public List<String> next() throws IOException {
+        if (!fill()) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (fill()) {
+            char c = chars.get();
+            if (quoted) {
+                if (c == '"') {
+                    if (fill() && peek() == '"') {
+                        chars.get();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field starting on line " + recordLine);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Line on which the last record returned by {@link #next()} starts (1-based). */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private char peek() {
+        return chars.get(chars.position());
+    }
+
+    /** Makes sure at least one char is available; false at the end of the input. */
+    private boolean fill() throws IOException {
+        while (!chars.hasRemaining()) {
+            if (eof && !bytes.hasRemaining()) {
+                return false;
+            }
+            chars.clear();
+            if (!eof) {
+                bytes.compact();
+                eof = channel.read(bytes) < 0;
+                bytes.flip();
+            }
+            CoderResult result = decoder.decode(bytes, chars, eof);
+            if (result.isError()) {
+                throw new CharacterCodingException();
+            }
+            if (eof && !bytes.hasRemaining()) {
+                decoder.flush(chars);
+            }
+            chars.flip();
+            if (first && chars.hasRemaining()) {
+                first = false;
+                if (peek() == '\uFEFF') {
+                    chars.get();
+                }
+            }
+        }
+        return true;
+    }
+}
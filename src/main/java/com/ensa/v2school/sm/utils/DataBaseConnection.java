@@ -1,34 +1,192 @@
 package com.ensa.v2school.sm.utils;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DataBaseConnection {
-    private static DataBaseConnection instance;
-    private final String url="jdbc:mysql://localhost:3306/school_management";
-    private final String user="root";
-    private final String password="mamapapa123";
-    private Connection connection;
+    private static final Log LOG = Log.get(DataBaseConnection.class);
+
+    private final ConnectionProfile profile;
+    private volatile ConnectionPool pool; // null until the database was first reached
+    private volatile ConnectionMode mode;
+    private final ThreadLocal<ThreadLease> threadLease = new ThreadLocal<>();
+    private final AtomicLong affinityHits = new AtomicLong();
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+
     private DataBaseConnection() {
-        try{
-            connection = DriverManager.getConnection(url,user,password);
+        this(ConnectionProfile.fromSystemProperties());
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Database connection failed!");
-            throw new RuntimeException(e);
-        }
+    /** Does not connect: the pool is opened by the first call that needs it, see {@link #getPool()}. */
+    DataBaseConnection(ConnectionProfile profile) {
+        this.profile = profile;
+        this.mode = ConnectionMode.valueOf(System.getProperty("sm.db.mode", ConnectionMode.THREAD_AFFINITY.name()));
+    }
+
+    /**
+     * Initialisation-on-demand holder: the JVM guarantees the instance is created exactly once,
+     * on first use, without any locking on the read path. Creating it never touches the database, so a
+     * database that is down does not fail the class initialisation (and every later call with it).
+     */
+    private static final class Holder {
+        private static final DataBaseConnection INSTANCE = new DataBaseConnection();
     }
+
+    public static DataBaseConnection getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     * In {@link ConnectionMode#THREAD_AFFINITY} mode a thread that already holds a lease gets that same lease back.
+     * The calling repository method is measured by {@link QueryMetrics} until the connection is closed.
+     */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(url, user, password);
+        return getConnection(mode);
+    }
+
+    /**
+     * {@link #getConnection()} in the given mode for this call only: {@link ConnectionMode#POOLED} borrows a lease
+     * of its own even when the thread already holds one, e.g. to write while that lease streams a result set.
+     * Unlike {@code getPool().getConnection()}, the connection is measured by {@link QueryMetrics}.
+     */
+    public Connection getConnection(ConnectionMode mode) throws SQLException {
+        QueryMetrics.Span span = metrics.begin();
+        if (span == null) {
+            return borrow(mode);
+        }
+        try {
+            return span.attach(borrow(mode));
+        } catch (SQLException | RuntimeException e) {
+            span.fail();
+            throw e;
         }
-        return connection;
     }
-    public static DataBaseConnection getInstance() {
-        if (instance == null) {
-            instance = new DataBaseConnection();
+
+    private Connection borrow(ConnectionMode mode) throws SQLException {
+        if (mode == ConnectionMode.POOLED) {
+            return getPool().getConnection();
+        }
+
+        ThreadLease lease = threadLease.get();
+        if (lease == null) {
+            lease = new ThreadLease(getPool().getConnection());
+            threadLease.set(lease);
+        } else {
+            affinityHits.incrementAndGet();
+        }
+        lease.depth++;
+        return lease.newHandle();
+    }
+
+    public DataSource getDataSource() throws SQLException {
+        return getPool();
+    }
+
+    /**
+     * The pool, opened and initialised by the profile on first use. If the database cannot be reached, the
+     * caller gets the {@link SQLException} and the next call tries again.
+     */
+    public ConnectionPool getPool() throws SQLException {
+        ConnectionPool open = pool;
+        return open != null ? open : open();
+    }
+
+    /** The pool if a call already opened it, else null; never connects. */
+    public ConnectionPool getPoolIfOpen() {
+        return pool;
+    }
+
+    private synchronized ConnectionPool open() throws SQLException {
+        if (pool != null) {
+            return pool;
+        }
+        ConnectionPool created = null;
+        try {
+            created = new ConnectionPool(profile.poolConfig());
+            profile.initialize(created);
+        } catch (SQLException | RuntimeException e) {
+            if (created != null) {
+                created.close();
+            }
+            LOG.error("Database connection failed", e);
+            throw e;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(created::close, "db-pool-shutdown"));
+        pool = created;
+        return created;
+    }
+
+    public ConnectionProfile getProfile() {
+        return profile;
+    }
+
+    public ConnectionMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ConnectionMode mode) {
+        this.mode = mode;
+    }
+
+    /** Number of nested {@link #getConnection()} calls served by the calling thread's existing lease. */
+    public long getAffinityHits() {
+        return affinityHits.get();
+    }
+
+    /**
+     * The connection a thread currently holds, shared by its nested {@link #getConnection()} calls.
+     * Only ever touched by the owning thread.
+     */
+    private final class ThreadLease {
+        private final Connection leased;
+        private int depth;
+
+        private ThreadLease(Connection leased) {
+            this.leased = leased;
+        }
+
+        private Connection newHandle() {
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (!closed[0]) {
+                                    closed[0] = true;
+                                    release();
+                                }
+                                return null;
+                            case "isClosed":
+                                return closed[0] || leased.isClosed();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                if (closed[0]) {
+                                    throw new SQLException("Connection has already been closed");
+                                }
+                        }
+                        try {
+                            return method.invoke(leased, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private void release() throws SQLException {
+            if (--depth == 0) {
+                threadLease.remove();
+                leased.close();
+            }
         }
-        return instance;
     }
 }
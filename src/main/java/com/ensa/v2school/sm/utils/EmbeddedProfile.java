@@ -0,0 +1,90 @@
+package com.ensa.v2school.sm.utils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * In-process H2 database in MySQL mode, so the application, its tools and the benchmarks run without a MySQL
+ * server. An empty database is created from {@code sql/data.sql} on first connection.
+ * <ul>
+ *     <li>{@code -Dsm.db.embedded.path=target/sm}: keep the database in files at that path instead of in memory
+ *     (seeded only the first time)</li>
+ *     <li>{@code -Dsm.db.embedded.seed=schema}: create the tables without the sample rows, e.g. to load a
+ *     generated data set</li>
+ * </ul>
+ */
+public class EmbeddedProfile implements ConnectionProfile {
+
+    private static final Log LOG = Log.get(EmbeddedProfile.class);
+
+    public enum Seed {
+        /** Schema and sample rows, as {@code data.sql} creates them on MySQL. */
+        DATA,
+        /** Empty tables ({@code schema_history} is still filled, the schema being the latest one). */
+        SCHEMA
+    }
+
+    /** MySQL dialect, lower-case identifiers as MySQL on Linux, and {@code value} usable as a column name. */
+    static final String OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=VALUE";
+
+    private static final String DATA_SQL = "/com/ensa/v2school/sm/sql/data.sql";
+
+    @Override
+    public PoolConfig poolConfig() {
+        String path = System.getProperty("sm.db.embedded.path");
+        String url = path != null
+                ? "jdbc:h2:file:" + path + OPTIONS
+                : "jdbc:h2:mem:school_management" + OPTIONS + ";DB_CLOSE_DELAY=-1"; // kept while the pool recycles connections
+        return PoolConfig.fromSystemProperties(url, "sa", "");
+    }
+
+    @Override
+    public void initialize(DataSource dataSource) throws SQLException {
+        Seed seed = Seed.valueOf(System.getProperty("sm.db.embedded.seed", Seed.DATA.name()).toUpperCase(Locale.ROOT));
+
+        try (Connection con = dataSource.getConnection()) {
+            if (hasTables(con)) {
+                return;
+            }
+            long start = System.nanoTime();
+            int executed = 0;
+            try (Statement st = con.createStatement()) {
+                for (String statement : SqlScript.statements(SqlScript.read(DATA_SQL))) {
+                    if (skipped(statement, seed)) {
+                        continue;
+                    }
+                    st.execute(statement);
+                    executed++;
+                }
+            }
+            LOG.info("Embedded database seeded from data.sql",
+                    "seed", seed, "statements", executed, "ms", (System.nanoTime() - start) / 1_000_000);
+
+        } catch (SQLException e) {
+            LOG.error("Error seeding embedded database", e);
+            throw e;
+        }
+    }
+
+    private static boolean hasTables(Connection con) throws SQLException {
+        try (ResultSet rs = con.getMetaData().getTables(null, con.getSchema(), "%", new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * The database-level statements of {@code data.sql} ({@code DROP/CREATE DATABASE}, {@code USE}) have no
+     * meaning in process; in {@link Seed#SCHEMA} mode neither have the sample rows.
+     */
+    private static boolean skipped(String statement, Seed seed) {
+        String upper = statement.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("DROP DATABASE") || upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")) {
+            return true;
+        }
+        return seed == Seed.SCHEMA && upper.startsWith("INSERT INTO") && !upper.startsWith("INSERT INTO SCHEMA_HISTORY");
+    }
+}
@@ -0,0 +1,105 @@
+package com.ensa.v2school.sm.utils;
+
+import com.ensa.v2school.sm.DAO.SqlCall;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small read-through cache for reference data (majors, subjects) that is read constantly and rarely written.
+ * <p>
+ * Entries expire after a TTL and the least recently used ones are evicted past {@code maxEntries}.
+ * Repositories call {@link #invalidateAll()} from their write paths; a load that was running while
+ * the cache got invalidated is returned to its caller but not stored.
+ */
+public class EntityCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EntityCache(String name, int maxEntries, long ttl, TimeUnit unit) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Builds a cache sized by the {@code sm.cache.maxEntries} / {@code sm.cache.ttlSeconds} system properties.
+     */
+    public static <K, V> EntityCache<K, V> fromSystemProperties(String name) {
+        return new EntityCache<>(name,
+                Integer.getInteger("sm.cache.maxEntries", 1000),
+                Long.getLong("sm.cache.ttlSeconds", 300), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or runs {@code loader} and caches its result.
+     * The loader runs outside the lock, so a slow query never blocks readers of other keys.
+     */
+    public V get(K key, SqlCall<V> loader) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        V value = loader.call();
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry<>(value, System.nanoTime()));
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        invalidations.incrementAndGet();
+    }
+
+    public String getName() { return name; }
+    public synchronized int size() { return entries.size(); }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getInvalidations() { return invalidations.get(); }
+
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+}
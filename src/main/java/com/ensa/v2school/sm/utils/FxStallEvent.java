@@ -0,0 +1,25 @@
+package com.ensa.v2school.sm.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a period during which the JavaFX Application Thread could not process events,
+ * detected by {@link FxStallMonitor}. The stack trace of the committing thread is meaningless, the FX thread's own
+ * stack is sampled into {@link #blockedIn} instead.
+ */
+@Name("com.ensa.v2school.sm.FxStall")
+@Label("JavaFX Thread Stall")
+@Category({"School Management", "JavaFX"})
+@Description("The JavaFX Application Thread was busy or blocked: the UI did not respond")
+@StackTrace(false)
+final class FxStallEvent extends Event {
+
+    @Label("Blocked In")
+    @Description("Stack of the JavaFX Application Thread once the stall threshold was reached")
+    String blockedIn;
+}
@@ -0,0 +1,75 @@
+package com.ensa.v2school.sm.utils;
+
+import javafx.application.Platform;
+import jdk.jfr.EventType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects blocking work on the JavaFX Application Thread: a background thread posts an empty task with
+ * {@link Platform#runLater} and, if it has not run after {@code sm.fx.stallThresholdMs} (100 by default),
+ * samples the FX thread's stack and records an {@link FxStallEvent} lasting until the task finally runs.
+ * <p>
+ * Only active while a Flight Recorder recording has the event enabled; otherwise the thread just wakes up
+ * once per threshold to check.
+ */
+public final class FxStallMonitor {
+
+    private static final long THRESHOLD_MS = Long.getLong("sm.fx.stallThresholdMs", 100);
+    private static final int MAX_FRAMES = 32;
+
+    private FxStallMonitor() {
+    }
+
+    /** Must be called on the JavaFX Application Thread, e.g. from {@code Application.start}. */
+    public static void start() {
+        Thread fxThread = Thread.currentThread();
+        EventType type = EventType.getEventType(FxStallEvent.class);
+        Thread monitor = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(THRESHOLD_MS);
+                    if (type.isEnabled()) {
+                        probe(fxThread);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IllegalStateException e) {
+                // the toolkit has exited
+            }
+        }, "fx-stall-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    private static void probe(Thread fxThread) throws InterruptedException {
+        FxStallEvent event = new FxStallEvent();
+        CountDownLatch ran = new CountDownLatch(1);
+        event.begin();
+        Platform.runLater(ran::countDown);
+        if (ran.await(THRESHOLD_MS, TimeUnit.MILLISECONDS)) {
+            return;
+        }
+
+        String blockedIn = format(fxThread.getStackTrace());
+        ran.await();
+        event.end();
+        if (event.shouldCommit()) {
+            event.blockedIn = blockedIn;
+            event.commit();
+        }
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, MAX_FRAMES); i++) {
+            sb.append(stack[i]).append('\n');
+        }
+        if (stack.length > MAX_FRAMES) {
+            sb.append("... ").append(stack.length - MAX_FRAMES).append(" more\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.ensa.v2school.sm.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured, asynchronous logging: a call checks the level, then copies its arguments into a slot of a
+ * lock-free {@link LogRingBuffer} and returns. Formatting and file I/O happen on the {@code log-writer} thread,
+ * so logging never blocks the JavaFX Application Thread or a DAO call on the disk.
+ * <pre>
+ * private static final Log LOG = Log.get(StudentRepository.class);
+ * LOG.error("Error creating student", e);
+ * LOG.info("Applied schema migration", "version", 5, "ms", elapsed);
+ * </pre>
+ * Messages are constants; variable data goes in key/value pairs, and a trailing {@link Throwable} is the error
+ * of the record. Values are formatted later by the writer thread, so they should be immutable (strings, numbers,
+ * ids) rather than entities still being edited. When the buffer is full, records are dropped and counted rather
+ * than waited for.
+ * <ul>
+ *     <li>{@code -Dsm.log.level=DEBUG}: lowest level recorded (default {@code INFO})</li>
+ *     <li>{@code -Dsm.log.file=logs/school-management.log}: JSON lines, rotated past {@code sm.log.maxBytes}
+ *     (10 MB) keeping {@code sm.log.files} (5) old files</li>
+ *     <li>{@code -Dsm.log.console=WARN}: lowest level also echoed to {@code System.err}, {@code OFF} for none</li>
+ *     <li>{@code -Dsm.log.bufferSize=8192}: slots of the ring buffer, rounded up to a power of two</li>
+ * </ul>
+ */
+public final class Log {
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static volatile Level threshold = level("sm.log.level", Level.INFO);
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    public static Log get(Class<?> owner) {
+        return new Log(owner.getSimpleName());
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    /** Records dropped so far because the writer thread could not keep up. */
+    public static long getDropped() {
+        return Writer.INSTANCE.buffer.getDropped();
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0 && level != Level.OFF;
+    }
+
+    public void debug(String message, Object... fields) {
+        if (isEnabled(Level.DEBUG)) {
+            Writer.INSTANCE.publish(Level.DEBUG, name, message, fields);
+        }
+    }
+
+    public void info(String message, Object... fields) {
+        if (isEnabled(Level.INFO)) {
+            Writer.INSTANCE.publish(Level.INFO, name, message, fields);
+        }
+    }
+
+    public void warn(String message, Object... fields) {
+        if (isEnabled(Level.WARN)) {
+            Writer.INSTANCE.publish(Level.WARN, name, message, fields);
+        }
+    }
+
+    public void error(String message, Object... fields) {
+        if (isEnabled(Level.ERROR)) {
+            Writer.INSTANCE.publish(Level.ERROR, name, message, fields);
+        }
+    }
+
+    private static Level level(String property, Level defaultLevel) {
+        return Level.valueOf(System.getProperty(property, defaultLevel.name()).toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * The single consumer of the ring buffer, started with the first record.
+     */
+    private static final class Writer {
+        private static final Writer INSTANCE = new Writer();
+
+        private static final long IDLE_PARK_NANOS = 10_000_000;
+
+        private final LogRingBuffer buffer = new LogRingBuffer(Integer.getInteger("sm.log.bufferSize", 8192));
+        private final RollingFileAppender appender;
+        private final Thread thread;
+        private volatile boolean stopping;
+        private long droppedReported;
+
+        private Writer() {
+            appender = new RollingFileAppender(
+                    Path.of(System.getProperty("sm.log.file", "logs/school-management.log")),
+                    Long.getLong("sm.log.maxBytes", 10L * 1024 * 1024),
+                    Integer.getInteger("sm.log.files", 5),
+                    level("sm.log.console", Level.WARN));
+            thread = new Thread(this::run, "log-writer");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "log-writer-shutdown"));
+        }
+
+        private void publish(Level level, String logger, String message, Object[] fields) {
+            buffer.offer(level, logger, Thread.currentThread().getName(), message, fields);
+        }
+
+        private void run() {
+            while (!stopping) {
+                if (drain() == 0) {
+                    appender.flush(); // only when idle: a burst is written in as few system calls as possible
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+
+        private int drain() {
+            int written = buffer.drain(appender::append);
+            long dropped = buffer.getDropped();
+            if (dropped != droppedReported) {
+                appender.append(System.currentTimeMillis(), Level.WARN, "Log", thread.getName(),
+                        "Log records dropped, buffer full", new Object[]{"dropped", dropped - droppedReported});
+                droppedReported = dropped;
+            }
+            return written;
+        }
+
+        /** Writes what is left in the buffer when the JVM exits. */
+        private void stop() {
+            stopping = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                return; // still writing: two consumers would corrupt the buffer
+            }
+            drain();
+            try {
+                appender.close();
+            } catch (IOException e) {
+                System.err.println("Error closing log file: " + e.getMessage());
+            }
+        }
+    }
+}
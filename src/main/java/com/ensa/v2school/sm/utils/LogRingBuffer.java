@@ -0,0 +1,87 @@
+package com.ensa.v2school.sm.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer, single-consumer queue of log records over preallocated slots: producers claim a
+ * sequence number with one CAS, fill the slot and publish it by writing its sequence; the consumer reads the
+ * slots in sequence order. No lock, and no allocation per record beyond the caller's arguments.
+ */
+final class LogRingBuffer {
+
+    /** Receives the records in the order they were published. */
+    @FunctionalInterface
+    interface Sink {
+        void accept(long time, Log.Level level, String logger, String thread, String message, Object[] fields);
+    }
+
+    private static final class Slot {
+        private volatile long sequence = -1;
+        private long time;
+        private Log.Level level;
+        private String logger;
+        private String thread;
+        private String message;
+        private Object[] fields;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final LongAdder dropped = new LongAdder();
+
+    LogRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+    }
+
+    /** Any thread. Returns false, and counts the record as dropped, when every slot is taken. */
+    boolean offer(Log.Level level, String logger, String thread, String message, Object[] fields) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.time = System.currentTimeMillis();
+        slot.level = level;
+        slot.logger = logger;
+        slot.thread = thread;
+        slot.message = message;
+        slot.fields = fields;
+        slot.sequence = sequence; // publishes the writes above to the consumer
+        return true;
+    }
+
+    /** Consumer thread only. Hands every record published so far to {@code sink}; returns how many. */
+    int drain(Sink sink) {
+        long next = consumed;
+        int count = 0;
+        while (true) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.sequence != next) {
+                break;
+            }
+            sink.accept(slot.time, slot.level, slot.logger, slot.thread, slot.message, slot.fields);
+            slot.message = null;
+            slot.fields = null; // let the arguments be collected
+            consumed = ++next; // frees the slot for producers
+            count++;
+        }
+        return count;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+}
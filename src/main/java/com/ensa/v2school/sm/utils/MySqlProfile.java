@@ -0,0 +1,17 @@
+package com.ensa.v2school.sm.utils;
+
+/**
+ * The local MySQL server the application was written against, schema created by {@code sql/data.sql}
+ * and kept current by the schema migrations.
+ */
+public class MySqlProfile implements ConnectionProfile {
+
+    private static final String URL = "jdbc:mysql://localhost:3306/school_management";
+    private static final String USER = "root";
+    private static final String PASSWORD = "mamapapa123";
+
+    @Override
+    public PoolConfig poolConfig() {
+        return PoolConfig.fromSystemProperties(URL, USER, PASSWORD);
+    }
+}
@@ -0,0 +1,148 @@
+package com.ensa.v2school.sm.utils;
+
+import com.ensa.v2school.sm.DAO.AsyncCRUD;
+import javafx.collections.ObservableListBase;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Read-only list of a known size whose rows are fetched page by page, only when a virtualised control
+ * (e.g. a {@code TableView}) asks for them. Rows not loaded yet read as {@code null}; once their page
+ * arrives the list fires a replace change and the visible cells repaint.
+ * <p>
+ * Pages are fetched by keyset ({@code key > lastKeyOfPreviousPage}) and at most {@code maxCachedPages}
+ * are kept in memory, so heap use stays flat whatever the table size.
+ *
+ * @param <T> row type
+ * @param <K> type of the ordering key (e.g. the student id)
+ */
+public class PagedObservableList<T, K> extends ObservableListBase<T> {
+
+    private static final Log LOG = Log.get(PagedObservableList.class);
+
+    /** Loads up to {@code limit} rows ordered by key, strictly after {@code afterKey} (null = from the start). */
+    @FunctionalInterface
+    public interface PageLoader<T, K> {
+        List<T> load(K afterKey, int limit) throws SQLException;
+    }
+
+    /** Returns the key {@code skip} rows after {@code afterKey} (null = from the start). */
+    @FunctionalInterface
+    public interface KeyLocator<K> {
+        Optional<K> locate(K afterKey, int skip) throws SQLException;
+    }
+
+    private final int size;
+    private final int pageSize;
+    private final AsyncCRUD<?, ?> executor;
+    private final PageLoader<T, K> loader;
+    private final KeyLocator<K> locator;
+    private final Function<T, K> keyOf;
+
+    private final Map<Integer, List<T>> pages;
+    /** page number -> key of its last row, i.e. the {@code afterKey} of the next page */
+    private final TreeMap<Integer, K> anchors = new TreeMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    /**
+     * @param executor any async repository, used to run the page queries off the FX thread
+     */
+    public PagedObservableList(int size, int pageSize, int maxCachedPages, AsyncCRUD<?, ?> executor,
+                               PageLoader<T, K> loader, KeyLocator<K> locator, Function<T, K> keyOf) {
+        this.size = size;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.loader = loader;
+        this.locator = locator;
+        this.keyOf = keyOf;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void requestPage(int page) {
+        if (!loading.add(page)) {
+            return; // already on its way
+        }
+
+        // snapshot the nearest known anchor on the FX thread, the worker must not touch the map
+        Map.Entry<Integer, K> known = page == 0 ? null : anchors.floorEntry(page - 1);
+        boolean anchorKnown = known != null && known.getKey() == page - 1;
+
+        executor.call(() -> {
+                    K afterKey = null;
+                    if (page > 0) {
+                        if (anchorKnown) {
+                            afterKey = known.getValue();
+                        } else {
+                            // rows between the known anchor (or the start) and the last row of the previous page
+                            int base = known == null ? 0 : (known.getKey() + 1) * pageSize;
+                            int skip = page * pageSize - 1 - base;
+                            afterKey = locator.locate(known == null ? null : known.getValue(), skip).orElse(null);
+                        }
+                        if (afterKey == null) {
+                            return new LoadedPage<T, K>(null, List.of()); // rows were deleted since the count
+                        }
+                    }
+                    return new LoadedPage<>(afterKey, loader.load(afterKey, pageSize));
+                })
+                .thenAccept(loaded -> onPageLoaded(page, loaded))
+                .whenComplete((ignored, error) -> {
+                    loading.remove(page);
+                    if (error != null) {
+                        LOG.error("Error loading page", "page", page, error);
+                    }
+                });
+    }
+
+    private void onPageLoaded(int page, LoadedPage<T, K> loaded) {
+        if (page > 0 && loaded.afterKey() != null) {
+            anchors.put(page - 1, loaded.afterKey());
+        }
+        if (!loaded.rows().isEmpty()) {
+            anchors.put(page, keyOf.apply(loaded.rows().get(loaded.rows().size() - 1)));
+        }
+        pages.put(page, loaded.rows());
+
+        int from = page * pageSize;
+        int to = Math.min(from + pageSize, size);
+        beginChange();
+        for (int i = from; i < to; i++) {
+            nextSet(i, null);
+        }
+        endChange();
+    }
+
+    private record LoadedPage<T, K>(K afterKey, List<T> rows) {}
+}
@@ -0,0 +1,108 @@
+package com.ensa.v2school.sm.utils;
+
+import java.util.Properties;
+
+/**
+ * Settings of the {@link ConnectionPool}. Every value can be overridden with a
+ * system property (e.g. {@code -Dsm.db.pool.maxSize=20}).
+ */
+public class PoolConfig {
+    private String url;
+    private String user;
+    private String password;
+    private Properties driverProperties = new Properties();
+
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long connectionTimeoutMs = 10_000;
+    private long idleTimeoutMs = 5 * 60_000;
+    private long housekeepingIntervalMs = 30_000;
+    private int validationTimeoutSeconds = 2;
+    private boolean validateOnBorrow = true;
+    private long leakDetectionThresholdMs = 30_000;
+    private int statementCacheSize = 64;
+
+    public PoolConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Builds a config from the given defaults, overridden by the {@code sm.db.*} system properties.
+     */
+    public static PoolConfig fromSystemProperties(String url, String user, String password) {
+        PoolConfig config = new PoolConfig(
+                System.getProperty("sm.db.url", url),
+                System.getProperty("sm.db.user", user),
+                System.getProperty("sm.db.password", password)
+        );
+        config.setMinIdle(Integer.getInteger("sm.db.pool.minIdle", config.getMinIdle()));
+        config.setMaxSize(Integer.getInteger("sm.db.pool.maxSize", config.getMaxSize()));
+        config.setConnectionTimeoutMs(Long.getLong("sm.db.pool.connectionTimeoutMs", config.getConnectionTimeoutMs()));
+        config.setIdleTimeoutMs(Long.getLong("sm.db.pool.idleTimeoutMs", config.getIdleTimeoutMs()));
+        config.setHousekeepingIntervalMs(Long.getLong("sm.db.pool.housekeepingIntervalMs", config.getHousekeepingIntervalMs()));
+        config.setValidationTimeoutSeconds(Integer.getInteger("sm.db.pool.validationTimeoutSeconds", config.getValidationTimeoutSeconds()));
+        config.setValidateOnBorrow(Boolean.parseBoolean(
+                System.getProperty("sm.db.pool.validateOnBorrow", String.valueOf(config.isValidateOnBorrow()))));
+        config.setLeakDetectionThresholdMs(Long.getLong("sm.db.pool.leakDetectionThresholdMs", config.getLeakDetectionThresholdMs()));
+        config.setStatementCacheSize(Integer.getInteger("sm.db.pool.statementCacheSize", config.getStatementCacheSize()));
+
+        if (config.getUrl().startsWith("jdbc:mysql:")) {
+            // Connector/J sends a batch as one statement per row unless told to rewrite it
+            // into multi-row INSERTs (generated keys are still returned for each row)
+            config.getDriverProperties().setProperty("rewriteBatchedStatements", "true");
+            // real server-side prepares, kept alive by the pool's statement cache; the driver's own
+            // cache stays off since it would only duplicate ours
+            config.getDriverProperties().setProperty("useServerPrepStmts", "true");
+        }
+        // any other driver setting, e.g. -Dsm.db.driver.useServerPrepStmts=true
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("sm.db.driver.")) {
+                config.getDriverProperties().setProperty(name.substring("sm.db.driver.".length()), System.getProperty(name));
+            }
+        }
+        return config;
+    }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getUser() { return user; }
+    public void setUser(String user) { this.user = user; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public Properties getDriverProperties() { return driverProperties; }
+    public void setDriverProperties(Properties driverProperties) { this.driverProperties = driverProperties; }
+
+    public int getMinIdle() { return minIdle; }
+    public void setMinIdle(int minIdle) { this.minIdle = minIdle; }
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+    public long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) { this.connectionTimeoutMs = connectionTimeoutMs; }
+
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public void setIdleTimeoutMs(long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; }
+
+    public long getHousekeepingIntervalMs() { return housekeepingIntervalMs; }
+    public void setHousekeepingIntervalMs(long housekeepingIntervalMs) { this.housekeepingIntervalMs = housekeepingIntervalMs; }
+
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+
+    public boolean isValidateOnBorrow() { return validateOnBorrow; }
+    public void setValidateOnBorrow(boolean validateOnBorrow) { this.validateOnBorrow = validateOnBorrow; }
+
+    /** 0 disables leak detection. */
+    public long getLeakDetectionThresholdMs() { return leakDetectionThresholdMs; }
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) { this.leakDetectionThresholdMs = leakDetectionThresholdMs; }
+
+    /** Idle prepared statements kept per connection; 0 disables the cache. */
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public void setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = statementCacheSize; }
+}
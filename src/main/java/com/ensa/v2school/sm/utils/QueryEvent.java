@@ -0,0 +1,37 @@
+package com.ensa.v2school.sm.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of one repository call, spanning the same interval as its {@link QueryMetrics} span.
+ * The thread and stack trace tell which screen made the call.
+ */
+@Name("com.ensa.v2school.sm.Query")
+@Label("Repository Query")
+@Category({"School Management", "Database"})
+@Description("A repository method, from the connection request to the connection being closed")
+final class QueryEvent extends Event {
+
+    @Label("Query")
+    @Description("Repository and method, e.g. StudentRepository.findByMajor")
+    String query;
+
+    @Label("SQL")
+    @Description("The first statement the call prepared or executed")
+    String sql;
+
+    @Label("Statements")
+    @Description("Statements executed during the call")
+    int statements;
+
+    @Label("Rows")
+    @Description("Rows read from result sets plus rows reported by updates and batches")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,342 @@
+package com.ensa.v2school.sm.utils;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Latency, row and error counts of every repository method, exported as MXBeans under
+ * {@code com.ensa.v2school.sm:type=Queries} (attach JConsole or VisualVM to the running application).
+ * <p>
+ * Nothing has to be added to the repositories: each {@link DataBaseConnection#getConnection()} opens a span that
+ * is attributed to the repository method asking for the connection and ends when that connection is closed,
+ * which every repository method does before returning. The outermost method of the same class wins, so
+ * {@code UserRepository.authenticate} is measured as such rather than as the {@code findByUsername} it delegates
+ * to, and {@code SubjectRepository.findByMajorId} rather than its cache loader. Calls served from
+ * {@link EntityCache} never reach the database and only show up in the cache's hit count.
+ * <p>
+ * The method is found by walking the stack, and is only as precise as that rule: a private helper shared by two
+ * public methods is credited to whichever of them called it, and only frames of the same class are folded, so a
+ * repository delegating to another one is measured as the method of the other. Connections taken from the pool directly are not measured at all: the profile's
+ * initialisation and the schema migrations at startup, or any {@code getPool().getConnection()}. Code that needs
+ * a second connection asks for it with {@link DataBaseConnection#getConnection(ConnectionMode)} instead.
+ * <p>
+ * Rows are counted through the connection: rows read from result sets plus the update counts of
+ * {@code executeUpdate}/{@code executeBatch}; errors are calls to the connection, its statements or
+ * {@code ResultSet.next} during which the driver threw.
+ * Each span is also a {@link QueryEvent} in Flight Recorder recordings.
+ * <p>
+ * The cost is a short stack walk per connection (a few microseconds) and a counter increment per row read;
+ * {@code -Dsm.metrics=false} turns the whole thing off.
+ */
+public final class QueryMetrics {
+
+    private static final Log LOG = Log.get(QueryMetrics.class);
+    private static final String UTILS_PACKAGE = QueryMetrics.class.getPackageName();
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private static final class Holder {
+        private static final QueryMetrics INSTANCE = new QueryMetrics();
+    }
+
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty("sm.metrics", "true"));
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    /** Stats of each calling class by frame method name (lambdas not yet folded into their enclosing method). */
+    private final ClassValue<Map<String, QueryStats>> byCaller = new ClassValue<>() {
+        @Override
+        protected Map<String, QueryStats> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private QueryMetrics() {
+    }
+
+    public static QueryMetrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Every method measured so far, by repository then method name. */
+    public List<QueryStats> all() {
+        return stats.values().stream()
+                .sorted(Comparator.comparing(QueryStats::getRepository).thenComparing(QueryStats::getMethod))
+                .toList();
+    }
+
+    public void resetAll() {
+        stats.values().forEach(QueryStats::reset);
+    }
+
+    /**
+     * Starts measuring the repository method that is calling {@link DataBaseConnection#getConnection()}, or joins
+     * the span it already has open (a nested call within the same repository). Null when metrics are disabled.
+     */
+    Span begin() {
+        if (!enabled) {
+            return null;
+        }
+        StackWalker.StackFrame caller = WALKER.walk(QueryMetrics::caller);
+        if (caller == null) {
+            return null;
+        }
+        QueryStats target = byCaller.get(caller.getDeclaringClass())
+                .computeIfAbsent(caller.getMethodName(), method -> stats(caller.getDeclaringClass(), method));
+
+        Span open = current.get();
+        if (open != null && open.stats == target) {
+            open.depth++;
+            return open;
+        }
+        Span span = new Span(target, open);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Outermost consecutive frame of the first class outside this package. Frames of this package
+     * ({@link EntityCache}, ...) are looked through.
+     */
+    private static StackWalker.StackFrame caller(Stream<StackWalker.StackFrame> frames) {
+        StackWalker.StackFrame caller = null;
+        for (Iterator<StackWalker.StackFrame> it = frames.iterator(); it.hasNext(); ) {
+            StackWalker.StackFrame frame = it.next();
+            Class<?> type = frame.getDeclaringClass();
+            if (type.getPackageName().equals(UTILS_PACKAGE)) {
+                continue;
+            }
+            if (caller != null && caller.getDeclaringClass() != type) {
+                break;
+            }
+            caller = frame;
+        }
+        return caller;
+    }
+
+    /** Stats of {simple class name, method}, lambdas named after their enclosing method. */
+    private QueryStats stats(Class<?> type, String method) {
+        String repository = type.getName().substring(type.getName().lastIndexOf('.') + 1);
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = method.substring("lambda$".length(), end > 0 ? end : method.length());
+        }
+        String name = method;
+        return stats.computeIfAbsent(repository + '.' + name, k -> register(repository, name));
+    }
+
+    private static QueryStats register(String repository, String method) {
+        QueryStats queryStats = new QueryStats(repository, method);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(queryStats,
+                    new ObjectName("com.ensa.v2school.sm:type=Queries,repository=" + repository + ",name=" + method));
+        } catch (JMException e) {
+            LOG.warn("Error registering query metrics", e);
+        }
+        return queryStats;
+    }
+
+    /**
+     * One call of a repository method, from the connection request to the connection being closed.
+     * Only touched by the calling thread.
+     */
+    final class Span {
+        private final QueryStats stats;
+        private final Span parent;
+        private final long start = System.nanoTime();
+        private final QueryEvent event = new QueryEvent();
+        private int depth = 1;
+        private long rows;
+        private boolean failed;
+        private String sql;
+        private int statements;
+
+        private Span(QueryStats stats, Span parent) {
+            this.stats = stats;
+            this.parent = parent;
+            event.begin();
+        }
+
+        /** Returns {@code con} wrapped so that its statements count rows and errors, and closing it ends the span. */
+        Connection attach(Connection con) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnectionHandler(this, con));
+        }
+
+        /** The connection could not be obtained. */
+        void fail() {
+            failed = true;
+            end();
+        }
+
+        private void end() {
+            if (--depth > 0) {
+                return;
+            }
+            if (current.get() == this) {
+                if (parent == null) {
+                    current.remove();
+                } else {
+                    current.set(parent);
+                }
+            }
+            stats.record(System.nanoTime() - start, rows, failed);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = stats.getRepository() + "." + stats.getMethod();
+                event.sql = sql;
+                event.statements = statements;
+                event.rows = rows;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+
+        void rowRead() {
+            rows++;
+        }
+
+        void markFailed() {
+            failed = true;
+        }
+
+        private void sql(Object[] args) {
+            if (sql == null && args != null && args.length > 0 && args[0] instanceof String text) {
+                sql = text;
+            }
+        }
+
+        private Object call(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    failed = true;
+                }
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Span span;
+        private final Connection target;
+        private boolean closed;
+
+        private ConnectionHandler(Span span, Connection target) {
+            this.span = span;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        try {
+                            target.close();
+                        } finally {
+                            span.end();
+                        }
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "prepareStatement", "prepareCall":
+                    span.sql(args);
+                    break;
+                default:
+            }
+            Object result = span.call(target, method, args);
+            if (result instanceof Statement statement) {
+                // createStatement, prepareStatement or prepareCall: proxy the interface that was asked for
+                return Proxy.newProxyInstance(
+                        Statement.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new StatementHandler(span, statement, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Span span;
+        private final Statement target;
+        private final Connection connection;
+
+        private StatementHandler(Span span, Statement target, Connection connection) {
+            this.span = span;
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+            }
+            if (method.getName().startsWith("execute")) {
+                span.statements++;
+                span.sql(args);
+            }
+            Object result = span.call(target, method, args);
+            switch (method.getName()) {
+                case "executeQuery", "getResultSet" -> {
+                    if (result != null) {
+                        return new MeteredResultSet(span, (ResultSet) result, (Statement) proxy);
+                    }
+                }
+                case "executeUpdate" -> span.rows += (Integer) result;
+                case "executeLargeUpdate" -> span.rows += (Long) result;
+                case "executeBatch" -> {
+                    for (int count : (int[]) result) {
+                        span.rows += updated(count);
+                    }
+                }
+                case "executeLargeBatch" -> {
+                    for (long count : (long[]) result) {
+                        span.rows += updated(count);
+                    }
+                }
+                default -> {
+                }
+            }
+            return result;
+        }
+
+        /** Rewritten batches report {@link Statement#SUCCESS_NO_INFO}: count them as one row. */
+        private static long updated(long count) {
+            return count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+    }
+}
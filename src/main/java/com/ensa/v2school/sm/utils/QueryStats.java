@@ -0,0 +1,90 @@
+package com.ensa.v2school.sm.utils;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one repository method, fed by {@link QueryMetrics}.
+ */
+public class QueryStats implements QueryStatsMXBean {
+
+    private final String repository;
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    QueryStats(String repository, String method) {
+        this.repository = repository;
+        this.method = method;
+    }
+
+    void record(long nanos, long rowCount, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        rows.add(rowCount);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        latencies.record(nanos);
+    }
+
+    @Override
+    public String getRepository() { return repository; }
+
+    @Override
+    public String getMethod() { return method; }
+
+    @Override
+    public long getCalls() { return calls.sum(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public double getMeanMillis() {
+        long n = calls.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    @Override
+    public double getMaxMillis() { return maxNanos.get() / 1e6; }
+
+    @Override
+    public double getP50Millis() { return percentile(0.50); }
+
+    @Override
+    public double getP99Millis() { return percentile(0.99); }
+
+    @Override
+    public double getP999Millis() { return percentile(0.999); }
+
+    /** Bucket bounds can overshoot the slowest call actually seen. */
+    private double percentile(double quantile) {
+        return Math.min(latencies.percentileMillis(quantile), getMaxMillis());
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        latencies.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s: %d calls, %d errors, %d rows, p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                repository, method, getCalls(), getErrors(), getRows(),
+                getP50Millis(), getP99Millis(), getP999Millis(), getMaxMillis());
+    }
+}
@@ -0,0 +1,31 @@
+package com.ensa.v2school.sm.utils;
+
+/**
+ * What JConsole shows for one repository method, under {@code com.ensa.v2school.sm:type=Queries}.
+ * Latencies are in milliseconds.
+ */
+public interface QueryStatsMXBean {
+
+    String getRepository();
+
+    String getMethod();
+
+    long getCalls();
+
+    long getErrors();
+
+    /** Rows read from result sets plus rows reported by updates and batches. */
+    long getRows();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    void reset();
+}
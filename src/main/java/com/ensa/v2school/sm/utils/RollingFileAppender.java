@@ -0,0 +1,182 @@
+package com.ensa.v2school.sm.utils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Writes log records as JSON lines through a {@link ChannelWriter}, and echoes the important ones to
+ * {@code System.err}. Past {@code maxBytes} the file is renamed {@code .1} (the previous {@code .1} becoming
+ * {@code .2}, and so on up to {@code maxFiles}) and a new one started. Used by the log writer thread only.
+ */
+final class RollingFileAppender {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final Log.Level consoleLevel;
+    private final StringBuilder line = new StringBuilder(256);
+    private ChannelWriter out;
+    private long initialSize;
+    private boolean failed;
+
+    RollingFileAppender(Path file, long maxBytes, int maxFiles, Log.Level consoleLevel) {
+        this.file = file.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.consoleLevel = consoleLevel;
+    }
+
+    void append(long time, Log.Level level, String logger, String thread, String message, Object[] fields) {
+        try {
+            Throwable error = fields.length % 2 == 1 && fields[fields.length - 1] instanceof Throwable t ? t : null;
+            if (level.compareTo(consoleLevel) >= 0) {
+                System.err.println(console(level, logger, thread, message, fields, error));
+            }
+            if (failed) {
+                return;
+            }
+            format(time, level, logger, thread, message, fields, error);
+            write();
+        } catch (IOException | RuntimeException e) {
+            failed = true; // keep echoing to the console, but stop trying the file
+            System.err.println("Error writing log file " + file + ", file logging disabled: " + e);
+        }
+    }
+
+    void flush() {
+        if (out != null && !failed) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("Error writing log file " + file + ", file logging disabled: " + e);
+            }
+        }
+    }
+
+    void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    private void write() throws IOException {
+        if (out == null) {
+            open();
+        } else if (initialSize + out.getBytesWritten() >= maxBytes) {
+            rotate();
+        }
+        out.append(line);
+    }
+
+    private void open() throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = new ChannelWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        initialSize = Files.size(file);
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        Files.deleteIfExists(numbered(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(numbered(i))) {
+                Files.move(numbered(i), numbered(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, numbered(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        open();
+    }
+
+    private Path numbered(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    /** {"time":...,"level":...,"logger":...,"thread":...,"message":..., fields..., "error":..., "stack":...} */
+    private void format(long time, Log.Level level, String logger, String thread, String message,
+                        Object[] fields, Throwable error) {
+        line.setLength(0);
+        line.append("{\"time\":\"").append(Instant.ofEpochMilli(time)).append('"');
+        field("level", level.name());
+        field("logger", logger);
+        field("thread", thread);
+        field("message", message);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            field(String.valueOf(fields[i]), fields[i + 1]);
+        }
+        if (error != null) {
+            field("error", error.toString());
+            StringWriter stack = new StringWriter();
+            error.printStackTrace(new PrintWriter(stack));
+            field("stack", stack.toString());
+        }
+        line.append("}\n");
+    }
+
+    private void field(String key, Object value) {
+        line.append(",\"");
+        escape(key);
+        line.append("\":");
+        if (value instanceof Boolean || value instanceof Number && !nonFinite(value)) {
+            line.append(value);
+        } else if (value == null) {
+            line.append("null");
+        } else {
+            line.append('"');
+            escape(value.toString());
+            line.append('"');
+        }
+    }
+
+    private static boolean nonFinite(Object number) {
+        return number instanceof Double d && !Double.isFinite(d) || number instanceof Float f && !Float.isFinite(f);
+    }
+
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /** One line, as the application used to print: {@code ERROR [thread] Logger: message: error key=value}. */
+    private static String console(Log.Level level, String logger, String thread, String message,
+                                  Object[] fields, Throwable error) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(level).append(" [").append(thread).append("] ").append(logger).append(": ").append(message);
+        if (error != null) {
+            sb.append(": ").append(error.getMessage());
+        }
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            sb.append(' ').append(fields[i]).append('=').append(fields[i + 1]);
+        }
+        return sb.toString();
+    }
+}
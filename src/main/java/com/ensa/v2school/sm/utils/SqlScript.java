@@ -0,0 +1,57 @@
+package com.ensa.v2school.sm.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * SQL scripts shipped on the classpath ({@code sql/data.sql}, the schema migrations): statements end with
+ * {@code ;} at the end of a line and {@code --} lines are comments.
+ */
+public final class SqlScript {
+
+    private static final Pattern STATEMENT_END = Pattern.compile(";\\s*$", Pattern.MULTILINE);
+
+    private SqlScript() {
+    }
+
+    /**
+     * Reads a classpath resource, lines joined with {@code \n} whatever the line endings of the checkout.
+     *
+     * @throws IllegalStateException if there is no such resource
+     */
+    public static String read(String resource) {
+        InputStream in = SqlScript.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Missing SQL resource: " + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StringBuilder sql = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sql.append(line).append('\n');
+            }
+            return sql.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Splits a script into its statements, comments removed. */
+    public static List<String> statements(String script) {
+        String sql = script.replaceAll("(?m)^\\s*--.*$", "");
+        List<String> statements = new ArrayList<>();
+        for (String statement : STATEMENT_END.split(sql)) {
+            if (!statement.isBlank()) {
+                statements.add(statement.strip());
+            }
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ensa.v2school.sm.utils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idle prepared statements of one pooled physical connection, by SQL text and prepare options, least recently
+ * used evicted (and closed) past {@code maxSize}. A statement is taken out while a borrower uses it and put back
+ * when the borrower closes it, so two open statements never share a physical statement.
+ */
+final class StatementCache {
+
+    /**
+     * SQL and options of a {@code prepareStatement} call: {@code autoGeneratedKeys} for the two-argument form,
+     * result set type and concurrency for the three-argument form.
+     */
+    record Key(String sql, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency) {
+
+        /** @return the key of a {@code prepareStatement(...)} call, or null for variants that are not cached */
+        static Key of(Object[] args) {
+            if (args.length == 1) {
+                return new Key((String) args[0], -1, -1, -1);
+            }
+            if (args.length == 2 && args[1] instanceof Integer keys) {
+                return new Key((String) args[0], keys, -1, -1);
+            }
+            if (args.length == 3) {
+                return new Key((String) args[0], -1, (Integer) args[1], (Integer) args[2]);
+            }
+            return null; // column index/name arrays, holdability
+        }
+    }
+
+    private final int maxSize;
+    private final Map<Key, PreparedStatement> idle;
+
+    StatementCache(int maxSize, AtomicLong evictions) {
+        this.maxSize = maxSize;
+        this.idle = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /** @return the idle statement for {@code key}, removed from the cache, or null */
+    synchronized PreparedStatement take(Key key) {
+        return idle.remove(key);
+    }
+
+    /** @return false if the statement was not kept (an identical one is already idle); the caller then closes it */
+    synchronized boolean offer(Key key, PreparedStatement statement) {
+        if (idle.containsKey(key)) {
+            return false;
+        }
+        idle.put(key, statement);
+        return true;
+    }
+
+    synchronized void closeAll() {
+        List<PreparedStatement> statements = new ArrayList<>(idle.values());
+        idle.clear();
+        statements.forEach(StatementCache::closeQuietly);
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // the connection is probably gone, and the statement with it
+        }
+    }
+}
@@ -4,10 +4,12 @@ module com.ensa.v2school.sm {
     requires java.sql;
     requires static lombok;
     requires java.management;
+    requires jdk.jfr;
     requires javafx.graphics;
     requires java.desktop;
 
     exports com.ensa.v2school.sm;
+    exports com.ensa.v2school.sm.utils to java.management; // query metrics MXBeans
     opens com.ensa.v2school.sm to javafx.fxml;
     opens com.ensa.v2school.sm.Controllers to javafx.fxml;
     opens com.ensa.v2school.sm.Models to javafx.base;
@@ -0,0 +1,83 @@
+-- Schema as shipped by the original sql/data.sql, without its seed data.
+-- IF NOT EXISTS so that databases created from that script are adopted as version 1.
+
+-- TABLE: users
+CREATE TABLE IF NOT EXISTS users (
+  id INT NOT NULL AUTO_INCREMENT,
+  username VARCHAR(50) NOT NULL,
+  password VARCHAR(100) NOT NULL,
+  role ENUM('ADMIN','STUDENT') NOT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY username (username)
+) ENGINE=InnoDB;
+
+-- TABLE: majors
+CREATE TABLE IF NOT EXISTS majors (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(50) NOT NULL,
+  description TEXT,
+  PRIMARY KEY (id),
+  UNIQUE KEY name (name)
+) ENGINE=InnoDB;
+
+-- TABLE: students
+CREATE TABLE IF NOT EXISTS students (
+  id VARCHAR(20) NOT NULL,
+  user_id INT DEFAULT NULL,
+  first_name VARCHAR(50) NOT NULL,
+  last_name VARCHAR(50) NOT NULL,
+  average FLOAT DEFAULT 0,
+  major_id INT NOT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY user_id (user_id),
+  KEY major_id (major_id),
+  CONSTRAINT students_ibfk_1 FOREIGN KEY (user_id)
+    REFERENCES users (id) ON DELETE CASCADE,
+  CONSTRAINT students_ibfk_2 FOREIGN KEY (major_id)
+    REFERENCES majors (id) ON DELETE RESTRICT,
+  CONSTRAINT students_chk_1 CHECK (average >= 0 AND average <= 20)
+) ENGINE=InnoDB;
+
+-- TABLE: subjects
+CREATE TABLE IF NOT EXISTS subjects (
+  id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(100) NOT NULL,
+  PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+-- TABLE: student_subject
+CREATE TABLE IF NOT EXISTS student_subject (
+  student_id VARCHAR(20) NOT NULL,
+  subject_id INT NOT NULL,
+  PRIMARY KEY (student_id, subject_id),
+  KEY subject_id (subject_id),
+  CONSTRAINT student_subject_ibfk_1 FOREIGN KEY (student_id)
+    REFERENCES students (id) ON DELETE CASCADE,
+  CONSTRAINT student_subject_ibfk_2 FOREIGN KEY (subject_id)
+    REFERENCES subjects (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- TABLE: major_subject
+CREATE TABLE IF NOT EXISTS major_subject (
+  major_id INT NOT NULL,
+  subject_id INT NOT NULL,
+  PRIMARY KEY (major_id, subject_id),
+  KEY subject_id (subject_id),
+  CONSTRAINT major_subject_ibfk_1 FOREIGN KEY (major_id)
+    REFERENCES majors (id) ON DELETE CASCADE,
+  CONSTRAINT major_subject_ibfk_2 FOREIGN KEY (subject_id)
+    REFERENCES subjects (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- TABLE: dossier_administratif
+CREATE TABLE IF NOT EXISTS dossier_administratif (
+  id INT NOT NULL AUTO_INCREMENT,
+  numero_inscription VARCHAR(50) NOT NULL,
+  date_creation DATE NOT NULL,
+  eleve_id VARCHAR(20) NOT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY numero_inscription (numero_inscription),
+  UNIQUE KEY eleve_id (eleve_id),
+  CONSTRAINT dossier_administratif_ibfk_1 FOREIGN KEY (eleve_id)
+    REFERENCES students (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
@@ -0,0 +1,15 @@
+-- Marks, one per (student, subject). IF NOT EXISTS: older installs created this table by hand.
+CREATE TABLE IF NOT EXISTS marks (
+  id INT NOT NULL AUTO_INCREMENT,
+  studentId VARCHAR(20) NOT NULL,
+  subjectId INT NOT NULL,
+  value FLOAT NOT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY student_subject (studentId, subjectId),
+  KEY subjectId (subjectId),
+  CONSTRAINT marks_ibfk_1 FOREIGN KEY (studentId)
+    REFERENCES students (id) ON DELETE CASCADE,
+  CONSTRAINT marks_ibfk_2 FOREIGN KEY (subjectId)
+    REFERENCES subjects (id) ON DELETE CASCADE,
+  CONSTRAINT marks_chk_1 CHECK (value >= 0 AND value <= 20)
+) ENGINE=InnoDB;
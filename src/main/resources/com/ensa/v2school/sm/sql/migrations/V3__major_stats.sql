@@ -0,0 +1,20 @@
+-- Per-major running aggregates read by the statistics screen, see MajorStats.
+ALTER TABLE students ADD KEY major_average (major_id, average);
+
+CREATE TABLE major_stats (
+  major_id INT NOT NULL,
+  bin TINYINT NOT NULL,
+  student_count INT NOT NULL DEFAULT 0,
+  graded_count INT NOT NULL DEFAULT 0,
+  total DOUBLE NOT NULL DEFAULT 0,
+  total_sq DOUBLE NOT NULL DEFAULT 0,
+  PRIMARY KEY (major_id, bin),
+  CONSTRAINT major_stats_ibfk_1 FOREIGN KEY (major_id)
+    REFERENCES majors (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+INSERT INTO major_stats (major_id, bin, student_count, graded_count, total, total_sq)
+SELECT major_id, COALESCE(GREATEST(0, LEAST(FLOOR(average), 19)), -1) AS bin,
+       COUNT(*), COUNT(average), COALESCE(SUM(average), 0), COALESCE(SUM(average * average), 0)
+FROM students
+GROUP BY major_id, bin;
@@ -0,0 +1,12 @@
+-- Weighted averages computed from marks, see AverageRecomputation.
+ALTER TABLE subjects
+  ADD COLUMN coefficient FLOAT NOT NULL DEFAULT 1,
+  ADD CONSTRAINT subjects_chk_1 CHECK (coefficient > 0);
+
+CREATE TABLE student_average_dirty (
+  student_id VARCHAR(20) NOT NULL,
+  version INT NOT NULL DEFAULT 1,
+  PRIMARY KEY (student_id),
+  CONSTRAINT student_average_dirty_ibfk_1 FOREIGN KEY (student_id)
+    REFERENCES students (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
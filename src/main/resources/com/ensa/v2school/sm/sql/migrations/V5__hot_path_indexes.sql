@@ -0,0 +1,18 @@
+-- sm:online
+-- Indexes for the hot query paths, checked by tools.ExplainCheck.
+--
+-- Already served by existing keys, nothing to add:
+--   marks WHERE studentId = ? AND subjectId = ?       -> marks.student_subject (unique)
+--   students ORDER BY id LEFT JOIN dossier on eleve_id -> PRIMARY, then dossier_administratif.eleve_id (unique)
+--   major_subject / student_subject by subject_id     -> KEY subject_id; InnoDB appends the primary key,
+--                                                        so it already covers (subject_id, major_id / student_id)
+
+-- StudentRepository.searchByName: last_name prefix, ordered by (last_name, first_name)
+ALTER TABLE students ADD KEY name (last_name, first_name);
+
+-- StudentRepository.findPageByAverage: keyset on (average DESC, id DESC), read backwards
+ALTER TABLE students ADD KEY average (average, id);
+
+-- Covering for the per-student mark reads (MarkRepository.findByStudent, calculateStudentAverage,
+-- AverageRecomputation): every marks column they read is in the index, the id being the appended primary key.
+ALTER TABLE marks ADD KEY student_values (studentId, subjectId, value);
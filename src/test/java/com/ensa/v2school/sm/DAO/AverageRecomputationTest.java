@@ -0,0 +1,141 @@
+package com.ensa.v2school.sm.DAO;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AverageRecomputationTest {
+
+    /** Rows of {@code students} returned by the lock query: id, major_id, average (null when ungraded). */
+    private final List<Object[]> students = new ArrayList<>();
+    /** Parameters of every batched row, by SQL text. */
+    private final Map<String, List<Map<Integer, Object>>> batches = new HashMap<>();
+
+    private Connection connection() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> method.getName().equals("prepareStatement")
+                        ? statement((String) args[0])
+                        : null);
+    }
+
+    private PreparedStatement statement(String sql) {
+        Map<Integer, Object> params = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "setInt", "setFloat", "setDouble", "setString" -> params.put((Integer) args[0], args[1]);
+                    case "addBatch" -> {
+                        batches.computeIfAbsent(sql, k -> new ArrayList<>()).add(new TreeMap<>(params));
+                        params.clear();
+                        yield null;
+                    }
+                    case "executeBatch" -> new int[0];
+                    case "executeQuery" -> resultSet(students);
+                    default -> null;
+                });
+    }
+
+    /** A result set over {@code rows} (id, major_id, average) with JDBC's {@code wasNull} semantics. */
+    private static ResultSet resultSet(List<Object[]> rows) {
+        List<String> columns = List.of("id", "major_id", "average");
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++row[0] < rows.size();
+                        case "wasNull":
+                            return wasNull[0];
+                        case "close":
+                            return null;
+                        default:
+                    }
+                    Object value = rows.get(row[0])[columns.indexOf((String) args[0])];
+                    wasNull[0] = value == null;
+                    return switch (method.getName()) {
+                        case "getInt" -> value == null ? 0 : (Integer) value;
+                        case "getFloat" -> value == null ? 0f : (Float) value;
+                        default -> value;
+                    };
+                });
+    }
+
+    private List<AverageRecomputation.Computed> batch(AverageRecomputation.Computed... computed) {
+        return new ArrayList<>(Arrays.asList(computed));
+    }
+
+    /** The {@code major_stats} changes written, as {major_id, bin, student_count, graded_count}. */
+    private List<List<Object>> statsDeltas() {
+        List<List<Object>> deltas = new ArrayList<>();
+        for (Map<Integer, Object> params : batches.getOrDefault(MajorStats.APPLY_SQL, List.of())) {
+            deltas.add(List.of(params.get(1), params.get(2), params.get(3), params.get(4)));
+        }
+        deltas.sort((a, b) -> Integer.compare((Integer) a.get(1), (Integer) b.get(1)));
+        return deltas;
+    }
+
+    @Test
+    void ungradedStudentLeavesTheNoAverageBin() throws SQLException {
+        students.add(new Object[]{"ST100", 2, null});
+
+        int updated = AverageRecomputation.write(connection(),
+                batch(new AverageRecomputation.Computed("ST100", 1, 12.5f)));
+
+        assertEquals(1, updated);
+        assertEquals(List.of(Map.of(1, 12.5f, 2, "ST100")), batches.get(AverageRecomputation.UPDATE_SQL));
+        assertEquals(List.of(
+                List.of(2, MajorStats.NO_AVERAGE, -1, 0),
+                List.of(2, 12, 1, 1)), statsDeltas());
+    }
+
+    @Test
+    void zeroAverageReplacesNoAverage() throws SQLException {
+        students.add(new Object[]{"ST100", 2, null});
+
+        assertEquals(1, AverageRecomputation.write(connection(),
+                batch(new AverageRecomputation.Computed("ST100", null, 0f))));
+        assertEquals(List.of(
+                List.of(2, MajorStats.NO_AVERAGE, -1, 0),
+                List.of(2, 0, 1, 1)), statsDeltas());
+    }
+
+    @Test
+    void gradedZeroIsNotUngraded() throws SQLException {
+        students.add(new Object[]{"ST101", 3, 0f});
+
+        AverageRecomputation.write(connection(), batch(new AverageRecomputation.Computed("ST101", null, 10f)));
+
+        assertEquals(List.of(
+                List.of(3, 0, -1, -1),
+                List.of(3, 10, 1, 1)), statsDeltas());
+    }
+
+    @Test
+    void unchangedAverageWritesNothing() throws SQLException {
+        students.add(new Object[]{"ST102", 1, 14f});
+
+        assertEquals(0, AverageRecomputation.write(connection(),
+                batch(new AverageRecomputation.Computed("ST102", 4, 14f))));
+        assertTrue(statsDeltas().isEmpty());
+        assertEquals(List.of(Map.of(1, "ST102", 2, 4)), batches.get(AverageRecomputation.CLEAN_SQL));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ensa.v2school.sm.DAO;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InListTest {
+
+    /** A statement that records the parameters bound to it, in order. */
+    private static PreparedStatement recording(List<Object> bound) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("set")) {
+                        assertEquals(bound.size() + 2, args[0], "parameters bound in order from 2");
+                        bound.add(args[1]);
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    void paddedToTheNextPowerOfTwo() {
+        assertEquals(0, InList.padded(0));
+        assertEquals(1, InList.padded(1));
+        assertEquals(2, InList.padded(2));
+        assertEquals(4, InList.padded(3));
+        assertEquals(4, InList.padded(4));
+        assertEquals(8, InList.padded(5));
+        assertEquals(512, InList.padded(512));
+        assertEquals(1024, InList.padded(513));
+    }
+
+    @Test
+    void placeholdersMatchThePaddedSize() {
+        assertEquals("?", InList.placeholders(1));
+        assertEquals("?, ?, ?, ?", InList.placeholders(3));
+        assertEquals(8, InList.placeholders(5).split(", ").length);
+    }
+
+    @Test
+    void setIntsRepeatsTheLastValue() throws SQLException {
+        List<Object> bound = new ArrayList<>();
+        int next = InList.setInts(recording(bound), 2, List.of(7, 3, 9));
+
+        assertEquals(List.of(7, 3, 9, 9), bound);
+        assertEquals(6, next);
+    }
+
+    @Test
+    void setStringsRepeatsTheLastValue() throws SQLException {
+        List<Object> bound = new ArrayList<>();
+        int next = InList.setStrings(recording(bound), 2, List.of("E1", "E2", "E3", "E4", "E5"));
+
+        assertEquals(List.of("E1", "E2", "E3", "E4", "E5", "E5", "E5", "E5"), bound);
+        assertEquals(10, next);
+    }
+
+    @Test
+    void exactPowerOfTwoIsNotPadded() throws SQLException {
+        List<Object> bound = new ArrayList<>();
+        assertEquals(4, InList.setInts(recording(bound), 2, List.of(1, 2)));
+        assertEquals(List.of(1, 2), bound);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ensa.v2school.sm.DAO;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaMigrationsTest {
+
+    /**
+     * Checksums recorded in {@code schema_history} by every database migrated so far: changing one of these
+     * scripts makes those databases refuse to start. Add a new migration instead.
+     */
+    private static final Map<Integer, Long> SHIPPED = Map.of(
+            1, 2275993250L,
+            2, 2434774118L,
+            3, 3921107931L,
+            4, 3710936936L,
+            5, 1635344971L);
+
+    @Test
+    void shippedScriptsAreUnchanged() {
+        for (SchemaMigrations.Migration migration : SchemaMigrations.bundled()) {
+            Long shipped = SHIPPED.get(migration.version());
+            if (shipped != null) {
+                assertEquals((long) shipped, migration.checksum(), "V" + migration.version() + " was modified");
+            }
+        }
+    }
+
+    @Test
+    void bundledInVersionOrder() {
+        List<SchemaMigrations.Migration> bundled = SchemaMigrations.bundled();
+        assertTrue(bundled.size() >= SHIPPED.size());
+        for (int i = 0; i < bundled.size(); i++) {
+            assertEquals(i + 1, bundled.get(i).version());
+        }
+        assertEquals("baseline", bundled.get(0).description());
+    }
+
+    @Test
+    void onlyIndexBuildsAreOnline() {
+        for (SchemaMigrations.Migration migration : SchemaMigrations.bundled()) {
+            if (SHIPPED.containsKey(migration.version())) {
+                assertEquals(migration.version() == 5, migration.online(), "V" + migration.version());
+            }
+        }
+    }
+
+    @Test
+    void checksumCoversEveryCharacter() {
+        assertEquals(SchemaMigrations.checksum("SELECT 1;\n"), SchemaMigrations.checksum("SELECT 1;\n"));
+        assertTrue(SchemaMigrations.checksum("SELECT 1;\n") != SchemaMigrations.checksum("SELECT 1; \n"));
+    }
+
+    @Test
+    void pendingSkipsAppliedVersions() {
+        List<SchemaMigrations.Migration> bundled = SchemaMigrations.bundled();
+        SchemaMigrations.Migration first = bundled.get(0);
+
+        List<SchemaMigrations.Migration> pending = SchemaMigrations.pending(bundled,
+                Map.of(first.version(), first.checksum()));
+
+        assertEquals(bundled.subList(1, bundled.size()), pending);
+        assertEquals(bundled, SchemaMigrations.pending(bundled, Map.of()));
+    }
+
+    @Test
+    void modifiedOrUnknownAppliedVersionIsRefused() {
+        List<SchemaMigrations.Migration> bundled = SchemaMigrations.bundled();
+        SchemaMigrations.Migration first = bundled.get(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> SchemaMigrations.pending(bundled, Map.of(first.version(), first.checksum() + 1)));
+        assertThrows(IllegalStateException.class,
+                () -> SchemaMigrations.pending(bundled, Map.of(999, 0L)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Statistics;
+import com.ensa.v2school.sm.Models.Statistics.Summary;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StatisticsRepositoryTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /** Adds one group of averages, the way a row of {@code SNAPSHOT_SQL} does. */
+    private static void add(StatisticsRepository.Accumulator accumulator, float... averages) {
+        double total = 0;
+        double totalSq = 0;
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (float average : averages) {
+            total += average;
+            totalSq += (double) average * average;
+            min = Math.min(min, average);
+            max = Math.max(max, average);
+        }
+        accumulator.add((int) averages[0], averages.length, total, totalSq, min, max);
+    }
+
+    @Test
+    void noStudentIsTheEmptySummary() {
+        assertSame(Summary.EMPTY, new StatisticsRepository.Accumulator().toSummary());
+    }
+
+    @Test
+    void populationMeanAndStandardDeviation() {
+        StatisticsRepository.Accumulator accumulator = new StatisticsRepository.Accumulator();
+        add(accumulator, 8, 8.5f);
+        add(accumulator, 12);
+        add(accumulator, 14, 14.5f);
+        add(accumulator, 18);
+
+        Summary summary = accumulator.toSummary();
+
+        // 8, 8.5, 12, 14, 14.5, 18: mean 12.5, squared deviations sum to 73
+        assertEquals(6, summary.count());
+        assertEquals(12.5, summary.mean(), EPSILON);
+        assertEquals(Math.sqrt(73.0 / 6), summary.stdDev(), EPSILON);
+        assertEquals(8, summary.min());
+        assertEquals(18, summary.max());
+        assertEquals(Statistics.BINS, summary.histogram().size());
+        assertEquals(2, (long) summary.histogram().get(8));
+        assertEquals(1, (long) summary.histogram().get(12));
+        assertEquals(2, (long) summary.histogram().get(14));
+        assertEquals(1, (long) summary.histogram().get(18));
+    }
+
+    @Test
+    void identicalAveragesHaveNoSpread() {
+        StatisticsRepository.Accumulator accumulator = new StatisticsRepository.Accumulator();
+        for (int i = 0; i < 1000; i++) {
+            add(accumulator, 13.37f);
+        }
+
+        Summary summary = accumulator.toSummary();
+
+        // totalSq / count - mean² only leaves rounding error, never a negative variance (a NaN deviation)
+        assertEquals(0, summary.stdDev(), 1e-4);
+        assertEquals(13.37f, summary.mean(), 1e-4);
+    }
+
+    @Test
+    void outOfRangeBinsGoToTheOuterBins() {
+        StatisticsRepository.Accumulator accumulator = new StatisticsRepository.Accumulator();
+        accumulator.add(-1, 1, 0, 0, 0, 0);
+        accumulator.add(20, 2, 40, 800, 20, 20);
+
+        Summary summary = accumulator.toSummary();
+
+        assertEquals(1, (long) summary.histogram().get(0));
+        assertEquals(2, (long) summary.histogram().get(Statistics.BINS - 1));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ensa.v2school.sm.DAO;
+
+import com.ensa.v2school.sm.Models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Read-only queries on the sample rows of {@code sql/data.sql}, in the embedded H2 database
+ * ({@code sm.db.profile=embedded}, set by the surefire configuration).
+ */
+class StudentRepositoryTest {
+
+    private final StudentRepository students = new StudentRepository();
+
+    private static List<String> ids(List<Student> students) {
+        return students.stream().map(Student::getId).toList();
+    }
+
+    @Test
+    void getJoinsMajorAndDossier() throws SQLException {
+        Student student = students.get("ST001").orElseThrow();
+
+        assertEquals("Abdessettar", student.getLastName());
+        assertEquals(16, student.getAverage());
+        assertEquals("Informatique", student.getMajor().getMajorName());
+        assertEquals("INS-2025-0001", student.getDossierAdministratif().getNumeroInscription());
+        assertEquals(Optional.empty(), students.get("ST999"));
+    }
+
+    @Test
+    void keysetPagesFollowEachOther() throws SQLException {
+        assertEquals(List.of("ST001", "ST002", "ST003"), ids(students.findPage(null, 3)));
+        assertEquals(List.of("ST004", "ST005", "ST006"), ids(students.findPage("ST003", 3)));
+        assertTrue(students.findPage("ST006", 3).isEmpty());
+
+        assertEquals(Optional.of("ST003"), students.findIdAfter(null, 2));
+        assertEquals(Optional.of("ST005"), students.findIdAfter("ST003", 1));
+        assertEquals(Optional.empty(), students.findIdAfter("ST006", 0));
+    }
+
+    @Test
+    void rankingPagesFollowEachOther() throws SQLException {
+        List<Student> first = students.findPageByAverage(null, null, 2);
+        assertEquals(List.of("ST005", "ST004"), ids(first));
+
+        Student last = first.getLast();
+        assertEquals(List.of("ST001", "ST003"), ids(students.findPageByAverage(last.getAverage(), last.getId(), 2)));
+    }
+
+    @Test
+    void searchByNameMatchesAPrefixLiterally() throws SQLException {
+        assertEquals(List.of("ST003", "ST001"), ids(students.searchByName("Abde", 10)));
+        assertTrue(students.searchByName("%", 10).isEmpty());
+        assertTrue(students.searchByName("_bde", 10).isEmpty());
+    }
+
+    @Test
+    void studentsOfAMajorShareOneMajorInstance() throws SQLException {
+        List<Student> informatique = students.findByMajor(1);
+
+        assertEquals(2, informatique.size());
+        assertSame(informatique.get(0).getMajor(), informatique.get(1).getMajor());
+        assertEquals(6, students.getCount());
+    }
+}
@@ -0,0 +1,76 @@
+package com.ensa.v2school.sm.Models;
+
+import com.ensa.v2school.sm.Models.Statistics.Summary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatisticsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /** Summary of {@code count} students per listed bin, min and max given. */
+    private static Summary summary(float min, float max, long... perBin) {
+        List<Long> histogram = new ArrayList<>(Collections.nCopies(Statistics.BINS, 0L));
+        long count = 0;
+        for (int bin = 0; bin < perBin.length; bin++) {
+            histogram.set(bin, perBin[bin]);
+            count += perBin[bin];
+        }
+        return new Summary(count, 0, 0, min, max, histogram);
+    }
+
+    @Test
+    void emptySummaryHasZeroPercentiles() {
+        assertEquals(0, Summary.EMPTY.median());
+        assertEquals(0, Summary.EMPTY.percentile(90));
+    }
+
+    @Test
+    void interpolatesInsideTheBin() {
+        long[] perBin = new long[12];
+        perBin[10] = 4;
+        Summary summary = summary(10, 10.99f, perBin);
+
+        assertEquals(10.5, summary.median(), 0.01);
+        assertEquals(10.25, summary.percentile(25), 0.01);
+    }
+
+    @Test
+    void outerBinsAreNarrowedToMinAndMax() {
+        long[] perBin = new long[16];
+        perBin[8] = 2;
+        perBin[15] = 2;
+        Summary summary = summary(8.5f, 15.5f, perBin);
+
+        // the lowest bin spans [8.5, 9), the highest [15, 15.5]
+        assertEquals(8.75, summary.percentile(25), EPSILON);
+        assertEquals(15.5, summary.percentile(100), EPSILON);
+        assertEquals(8.5, summary.percentile(0), EPSILON);
+    }
+
+    @Test
+    void medianAcrossBins() {
+        long[] perBin = new long[14];
+        perBin[10] = 3;
+        perBin[12] = 1;
+        perBin[13] = 2;
+        Summary summary = summary(10, 13.5f, perBin);
+
+        // rank 3 of 6 is the last student of bin 10
+        assertEquals(11, summary.median(), EPSILON);
+        // rank 4.5 is a quarter through bin 13, which ends at the max
+        assertEquals(13.125, summary.percentile(75), EPSILON);
+    }
+
+    @Test
+    void histogramIsImmutable() {
+        Summary summary = summary(0, 1, 1);
+        assertThrows(UnsupportedOperationException.class, () -> summary.histogram().set(0, 5L));
+    }
+}
@@ -0,0 +1,197 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    private FakeDriver driver;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        driver = FakeDriver.register();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (pool != null) {
+            pool.close();
+        }
+        FakeDriver.deregister();
+    }
+
+    private ConnectionPool pool(int minIdle, int maxSize) throws SQLException {
+        PoolConfig config = new PoolConfig(FakeDriver.URL, "sm", "secret");
+        config.setMinIdle(minIdle);
+        config.setMaxSize(maxSize);
+        config.setConnectionTimeoutMs(100);
+        config.setHousekeepingIntervalMs(60_000);
+        config.setStatementCacheSize(2);
+        pool = new ConnectionPool(config);
+        return pool;
+    }
+
+    @Test
+    void opensMinIdleConnectionsUpFront() throws SQLException {
+        pool(2, 4);
+
+        assertEquals(2, driver.connections.size());
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws SQLException {
+        pool(0, 2);
+
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getActiveCount());
+        first.close();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (Connection second = pool.getConnection()) {
+            assertTrue(first != second, "each borrow gets its own lease");
+        }
+        assertEquals(1, driver.connections.size());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getBorrowCount());
+    }
+
+    @Test
+    void closedLeaseRejectsCalls() throws SQLException {
+        pool(0, 1);
+        Connection lease = pool.getConnection();
+        lease.close();
+        lease.close(); // closing twice is harmless
+
+        assertTrue(lease.isClosed());
+        assertThrows(SQLException.class, () -> lease.prepareStatement("SELECT 1"));
+        assertThrows(SQLException.class, lease::commit);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void timesOutWhenEveryConnectionIsLeased() throws SQLException {
+        pool(0, 1);
+        try (Connection ignored = pool.getConnection()) {
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        }
+        assertEquals(1, pool.getTimeoutCount());
+
+        // the permit of the failed borrow was not lost
+        try (Connection again = pool.getConnection()) {
+            assertFalse(again.isClosed());
+        }
+    }
+
+    @Test
+    void releaseRollsBackAnOpenTransaction() throws SQLException {
+        pool(0, 1);
+        try (Connection con = pool.getConnection()) {
+            con.setAutoCommit(false);
+        }
+
+        FakeDriver.FakeConnection physical = driver.connections.get(0);
+        assertEquals(1, physical.rollbacks);
+        assertTrue(physical.autoCommit);
+    }
+
+    @Test
+    void invalidIdleConnectionIsReplaced() throws SQLException {
+        pool(1, 1);
+        driver.connections.get(0).valid = false;
+
+        try (Connection con = pool.getConnection()) {
+            assertFalse(con.isClosed());
+        }
+        assertEquals(2, driver.connections.size());
+        assertTrue(driver.connections.get(0).closed);
+        assertEquals(1, pool.getTotalCount());
+    }
+
+    @Test
+    void closedStatementIsReusedByTheNextBorrower() throws SQLException {
+        pool(0, 1);
+        try (Connection con = pool.getConnection(); PreparedStatement ps = con.prepareStatement("SELECT 1")) {
+            assertTrue(ps.getConnection() == con);
+        }
+        try (Connection con = pool.getConnection(); PreparedStatement ps = con.prepareStatement("SELECT 1")) {
+            assertFalse(ps.isClosed());
+        }
+
+        FakeDriver.FakeConnection physical = driver.connections.get(0);
+        assertEquals(1, physical.statements.size());
+        assertFalse(physical.statements.get(0).closed);
+        assertTrue(physical.statements.get(0).clearParameters > 0, "parameters are cleared before reuse");
+        assertEquals(1, pool.getStatementPrepareCount());
+        assertEquals(1, pool.getStatementReuseCount());
+        assertEquals(0.5, pool.getStatementCacheHitRatio());
+    }
+
+    @Test
+    void openResultSetIsClosedBeforeTheStatementIsCached() throws SQLException {
+        pool(0, 1);
+        try (Connection con = pool.getConnection(); PreparedStatement ps = con.prepareStatement("SELECT 1")) {
+            ps.executeQuery(); // never closed by the caller
+        }
+
+        FakeDriver.FakeStatement physical = driver.connections.get(0).statements.get(0);
+        assertFalse(physical.closed);
+        assertTrue(physical.results.get(0)[0], "the cursor does not follow the statement into the cache");
+    }
+
+    @Test
+    void statementOutlivingItsLeaseRejectsCalls() throws SQLException {
+        pool(0, 1);
+        PreparedStatement stale;
+        try (Connection con = pool.getConnection()) {
+            stale = con.prepareStatement("SELECT 1");
+        }
+
+        assertThrows(SQLException.class, stale::executeQuery);
+        stale.close();
+        assertTrue(driver.connections.get(0).statements.get(0).closed, "not put back in the cache");
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        pool(0, 1);
+        try (Connection con = pool.getConnection()) {
+            for (String sql : new String[]{"SELECT 1", "SELECT 2", "SELECT 3"}) {
+                con.prepareStatement(sql).close();
+            }
+        }
+
+        FakeDriver.FakeConnection physical = driver.connections.get(0);
+        assertTrue(physical.statements.get(0).closed);
+        assertFalse(physical.statements.get(1).closed);
+        assertFalse(physical.statements.get(2).closed);
+        assertEquals(1, pool.getStatementEvictionCount());
+    }
+
+    @Test
+    void closeClosesEveryPhysicalConnection() throws SQLException {
+        pool(2, 2);
+        Connection leased = pool.getConnection();
+        pool.close();
+
+        assertThrows(SQLException.class, pool::getConnection);
+        leased.close();
+        for (FakeDriver.FakeConnection physical : driver.connections) {
+            assertTrue(physical.closed);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    private static CsvReader reader(byte[] bytes) {
+        return new CsvReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    private static CsvReader reader(String text) {
+        return reader(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<List<String>> readAll(CsvReader reader) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /** Hands out one byte per read, so that every character crosses a buffer boundary. */
+    private static ReadableByteChannel trickle(byte[] bytes) {
+        return new ReadableByteChannel() {
+            private int position;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (position == bytes.length) {
+                    return -1;
+                }
+                dst.put(bytes[position++]);
+                return 1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        try (CsvReader reader = reader("id,name\n1,Alaoui\n2,\n")) {
+            assertEquals(List.of(List.of("id", "name"), List.of("1", "Alaoui"), List.of("2", "")), readAll(reader));
+        }
+    }
+
+    @Test
+    void lastRecordNeedsNoLineEnd() throws IOException {
+        try (CsvReader reader = reader("a,b\nc,d")) {
+            assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll(reader));
+        }
+    }
+
+    @Test
+    void emptyInputHasNoRecord() throws IOException {
+        try (CsvReader reader = reader("")) {
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        try (CsvReader reader = reader("\"Ben, Ali\",\"say \"\"hi\"\"\",\"two\nlines\"\nnext,\"\"\n")) {
+            assertEquals(List.of("Ben, Ali", "say \"hi\"", "two\nlines"), reader.next());
+            assertEquals(1, reader.getRecordLine());
+            assertEquals(List.of("next", ""), reader.next());
+            assertEquals(3, reader.getRecordLine());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void handlesCrLfAndByteOrderMark() throws IOException {
+        byte[] text = "id,name\r\n1,Rami\r\n".getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[text.length + 3];
+        bytes[0] = (byte) 0xEF;
+        bytes[1] = (byte) 0xBB;
+        bytes[2] = (byte) 0xBF;
+        System.arraycopy(text, 0, bytes, 3, text.length);
+
+        try (CsvReader reader = reader(bytes)) {
+            assertEquals(List.of(List.of("id", "name"), List.of("1", "Rami")), readAll(reader));
+        }
+    }
+
+    @Test
+    void fieldsLongerThanTheBuffer() throws IOException {
+        String big = "é".repeat(100_000);
+        try (CsvReader reader = reader("\"" + big + "\"," + big + "\nend\n")) {
+            List<String> record = reader.next();
+            assertEquals(2, record.size());
+            assertEquals(big, record.get(0));
+            assertEquals(big, record.get(1));
+            assertEquals(List.of("end"), reader.next());
+        }
+    }
+
+    @Test
+    void multiByteCharactersSplitAcrossReads() throws IOException {
+        String text = "prénom,ville\nÉlodie,Fès 🌍\n";
+        try (CsvReader reader = new CsvReader(trickle(text.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(List.of(List.of("prénom", "ville"), List.of("Élodie", "Fès 🌍")), readAll(reader));
+        }
+    }
+
+    @Test
+    void unterminatedQuoteReportsItsLine() throws IOException {
+        try (CsvReader reader = reader("a\n\"open,\nstill open\n")) {
+            reader.next();
+            IOException e = assertThrows(IOException.class, reader::next);
+            assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        }
+    }
+
+    @Test
+    void malformedUtf8IsAnError() throws IOException {
+        try (CsvReader reader = reader(new byte[]{'a', ',', (byte) 0xC3, '\n'})) {
+            assertThrows(CharacterCodingException.class, reader::next);
+        }
+        try (CsvReader reader = reader(new byte[]{'a', ',', (byte) 0xE2, (byte) 0x82})) {
+            assertThrows(CharacterCodingException.class, reader::next);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The shared instance runs on the embedded H2 database ({@code sm.db.profile=embedded}, set by the surefire
+ * configuration); the startup failure tests use instances of their own over {@link FakeDriver}.
+ */
+class DataBaseConnectionTest {
+
+    private final DataBaseConnection db = DataBaseConnection.getInstance();
+
+    @AfterEach
+    void tearDown() {
+        db.setMode(ConnectionMode.THREAD_AFFINITY);
+    }
+
+    private static int one(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT 1")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void nestedCallsShareTheThreadLease() throws SQLException {
+        int active = db.getPool().getActiveCount();
+        long hits = db.getAffinityHits();
+
+        try (Connection outer = db.getConnection()) {
+            try (Connection inner = db.getConnection()) {
+                assertEquals(active + 1, db.getPool().getActiveCount());
+                assertEquals(1, one(inner));
+            }
+            // closing the inner handle leaves the lease with the outer call
+            assertFalse(outer.isClosed());
+            assertEquals(1, one(outer));
+            assertEquals(active + 1, db.getPool().getActiveCount());
+        }
+
+        assertEquals(active, db.getPool().getActiveCount());
+        assertEquals(hits + 1, db.getAffinityHits());
+    }
+
+    @Test
+    void closedHandleRejectsCalls() throws SQLException {
+        Connection con = db.getConnection();
+        con.close();
+        con.close();
+
+        assertTrue(con.isClosed());
+        assertThrows(SQLException.class, con::createStatement);
+    }
+
+    @Test
+    void otherThreadsGetTheirOwnLease() throws Exception {
+        int active = db.getPool().getActiveCount();
+        try (Connection mine = db.getConnection()) {
+            int seenByOther = CompletableFuture.supplyAsync(() -> {
+                try (Connection theirs = db.getConnection()) {
+                    return db.getPool().getActiveCount();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).get();
+
+            assertEquals(active + 2, seenByOther);
+            assertEquals(1, one(mine));
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    @Test
+    void pooledModeBorrowsForEveryCall() throws SQLException {
+        db.setMode(ConnectionMode.POOLED);
+        int active = db.getPool().getActiveCount();
+        long hits = db.getAffinityHits();
+
+        try (Connection outer = db.getConnection(); Connection inner = db.getConnection()) {
+            assertEquals(active + 2, db.getPool().getActiveCount());
+        }
+
+        assertEquals(active, db.getPool().getActiveCount());
+        assertEquals(hits, db.getAffinityHits());
+    }
+
+    @Test
+    void pooledCallBorrowsBesideTheThreadLease() throws SQLException {
+        int active = db.getPool().getActiveCount();
+
+        try (Connection reader = db.getConnection(); Connection writer = db.getConnection(ConnectionMode.POOLED)) {
+            assertEquals(active + 2, db.getPool().getActiveCount());
+            assertEquals(1, one(writer));
+            try (Connection nested = db.getConnection()) {
+                assertEquals(active + 2, db.getPool().getActiveCount(), "still the thread lease");
+            }
+            assertFalse(reader.isClosed());
+        }
+
+        assertEquals(active, db.getPool().getActiveCount());
+        assertEquals(ConnectionMode.THREAD_AFFINITY, db.getMode());
+    }
+
+    /** Fake database whose initialisation can be made to fail. */
+    private static final class FakeProfile implements ConnectionProfile {
+        private int initializeFailures;
+        private int initialized;
+
+        @Override
+        public PoolConfig poolConfig() {
+            PoolConfig config = new PoolConfig(FakeDriver.URL, "sm", "secret");
+            config.setMinIdle(1);
+            config.setMaxSize(2);
+            config.setHousekeepingIntervalMs(60_000);
+            return config;
+        }
+
+        @Override
+        public void initialize(DataSource dataSource) throws SQLException {
+            if (initializeFailures > 0) {
+                initializeFailures--;
+                throw new SQLException("Seeding failed");
+            }
+            initialized++;
+        }
+    }
+
+    private static void closePool(DataBaseConnection db) throws SQLException {
+        if (db.getPoolIfOpen() != null) {
+            db.getPoolIfOpen().close();
+        }
+        FakeDriver.deregister();
+    }
+
+    @Test
+    void databaseDownAtStartupIsRetriedOnTheNextCall() throws SQLException {
+        FakeDriver driver = FakeDriver.register();
+        FakeProfile profile = new FakeProfile();
+        driver.down = true;
+        DataBaseConnection down = new DataBaseConnection(profile); // does not connect
+        try {
+            assertThrows(SQLException.class, down::getConnection);
+            assertThrows(SQLException.class, down::getConnection);
+            assertNull(down.getPoolIfOpen());
+
+            driver.down = false;
+            try (Connection con = down.getConnection()) {
+                assertFalse(con.isClosed());
+            }
+            assertNotNull(down.getPoolIfOpen());
+            assertEquals(1, profile.initialized);
+        } finally {
+            closePool(down);
+        }
+    }
+
+    @Test
+    void failedInitializationClosesThePoolAndIsRetried() throws SQLException {
+        FakeDriver driver = FakeDriver.register();
+        FakeProfile profile = new FakeProfile();
+        profile.initializeFailures = 1;
+        DataBaseConnection fresh = new DataBaseConnection(profile);
+        try {
+            assertThrows(SQLException.class, fresh::getConnection);
+            assertNull(fresh.getPoolIfOpen());
+            assertEquals(1, driver.connections.size());
+            assertTrue(driver.connections.get(0).closed, "the half-opened pool was closed");
+
+            try (Connection con = fresh.getConnection()) {
+                assertFalse(con.isClosed());
+            }
+            assertEquals(1, profile.initialized);
+            assertTrue(fresh.getPool() == fresh.getPool(), "opened once");
+        } finally {
+            closePool(fresh);
+        }
+    }
+}
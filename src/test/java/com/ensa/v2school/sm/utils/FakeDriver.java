@@ -0,0 +1,192 @@
+package com.ensa.v2school.sm.utils;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * In-memory JDBC driver for {@code jdbc:fake:} URLs: physical connections and statements that only record what
+ * was done to them, so the pool can be tested without a database.
+ */
+final class FakeDriver implements Driver {
+
+    static final String URL = "jdbc:fake:test";
+
+    private static final FakeDriver INSTANCE = new FakeDriver();
+
+    /** Every physical connection opened so far, in order. */
+    final List<FakeConnection> connections = new CopyOnWriteArrayList<>();
+
+    /** While set, connecting fails as if the server were down. */
+    volatile boolean down;
+
+    static FakeDriver register() throws SQLException {
+        DriverManager.registerDriver(INSTANCE);
+        INSTANCE.connections.clear();
+        INSTANCE.down = false;
+        return INSTANCE;
+    }
+
+    static void deregister() throws SQLException {
+        DriverManager.deregisterDriver(INSTANCE);
+    }
+
+    /** State of one physical connection. */
+    static final class FakeConnection {
+        volatile boolean closed;
+        volatile boolean valid = true;
+        volatile boolean autoCommit = true;
+        volatile int rollbacks;
+        final List<FakeStatement> statements = new CopyOnWriteArrayList<>();
+    }
+
+    /** State of one physical prepared statement. */
+    static final class FakeStatement {
+        final String sql;
+        volatile boolean closed;
+        volatile int clearParameters;
+        /** Result sets returned by {@code executeQuery}, each recorded as closed or not. */
+        final List<boolean[]> results = new CopyOnWriteArrayList<>();
+
+        private FakeStatement(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    static FakeStatement statementState(String sql) {
+        return new FakeStatement(sql);
+    }
+
+    /** A statement recording into {@code state}. */
+    static PreparedStatement statement(FakeStatement state) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        state.closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> state.closed;
+                    case "clearParameters" -> {
+                        state.clearParameters++;
+                        yield null;
+                    }
+                    case "executeQuery" -> {
+                        boolean[] closed = new boolean[1];
+                        state.results.add(closed);
+                        yield resultSet(closed);
+                    }
+                    case "getResultSet" -> state.results.isEmpty() || state.results.getLast()[0]
+                            ? null
+                            : resultSet(state.results.getLast());
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "FakeStatement[" + state.sql + "]";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    /** An empty result set setting {@code closed[0]} when closed. */
+    private static ResultSet resultSet(boolean[] closed) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed[0] = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed[0];
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        if (down) {
+            throw new SQLException("Communications link failure", "08S01");
+        }
+        FakeConnection state = new FakeConnection();
+        connections.add(state);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        state.closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> state.closed;
+                    case "isValid" -> state.valid && !state.closed;
+                    case "getAutoCommit" -> state.autoCommit;
+                    case "setAutoCommit" -> {
+                        state.autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        state.rollbacks++;
+                        yield null;
+                    }
+                    case "prepareStatement" -> {
+                        FakeStatement statement = statementState((String) args[0]);
+                        state.statements.add(statement);
+                        yield statement(statement);
+                    }
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "FakeConnection#" + connections.indexOf(state);
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url.startsWith("jdbc:fake:");
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private static final long MAX_MICROS = (1L << 40) - 1;
+
+    @Test
+    void bucketsAreExactBelowSixteenMicros() {
+        for (long micros = 0; micros < 16; micros++) {
+            int index = LatencyHistogram.indexOf(micros);
+            assertEquals(micros, index);
+            assertEquals(micros, LatencyHistogram.upperBoundMicros(index));
+        }
+    }
+
+    @Test
+    void bucketBoundsAroundPowersOfTwo() {
+        assertEquals(16, LatencyHistogram.indexOf(16));
+        assertEquals(16, LatencyHistogram.upperBoundMicros(16));
+        assertEquals(31, LatencyHistogram.upperBoundMicros(LatencyHistogram.indexOf(31)));
+
+        // from 32µs on, buckets are two wide, from 64µs four wide, ...
+        assertEquals(LatencyHistogram.indexOf(32), LatencyHistogram.indexOf(33));
+        assertEquals(33, LatencyHistogram.upperBoundMicros(LatencyHistogram.indexOf(32)));
+        assertEquals(LatencyHistogram.indexOf(33) + 1, LatencyHistogram.indexOf(34));
+        assertEquals(1023, LatencyHistogram.upperBoundMicros(LatencyHistogram.indexOf(1000)));
+        assertEquals(1087, LatencyHistogram.upperBoundMicros(LatencyHistogram.indexOf(1024)));
+    }
+
+    @Test
+    void everyValueFallsWithinSixPercentBelowItsUpperBound() {
+        int previous = -1;
+        for (long micros = 0; micros <= MAX_MICROS; micros = micros < 4096 ? micros + 1 : micros + micros / 7) {
+            int index = LatencyHistogram.indexOf(micros);
+            long upper = LatencyHistogram.upperBoundMicros(index);
+            long lower = index == 0 ? 0 : LatencyHistogram.upperBoundMicros(index - 1) + 1;
+
+            assertTrue(index >= previous, "indexOf is monotonic at " + micros);
+            assertTrue(lower <= micros && micros <= upper, micros + " in [" + lower + ", " + upper + "]");
+            assertTrue(upper - micros <= micros / 16, "bucket of " + micros + " ends at " + upper);
+            previous = index;
+        }
+    }
+
+    @Test
+    void upperBoundOfEachBucketMapsBackToIt() {
+        int last = LatencyHistogram.indexOf(MAX_MICROS);
+        for (int index = 0; index <= last; index++) {
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.upperBoundMicros(index)));
+        }
+        assertEquals(MAX_MICROS, LatencyHistogram.upperBoundMicros(last));
+    }
+
+    @Test
+    void percentilesOfRecordedCalls() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentileMillis(0.99));
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000_000); // 1 ms
+        }
+        histogram.record(50_000_000); // 50 ms
+
+        assertEquals(1.023, histogram.percentileMillis(0.5));
+        assertEquals(1.023, histogram.percentileMillis(0.99));
+        assertEquals(LatencyHistogram.upperBoundMicros(LatencyHistogram.indexOf(50_000)) / 1000.0,
+                histogram.percentileMillis(0.999));
+    }
+
+    @Test
+    void outOfRangeDurationsAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.percentileMillis(1));
+
+        histogram.reset();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(MAX_MICROS / 1000.0, histogram.percentileMillis(1));
+    }
+}
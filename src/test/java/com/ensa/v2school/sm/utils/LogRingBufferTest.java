@@ -0,0 +1,133 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogRingBufferTest {
+
+    private static boolean offer(LogRingBuffer buffer, String message) {
+        return buffer.offer(Log.Level.INFO, "test", "main", message, null);
+    }
+
+    private static List<String> drain(LogRingBuffer buffer) {
+        List<String> messages = new ArrayList<>();
+        buffer.drain((time, level, logger, thread, message, fields) -> messages.add(message));
+        return messages;
+    }
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        LogRingBuffer buffer = new LogRingBuffer(5);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(offer(buffer, "m" + i));
+        }
+        assertFalse(offer(buffer, "m8"));
+
+        LogRingBuffer tiny = new LogRingBuffer(0);
+        assertTrue(offer(tiny, "a"));
+        assertTrue(offer(tiny, "b"));
+        assertFalse(offer(tiny, "c"));
+    }
+
+    @Test
+    void drainsEveryFieldInPublicationOrder() {
+        LogRingBuffer buffer = new LogRingBuffer(4);
+        Object[] fields = {"id", 42};
+        buffer.offer(Log.Level.WARN, "pool", "worker-1", "first", fields);
+        offer(buffer, "second");
+
+        List<Object[]> records = new ArrayList<>();
+        int count = buffer.drain((time, level, logger, thread, message, f) ->
+                records.add(new Object[]{level, logger, thread, message, f}));
+
+        assertEquals(2, count);
+        assertArrayEquals(new Object[]{Log.Level.WARN, "pool", "worker-1", "first", fields}, records.get(0));
+        assertEquals("second", records.get(1)[3]);
+        assertEquals(0, buffer.drain((time, level, logger, thread, message, f) -> { }));
+    }
+
+    @Test
+    void fullBufferDropsAndCountsUntilDrained() {
+        LogRingBuffer buffer = new LogRingBuffer(2);
+        offer(buffer, "a");
+        offer(buffer, "b");
+        assertFalse(offer(buffer, "c"));
+        assertFalse(offer(buffer, "d"));
+        assertEquals(2, buffer.getDropped());
+
+        assertEquals(List.of("a", "b"), drain(buffer));
+        assertTrue(offer(buffer, "e"));
+        assertEquals(List.of("e"), drain(buffer));
+        assertEquals(2, buffer.getDropped());
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        LogRingBuffer buffer = new LogRingBuffer(4);
+        List<String> expected = new ArrayList<>();
+        List<String> drained = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            offer(buffer, "m" + i);
+            expected.add("m" + i);
+            if (i % 3 == 2) {
+                drained.addAll(drain(buffer));
+            }
+        }
+        drained.addAll(drain(buffer));
+
+        assertEquals(expected, drained);
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingButWhatWasDropped() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        LogRingBuffer buffer = new LogRingBuffer(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String name = "producer-" + p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(Log.Level.INFO, "test", name, Integer.toString(i), null);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Map<String, Integer> last = new HashMap<>();
+        int[] received = {0};
+        LogRingBuffer.Sink sink = (time, level, logger, thread, message, fields) -> {
+            int sequence = Integer.parseInt(message);
+            Integer previous = last.put(thread, sequence);
+            assertTrue(previous == null || previous < sequence, thread + " in order");
+            received[0]++;
+        };
+        start.countDown();
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                buffer.drain(sink);
+            }
+        }
+        buffer.drain(sink);
+
+        assertEquals((long) producers * perProducer, received[0] + buffer.getDropped());
+    }
+}
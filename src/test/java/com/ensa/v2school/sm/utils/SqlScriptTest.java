@@ -0,0 +1,56 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlScriptTest {
+
+    @Test
+    void splitsOnSemicolonsEndingALine() {
+        String script = """
+                CREATE TABLE a (id INT);
+                INSERT INTO a VALUES (1),
+                  (2);
+                SELECT ';' FROM a; SELECT 2;
+                """;
+
+        assertEquals(List.of(
+                "CREATE TABLE a (id INT)",
+                "INSERT INTO a VALUES (1),\n  (2)",
+                "SELECT ';' FROM a; SELECT 2"), SqlScript.statements(script));
+    }
+
+    @Test
+    void dropsCommentLinesAndBlankStatements() {
+        String script = """
+                -- header; with a semicolon;
+                  -- indented comment
+                CREATE TABLE a (id INT);
+
+                ;
+                -- trailing comment
+                """;
+
+        assertEquals(List.of("CREATE TABLE a (id INT)"), SqlScript.statements(script));
+        assertTrue(SqlScript.statements("-- nothing\n").isEmpty());
+    }
+
+    @Test
+    void lastStatementNeedsNoSemicolon() {
+        assertEquals(List.of("SELECT 1", "SELECT 2"), SqlScript.statements("SELECT 1;\nSELECT 2\n"));
+    }
+
+    @Test
+    void readsBundledScripts() {
+        String schema = SqlScript.read("/com/ensa/v2school/sm/sql/migrations/V1__baseline.sql");
+        assertFalse(schema.isBlank());
+        assertFalse(schema.contains("\r"));
+        assertThrows(IllegalStateException.class, () -> SqlScript.read("/com/ensa/v2school/sm/sql/missing.sql"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ensa.v2school.sm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static StatementCache.Key key(String sql) {
+        return StatementCache.Key.of(new Object[]{sql});
+    }
+
+    @Test
+    void keysTellPrepareOptionsApart() {
+        StatementCache.Key plain = key("SELECT 1");
+        StatementCache.Key keys = StatementCache.Key.of(new Object[]{"SELECT 1", Statement.RETURN_GENERATED_KEYS});
+        StatementCache.Key scrollable = StatementCache.Key.of(
+                new Object[]{"SELECT 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY});
+
+        assertEquals(plain, key("SELECT 1"));
+        assertNotEquals(plain, keys);
+        assertNotEquals(plain, scrollable);
+        assertNull(StatementCache.Key.of(new Object[]{"SELECT 1", new int[]{1}}));
+        assertNull(StatementCache.Key.of(new Object[]{"SELECT 1", 1003, 1007, 1}));
+    }
+
+    @Test
+    void takeRemovesTheIdleStatement() {
+        StatementCache cache = new StatementCache(4, evictions);
+        PreparedStatement statement = new Recorded("SELECT 1").proxy;
+
+        assertTrue(cache.offer(key("SELECT 1"), statement));
+        assertSame(statement, cache.take(key("SELECT 1")));
+        assertNull(cache.take(key("SELECT 1")));
+    }
+
+    @Test
+    void duplicateIsNotKept() {
+        StatementCache cache = new StatementCache(4, evictions);
+        assertTrue(cache.offer(key("SELECT 1"), new Recorded("SELECT 1").proxy));
+        assertFalse(cache.offer(key("SELECT 1"), new Recorded("SELECT 1").proxy));
+    }
+
+    @Test
+    void evictsAndClosesTheLeastRecentlyUsed() {
+        StatementCache cache = new StatementCache(2, evictions);
+        Recorded a = new Recorded("a");
+        Recorded b = new Recorded("b");
+        Recorded c = new Recorded("c");
+        cache.offer(key("a"), a.proxy);
+        cache.offer(key("b"), b.proxy);
+        cache.offer(key("a"), cache.take(key("a"))); // "a" used again
+        cache.offer(key("c"), c.proxy);
+
+        assertTrue(b.state.closed);
+        assertFalse(a.state.closed);
+        assertFalse(c.state.closed);
+        assertEquals(1, evictions.get());
+        assertNull(cache.take(key("b")));
+    }
+
+    @Test
+    void closeAllClosesEveryIdleStatement() {
+        StatementCache cache = new StatementCache(4, evictions);
+        Recorded a = new Recorded("a");
+        Recorded b = new Recorded("b");
+        cache.offer(key("a"), a.proxy);
+        cache.offer(key("b"), b.proxy);
+
+        cache.closeAll();
+
+        assertTrue(a.state.closed);
+        assertTrue(b.state.closed);
+        assertNull(cache.take(key("a")));
+        assertEquals(0, evictions.get());
+    }
+
+    @Test
+    void sizeZeroDisablesTheCache() {
+        assertFalse(new StatementCache(0, evictions).isEnabled());
+        assertTrue(new StatementCache(1, evictions).isEnabled());
+    }
+
+    /** A fake statement together with the state it records. */
+    private static final class Recorded {
+        final FakeDriver.FakeStatement state;
+        final PreparedStatement proxy;
+
+        Recorded(String sql) {
+            state = FakeDriver.statementState(sql);
+            proxy = FakeDriver.statement(state);
+        }
+    }
+}